@@ -0,0 +1,12 @@
+package com.sd.store.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveReadApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveReadApiApplication.class, args);
+    }
+}
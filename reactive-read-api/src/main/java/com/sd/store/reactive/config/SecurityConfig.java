@@ -0,0 +1,72 @@
+package com.sd.store.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+import java.util.Objects;
+
+/**
+ * Same users, roles and BCrypt hashes as the main application, read straight from its
+ * {@code users}/{@code user_roles}/{@code roles} tables. Password checks run on the bounded
+ * elastic scheduler, so BCrypt never stalls an event loop.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class SecurityConfig {
+
+    private static final String USER_WITH_ROLES = """
+            SELECT u.username, u.password, r.name AS role
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE u.username = :username""";
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public ReactiveUserDetailsService userDetailsService(DatabaseClient databaseClient) {
+        return username -> databaseClient.sql(USER_WITH_ROLES)
+                .bind("username", username)
+                .map(row -> new UserRole(row.get("username", String.class), row.get("password", String.class),
+                        row.get("role", String.class)))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> User.builder()
+                        .username(rows.getFirst().username())
+                        .password(rows.getFirst().password())
+                        .authorities(rows.stream()
+                                .map(UserRole::role)
+                                .filter(Objects::nonNull)
+                                .map(SimpleGrantedAuthority::new)
+                                .toList())
+                        .build());
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/actuator/**").permitAll()
+                        .anyExchange().authenticated())
+                .httpBasic(httpBasic -> {})
+                .build();
+    }
+
+    private record UserRole(String username, String password, String role) {}
+}
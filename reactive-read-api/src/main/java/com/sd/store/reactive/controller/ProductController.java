@@ -0,0 +1,108 @@
+package com.sd.store.reactive.controller;
+
+import com.sd.store.reactive.model.Product;
+import com.sd.store.reactive.repository.ProductReadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * The read-only product endpoints of the main application, with the same paths, parameters,
+ * roles and response shapes. Unpaged lists are streamed row by row: as a JSON array by default,
+ * or as newline-delimited JSON for {@code Accept: application/x-ndjson}. Rows are pulled from
+ * the database only as fast as the client reads them.
+ */
+@RestController
+@RequestMapping("/api/products")
+@PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+public class ProductController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("id", "name", "price", "quantity", "category", "createdAt", "updatedAt");
+
+    private final ProductReadRepository productRepository;
+
+    public ProductController(ProductReadRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Product> getAllProducts() {
+        logger.info("Request to get all products");
+        return productRepository.findAll(Sort.by("id"));
+    }
+
+    @GetMapping("/paginated")
+    public Mono<Page<Product>> getAllProductsPaginated(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "4") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        logger.info("Request to get all products with pagination: page={}, size={}, sortBy={}, sortDir={}",
+                page, size, sortBy, sortDir);
+
+        Pageable pageable = PageRequest.of(page, size, buildSort(sortBy, sortDir));
+        return toPage(productRepository.findAllBy(pageable), productRepository.count(), pageable);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Product>> getProductById(@PathVariable Long id) {
+        logger.info("Request to get product by ID: {}", id);
+        return productRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Product> searchProducts(@RequestParam String name) {
+        logger.info("Request to search products by name: {}", name);
+        return productRepository.findByNameContainingIgnoreCase(name);
+    }
+
+    @GetMapping("/search/paginated")
+    public Mono<Page<Product>> searchProductsPaginated(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        logger.info("Request to search products by name: {} with pagination: page={}, size={}, sortBy={}, sortDir={}",
+                name, page, size, sortBy, sortDir);
+
+        Pageable pageable = PageRequest.of(page, size, buildSort(sortBy, sortDir));
+        return toPage(productRepository.findByNameContainingIgnoreCase(name, pageable),
+                productRepository.countByNameContainingIgnoreCase(name), pageable);
+    }
+
+    private static Mono<Page<Product>> toPage(Flux<Product> content, Mono<Long> total, Pageable pageable) {
+        return Mono.zip(content.collectList(), total)
+                .map(pageAndTotal -> new PageImpl<>(pageAndTotal.getT1(), pageable, pageAndTotal.getT2()));
+    }
+
+    private static Sort buildSort(String sortBy, String sortDir) {
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot sort by '" + sortBy + "', allowed fields: " + SORTABLE_FIELDS);
+        }
+        return sortDir.equalsIgnoreCase(Sort.Direction.DESC.name())
+                ? Sort.by(sortBy).descending()
+                : Sort.by(sortBy).ascending();
+    }
+}
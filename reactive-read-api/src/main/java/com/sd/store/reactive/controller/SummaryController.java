@@ -0,0 +1,78 @@
+package com.sd.store.reactive.controller;
+
+import com.sd.store.reactive.repository.ProductReadRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/summary")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+public class SummaryController {
+
+    private final ProductReadRepository productRepository;
+
+    @Value("${metrics.low-stock.threshold:5}")
+    private int lowStockThreshold;
+
+    @Value("${metrics.degraded.low-stock-threshold:10}")
+    private int degradedLowStockThreshold;
+
+    @Value("${metrics.down.out-of-stock-threshold:5}")
+    private int downOutOfStockThreshold;
+
+    public SummaryController(ProductReadRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @GetMapping("/")
+    public Mono<ResponseEntity<Map<String, Object>>> getSummary() {
+        return Mono.zip(productRepository.count(),
+                        productRepository.countByQuantityLessThan(lowStockThreshold),
+                        productRepository.countOutOfStockProducts())
+                .map(counts -> ResponseEntity.ok(summarize(counts.getT1(), counts.getT2(), counts.getT3())))
+                .onErrorResume(e -> {
+                    Map<String, Object> health = new HashMap<>();
+                    health.put("timestamp", LocalDateTime.now());
+                    health.put("status", "DOWN");
+                    health.put("message", "Error retrieving metrics: " + e.getMessage());
+                    return Mono.just(ResponseEntity.status(500).body(health));
+                });
+    }
+
+    private Map<String, Object> summarize(long totalProducts, long lowStockProducts, long outOfStockProducts) {
+        Map<String, Object> health = new HashMap<>();
+
+        long inStockProducts = totalProducts - outOfStockProducts;
+        double stockAvailabilityRate = totalProducts > 0 ?
+            (double) inStockProducts / totalProducts * 100 : 0;
+
+        health.put("timestamp", LocalDateTime.now());
+        health.put("status", "UP");
+        health.put("totalProducts", totalProducts);
+        health.put("inStockProducts", inStockProducts);
+        health.put("lowStockProducts", lowStockProducts);
+        health.put("outOfStockProducts", outOfStockProducts);
+        health.put("stockAvailabilityRate", Math.round(stockAvailabilityRate * 100.0) / 100.0);
+        health.put("lowStockThreshold", lowStockThreshold);
+
+        if (outOfStockProducts > downOutOfStockThreshold) {
+            health.put("status", "DOWN");
+            health.put("message", "Too many products out of stock: " + outOfStockProducts);
+        } else if (lowStockProducts > degradedLowStockThreshold) {
+            health.put("status", "DEGRADED");
+            health.put("message", "Too many products with low stock: " + lowStockProducts);
+        } else {
+            health.put("message", "All systems operational");
+        }
+        return health;
+    }
+}
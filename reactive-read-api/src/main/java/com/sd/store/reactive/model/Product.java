@@ -0,0 +1,25 @@
+package com.sd.store.reactive.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a {@code products} row. The schema is owned and migrated by the main
+ * application; this record serializes to the same JSON as its {@code ProductDTO}.
+ */
+@Table("products")
+public record Product(
+        @Id Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer quantity,
+        String category,
+        String stockStatus,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,32 @@
+package com.sd.store.reactive.repository;
+
+import com.sd.store.reactive.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Deliberately not a CrudRepository: this module never writes
+public interface ProductReadRepository extends Repository<Product, Long> {
+
+    Mono<Product> findById(Long id);
+
+    Flux<Product> findAll(Sort sort);
+
+    Flux<Product> findAllBy(Pageable pageable);
+
+    Mono<Long> count();
+
+    Flux<Product> findByNameContainingIgnoreCase(String name);
+
+    Flux<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    Mono<Long> countByNameContainingIgnoreCase(String name);
+
+    Mono<Long> countByQuantityLessThan(Integer threshold);
+
+    @Query("SELECT COUNT(*) FROM products WHERE quantity = 0")
+    Mono<Long> countOutOfStockProducts();
+}
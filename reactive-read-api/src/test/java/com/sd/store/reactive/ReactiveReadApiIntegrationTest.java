@@ -0,0 +1,130 @@
+package com.sd.store.reactive;
+
+import com.sd.store.reactive.model.Product;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ReactiveReadApiIntegrationTest {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:reactive_read_api;DB_CLOSE_DELAY=-1";
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    // The main application owns the schema, so apply its migrations and seed through JDBC
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(JDBC_URL, "sa", "");
+        Flyway.configure().dataSource(dataSource).locations("filesystem:../src/main/resources/db/migration").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        for (String user : new String[] {"manager", "employee", "user"}) {
+            jdbc.update("INSERT INTO users (username, email, password) VALUES (?, ?, ?)",
+                    user, user + "@store.com", encoder.encode(user + "123"));
+            jdbc.update("INSERT INTO user_roles (user_id, role_id) SELECT u.id, r.id FROM users u, roles r "
+                    + "WHERE u.username = ? AND r.name = ?", user, "ROLE_" + user.toUpperCase());
+        }
+        IntStream.rangeClosed(1, PRODUCTS).forEach(i -> jdbc.update(
+                "INSERT INTO products (name, description, price, quantity, category, stock_status) VALUES (?, ?, ?, ?, ?, ?)",
+                "Product " + i, "Description " + i, BigDecimal.valueOf(i * 100L, 2), i % 10, "Category",
+                i % 10 == 0 ? "OUT_OF_STOCK" : "IN_STOCK"));
+
+        registry.add("spring.r2dbc.url", () -> "r2dbc:h2:mem:///reactive_read_api;DB_CLOSE_DELAY=-1");
+        registry.add("spring.r2dbc.username", () -> "sa");
+        registry.add("spring.r2dbc.password", () -> "");
+    }
+
+    @Test
+    void givenEmployee_whenGettingSortedPage_thenReturnsPageOfProducts() {
+        webTestClient.get().uri("/api/products/paginated?page=1&size=5&sortBy=price&sortDir=desc")
+                .headers(headers -> headers.setBasicAuth("employee", "employee123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(PRODUCTS)
+                .jsonPath("$.content.length()").isEqualTo(5)
+                .jsonPath("$.content[0].name").isEqualTo("Product 25")
+                .jsonPath("$.content[0].price").isEqualTo(25.0)
+                .jsonPath("$.content[0].stockStatus").isEqualTo("IN_STOCK");
+    }
+
+    @Test
+    void givenNdjsonAccept_whenSearching_thenStreamsMatchingProductsOnDemand() {
+        var products = webTestClient.get().uri("/api/products/search?name=product 1")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .headers(headers -> headers.setBasicAuth("employee", "employee123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Product.class)
+                .getResponseBody();
+
+        // Product 1 and Product 10-19
+        StepVerifier.create(products, 2)
+                .assertNext(product -> assertEquals("Product 1", product.name()))
+                .assertNext(product -> assertEquals("Product 10", product.name()))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(9)
+                .verifyComplete();
+    }
+
+    @Test
+    void givenRoles_whenRequestingSummary_thenOnlyManagersAllowed() {
+        webTestClient.get().uri("/api/summary/")
+                .headers(headers -> headers.setBasicAuth("manager", "manager123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalProducts").isEqualTo(PRODUCTS)
+                .jsonPath("$.outOfStockProducts").isEqualTo(3)
+                .jsonPath("$.lowStockProducts").isEqualTo(15)
+                .jsonPath("$.status").isEqualTo("DEGRADED")
+                .jsonPath("$.stockAvailabilityRate").isEqualTo(90.0);
+
+        webTestClient.get().uri("/api/summary/")
+                .headers(headers -> headers.setBasicAuth("employee", "employee123"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void givenInvalidRequests_whenReading_thenRejected() {
+        webTestClient.get().uri("/api/products/1").exchange().expectStatus().isUnauthorized();
+
+        webTestClient.get().uri("/api/products/1")
+                .headers(headers -> headers.setBasicAuth("user", "user123"))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/api/products/999999")
+                .headers(headers -> headers.setBasicAuth("employee", "employee123"))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.get().uri("/api/products/paginated?sortBy=password")
+                .headers(headers -> headers.setBasicAuth("employee", "employee123"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid Request");
+    }
+}
@@ -0,0 +1,128 @@
+package com.sd.store.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load against running servers: each virtual-thread client issues a mix of get by id,
+ * paginated list and search requests back to back. Start the MVC application and this module
+ * first (see the README), then:
+ * {@code ./mvnw -f reactive-read-api/pom.xml test -Dtest=ReadApiLoadBenchmark -Dbenchmark=true}
+ * <p>
+ * Optional: {@code -Dbenchmark.targets=mvc=http://localhost:8080,reactive=http://localhost:8081},
+ * {@code -Dbenchmark.concurrency=50,400}, {@code -Dbenchmark.seconds=15},
+ * {@code -Dbenchmark.credentials=employee:employee123}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReadApiLoadBenchmark {
+
+    private static final String[] PATHS = {
+            "/api/products/%d",
+            "/api/products/paginated?page=0&size=20&sortBy=price&sortDir=desc",
+            "/api/products/search?name=o"
+    };
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String authorization = "Basic " + Base64.getEncoder().encodeToString(
+            System.getProperty("benchmark.credentials", "employee:employee123").getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void compareMvcAndReactiveReads() throws Exception {
+        String[] targets = System.getProperty("benchmark.targets",
+                "mvc=http://localhost:8080,reactive=http://localhost:8081").split(",");
+        int[] concurrencies = Arrays.stream(System.getProperty("benchmark.concurrency", "50,400").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.seconds", 15));
+
+        for (String target : targets) {
+            String[] nameAndUrl = target.split("=", 2);
+            run(nameAndUrl[1], Math.min(concurrencies[0], 20), Duration.ofSeconds(5));
+            for (int concurrency : concurrencies) {
+                Result result = run(nameAndUrl[1], concurrency, duration);
+                System.out.printf("%-9s clients=%-4d %8.1f req/s  p50=%5d ms  p99=%5d ms  errors=%d%n",
+                        nameAndUrl[0], concurrency, result.throughput(), result.percentile(0.50),
+                        result.percentile(0.99), result.errors());
+            }
+        }
+    }
+
+    private Result run(String baseUrl, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<long[]> latencies = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long[] samples = new long[1 << 16];
+                latencies.add(samples);
+                clients.submit(() -> {
+                    int count = 0;
+                    while (System.nanoTime() < deadline && count < samples.length - 1) {
+                        long sent = System.nanoTime();
+                        if (!get(baseUrl + nextPath())) {
+                            errors.incrementAndGet();
+                        }
+                        samples[++count] = System.nanoTime() - sent;
+                    }
+                    samples[0] = count;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 1, (int) samples[0] + 1))
+                .sorted()
+                .toArray();
+        return new Result(all, errors.get(), elapsed);
+    }
+
+    private static String nextPath() {
+        String path = PATHS[ThreadLocalRandom.current().nextInt(PATHS.length)];
+        return path.formatted(ThreadLocalRandom.current().nextInt(1, 7));
+    }
+
+    private boolean get(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", authorization)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private record Result(long[] sortedLatencies, long errors, long elapsedNanos) {
+
+        double throughput() {
+            return sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        long percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            return sortedLatencies[(int) Math.min(sortedLatencies.length - 1, p * sortedLatencies.length)] / 1_000_000;
+        }
+    }
+}
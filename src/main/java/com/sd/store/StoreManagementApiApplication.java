@@ -2,12 +2,20 @@ package com.sd.store;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class StoreManagementApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(StoreManagementApiApplication.class, args);
+		SpringApplication application = new SpringApplication(StoreManagementApiApplication.class);
+		// Records context startup steps for the timeline report and /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,94 @@
+package com.sd.store.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates every committed quantity change against its category threshold.
+ * <p>
+ * A product raises one alert when it crosses below its threshold and stays in that episode until it
+ * climbs back to {@code threshold + hysteresis}, so a quantity bouncing around the threshold does
+ * not produce a stream of alerts. A new episode starting within the cooldown of the last notification
+ * is tracked silently. Only products that changed are looked at; nothing scans the catalog.
+ */
+@Component
+public class LowStockAlertEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockAlertEngine.class);
+
+    private final LowStockAlertProperties properties;
+    private final StockAlertDispatcher dispatcher;
+    private final Clock clock;
+    private final Map<Long, Episode> episodes = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> lastNotified = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LowStockAlertEngine(LowStockAlertProperties properties, StockAlertDispatcher dispatcher) {
+        this(properties, dispatcher, Clock.systemUTC());
+    }
+
+    LowStockAlertEngine(LowStockAlertProperties properties, StockAlertDispatcher dispatcher, Clock clock) {
+        this.properties = properties;
+        this.dispatcher = dispatcher;
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onQuantityChanged(ProductQuantityChangedEvent event) {
+        Long productId = event.productId();
+        if (event.newQuantity() == null) {
+            episodes.remove(productId);
+            lastNotified.remove(productId);
+            return;
+        }
+        int quantity = event.newQuantity();
+        int threshold = properties.thresholdFor(event.category());
+        Instant now = clock.instant();
+
+        if (quantity < threshold) {
+            StockAlert.Type type = quantity <= 0 ? StockAlert.Type.OUT_OF_STOCK : StockAlert.Type.LOW_STOCK;
+            episodes.compute(productId, (id, episode) -> {
+                if (episode == null) {
+                    // New episode: stay quiet if the previous one ended less than a cooldown ago (flapping)
+                    boolean notify = cooledDown(lastNotified.get(id), now);
+                    if (notify) {
+                        notify(type, event, quantity, threshold, now);
+                    }
+                    return new Episode(type, notify);
+                }
+                if (type == StockAlert.Type.OUT_OF_STOCK && episode.type() != type) {
+                    // Running out completely is always worth an escalation
+                    notify(type, event, quantity, threshold, now);
+                    return new Episode(type, true);
+                }
+                return episode;
+            });
+        } else if (quantity >= threshold + properties.hysteresis()) {
+            Episode episode = episodes.remove(productId);
+            if (episode != null && episode.notified()) {
+                notify(StockAlert.Type.RECOVERED, event, quantity, threshold, now);
+            }
+        }
+    }
+
+    private void notify(StockAlert.Type type, ProductQuantityChangedEvent event, int quantity, int threshold, Instant now) {
+        logger.info("{} alert for product {} (quantity {}, threshold {})", type, event.productId(), quantity, threshold);
+        lastNotified.put(event.productId(), now);
+        dispatcher.enqueue(new StockAlert(type, event.productId(), event.productName(), event.category(),
+                quantity, threshold, now));
+    }
+
+    private boolean cooledDown(Instant last, Instant now) {
+        return last == null || !now.isBefore(last.plus(properties.cooldown()));
+    }
+
+    private record Episode(StockAlert.Type type, boolean notified) {}
+}
@@ -0,0 +1,34 @@
+package com.sd.store.alert;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Thresholds are "alert when quantity drops below". A product only recovers once it is back at
+ * {@code threshold + hysteresis}, and it alerts at most once per {@code cooldown}.
+ */
+@ConfigurationProperties(prefix = "store.alerts.low-stock")
+public record LowStockAlertProperties(
+    Integer defaultThreshold,
+    Map<String, Integer> categoryThresholds,
+    Integer hysteresis,
+    Duration cooldown,
+    Duration batchInterval,
+    Integer maxBatchSize
+) {
+
+    public LowStockAlertProperties {
+        defaultThreshold = defaultThreshold != null ? defaultThreshold : 5;
+        categoryThresholds = categoryThresholds != null ? Map.copyOf(categoryThresholds) : Map.of();
+        hysteresis = hysteresis != null ? hysteresis : 2;
+        cooldown = cooldown != null ? cooldown : Duration.ofMinutes(10);
+        batchInterval = batchInterval != null ? batchInterval : Duration.ofSeconds(2);
+        maxBatchSize = maxBatchSize != null ? maxBatchSize : 500;
+    }
+
+    public int thresholdFor(String category) {
+        return category != null ? categoryThresholds.getOrDefault(category, defaultThreshold) : defaultThreshold;
+    }
+}
@@ -0,0 +1,14 @@
+package com.sd.store.alert;
+
+/**
+ * Published by the product service whenever a product's quantity is written.
+ * {@code oldQuantity} is {@code null} for new products, {@code newQuantity} is {@code null} for deleted ones.
+ */
+public record ProductQuantityChangedEvent(
+    Long productId,
+    String productName,
+    String category,
+    Integer oldQuantity,
+    Integer newQuantity
+) {
+}
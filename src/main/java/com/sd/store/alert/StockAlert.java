@@ -0,0 +1,16 @@
+package com.sd.store.alert;
+
+import java.time.Instant;
+
+public record StockAlert(
+    Type type,
+    Long productId,
+    String productName,
+    String category,
+    int quantity,
+    int threshold,
+    Instant timestamp
+) {
+
+    public enum Type { LOW_STOCK, OUT_OF_STOCK, RECOVERED }
+}
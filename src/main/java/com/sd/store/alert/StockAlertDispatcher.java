@@ -0,0 +1,160 @@
+package com.sd.store.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Batches stock alerts and pushes each batch to SSE subscribers and registered webhooks.
+ * <p>
+ * Webhooks must point at a loopback address; they are meant for local agents such as a
+ * replenishment sidecar, not for calling out to arbitrary hosts. The host is resolved once, when the
+ * webhook is registered, and alerts are sent to that address, so a DNS answer that changes later
+ * cannot redirect them. An {@code https} webhook's certificate is therefore checked against the
+ * address.
+ */
+@Component
+public class StockAlertDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockAlertDispatcher.class);
+
+    private final BlockingQueue<StockAlert> pending = new LinkedBlockingQueue<>();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Map<URI, URI> webhooks = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ObjectMapper objectMapper;
+    private final LowStockAlertProperties properties;
+
+    public StockAlertDispatcher(ObjectMapper objectMapper, LowStockAlertProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public void enqueue(StockAlert alert) {
+        pending.add(alert);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        return emitter;
+    }
+
+    public void registerWebhook(URI uri) {
+        if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme())) {
+            throw new IllegalArgumentException("Webhook must be an http(s) URL");
+        }
+        InetAddress address;
+        try {
+            address = uri.getHost() != null ? InetAddress.getByName(uri.getHost()) : null;
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown webhook host: " + uri.getHost());
+        }
+        if (address == null || !address.isLoopbackAddress()) {
+            throw new IllegalArgumentException("Webhook must point to a local (loopback) address");
+        }
+        webhooks.put(uri, withAddress(uri, address));
+        logger.info("Registered stock alert webhook {}", uri);
+    }
+
+    public boolean unregisterWebhook(URI uri) {
+        return webhooks.remove(uri) != null;
+    }
+
+    public Set<URI> getWebhooks() {
+        return Set.copyOf(webhooks.keySet());
+    }
+
+    /**
+     * The webhook URL with its host replaced by the address it resolved to.
+     */
+    static URI withAddress(URI uri, InetAddress address) {
+        String host = address instanceof Inet6Address ? "[" + address.getHostAddress() + "]" : address.getHostAddress();
+        try {
+            return new URI(uri.getScheme(), uri.getUserInfo(), host, uri.getPort(), uri.getPath(),
+                    uri.getQuery(), uri.getFragment());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid webhook URL: " + uri, e);
+        }
+    }
+
+    /**
+     * Removes up to one batch of pending alerts without sending them.
+     */
+    List<StockAlert> drainBatch() {
+        List<StockAlert> batch = new ArrayList<>();
+        pending.drainTo(batch, properties.maxBatchSize());
+        return batch;
+    }
+
+    @Scheduled(fixedDelayString = "${store.alerts.low-stock.batch-interval:2s}")
+    public void dispatch() {
+        List<StockAlert> batch = drainBatch();
+        while (!batch.isEmpty()) {
+            send(batch);
+            batch = drainBatch();
+        }
+    }
+
+    private void send(List<StockAlert> batch) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("stock-alerts").data(batch));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+        if (webhooks.isEmpty()) {
+            return;
+        }
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(batch);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize stock alerts", e);
+            return;
+        }
+        for (Map.Entry<URI, URI> entry : webhooks.entrySet()) {
+            URI webhook = entry.getKey();
+            HttpRequest request = HttpRequest.newBuilder(entry.getValue())
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            logger.warn("Stock alert webhook {} failed: {}", webhook, error.getMessage());
+                        } else if (response.statusCode() >= 300) {
+                            logger.warn("Stock alert webhook {} returned {}", webhook, response.statusCode());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.sd.store.archive;
+
+import com.sd.store.alert.ProductQuantityChangedEvent;
+import com.sd.store.cache.CacheInvalidationBus;
+import com.sd.store.exception.ProductNotFoundException;
+import com.sd.store.model.Product;
+import com.sd.store.service.ProductChangedEvent;
+import com.sd.store.service.impl.ProductNameBloomFilter;
+import com.sd.store.service.impl.ProductQueryCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cold tier for products: out-of-stock products not updated for {@code stale-after} are moved from
+ * {@code products} to {@code products_archive}, so the scans, counts and searches on the hot table
+ * no longer carry them.
+ * <p>
+ * A scheduled pass moves them in batches of {@code batch-size}, one transaction per batch. The rows
+ * are locked while they move, so a concurrent write either commits first and keeps the product hot or
+ * waits for the move. For the caches and projections, an archived product looks like a deleted one.
+ * {@link #restore} moves a product back under its id and stamps {@code updated_at}, so the next pass
+ * does not archive it again.
+ */
+@Component
+@ConditionalOnExpression("${store.archive.enabled:true} and !${store.sharding.enabled:false}")
+public class ProductArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductArchive.class);
+
+    private static final String PRODUCT_ENTITY = Product.class.getSimpleName();
+    private static final String COLUMNS =
+            "id, name, description, price, quantity, category, sku, stock_status, created_at, updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidationBus invalidationBus;
+    private final ProductQueryCache productQueryCache;
+    private final ProductNameBloomFilter productNameFilter;
+    private final Duration staleAfter;
+    private final int batchSize;
+    private final Counter archivedCounter;
+    private final Counter restoredCounter;
+
+    public ProductArchive(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher, CacheInvalidationBus invalidationBus,
+                          ProductQueryCache productQueryCache, ProductNameBloomFilter productNameFilter,
+                          MeterRegistry meterRegistry,
+                          @Value("${store.archive.stale-after:365d}") Duration staleAfter,
+                          @Value("${store.archive.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("store.archive.batch-size must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.productQueryCache = productQueryCache;
+        this.productNameFilter = productNameFilter;
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+        this.archivedCounter = Counter.builder("store.archive.products")
+                .tag("action", "archived")
+                .description("Products moved between the hot table and the archive")
+                .register(meterRegistry);
+        this.restoredCounter = Counter.builder("store.archive.products")
+                .tag("action", "restored")
+                .description("Products moved between the hot table and the archive")
+                .register(meterRegistry);
+    }
+
+    public record ArchivedProduct(Long id, String name, String category, String sku,
+                                  LocalDateTime updatedAt, LocalDateTime archivedAt) {
+    }
+
+    /**
+     * Moves every out-of-stock product last updated more than {@code stale-after} ago to the archive.
+     *
+     * @return the number of products archived
+     */
+    @Scheduled(initialDelayString = "${store.archive.initial-delay:1m}",
+               fixedDelayString = "${store.archive.interval:1h}")
+    public int archiveStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        long start = System.nanoTime();
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archivedCounter.increment(moved);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            logger.info("Archived {} products not updated since {} in {} ms", total, cutoff,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return total;
+    }
+
+    public Optional<Product> findById(Long id) {
+        List<Product> products = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM products_archive WHERE id = ?", ProductArchive::toProduct, id);
+        return products.stream().findFirst();
+    }
+
+    public Page<ArchivedProduct> findArchived(Pageable pageable) {
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products_archive", Long.class);
+        if (total == null || total == 0) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        List<ArchivedProduct> content = jdbcTemplate.query(
+                "SELECT id, name, category, sku, updated_at, archived_at FROM products_archive "
+                        + "ORDER BY archived_at DESC, id LIMIT ? OFFSET ?",
+                (rs, rowNum) -> new ArchivedProduct(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        toLocalDateTime(rs.getTimestamp(5)), toLocalDateTime(rs.getTimestamp(6))),
+                pageable.getPageSize(), pageable.getOffset());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Moves an archived product back to the hot table under the same id.
+     *
+     * @throws ProductNotFoundException if no archived product has this id
+     * @throws IllegalArgumentException if a hot product has taken its name in the meantime
+     */
+    public Product restore(Long id) {
+        Product restored = transactionTemplate.execute(status -> {
+            List<Product> archived = jdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM products_archive WHERE id = ? FOR UPDATE", ProductArchive::toProduct, id);
+            if (archived.isEmpty()) {
+                throw new ProductNotFoundException("Archived product not found with ID: " + id);
+            }
+            Product product = archived.get(0);
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update("INSERT INTO products (" + COLUMNS + ") SELECT id, name, description, price, "
+                        + "quantity, category, sku, stock_status, created_at, ? FROM products_archive WHERE id = ?",
+                        Timestamp.valueOf(now), id);
+            } catch (DuplicateKeyException e) {
+                throw new IllegalArgumentException("Product with name '" + product.getName() + "' already exists");
+            }
+            jdbcTemplate.update("DELETE FROM products_archive WHERE id = ?", id);
+            product.setUpdatedAt(now);
+
+            productNameFilter.add(product.getName());
+            productQueryCache.invalidateAfterCommit();
+            invalidationBus.publish(PRODUCT_ENTITY, id);
+            eventPublisher.publishEvent(new ProductQuantityChangedEvent(
+                    id, product.getName(), product.getCategory(), null, product.getQuantity()));
+            eventPublisher.publishEvent(new ProductChangedEvent(id, product.getName(), product.getCategory(),
+                    product.getPrice(), product.getQuantity()));
+            return product;
+        });
+        restoredCounter.increment();
+        logger.info("Restored archived product {}", id);
+        return restored;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<String> names = new ArrayList<>();
+        List<Long> ids = jdbcTemplate.query(
+                "SELECT id, name FROM products WHERE quantity = 0 AND updated_at < ? ORDER BY id LIMIT ? FOR UPDATE",
+                (rs, rowNum) -> {
+                    names.add(rs.getString(2));
+                    return rs.getLong(1);
+                }, Timestamp.valueOf(cutoff), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        jdbcTemplate.update("INSERT INTO products_archive (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM products WHERE id IN (" + placeholders + ")", args);
+        jdbcTemplate.update("DELETE FROM products WHERE id IN (" + placeholders + ")", args);
+
+        // Archived names stay taken, including those the name filter never saw being written
+        names.forEach(productNameFilter::add);
+        productQueryCache.invalidateAfterCommit();
+        for (Long id : ids) {
+            invalidationBus.publish(PRODUCT_ENTITY, id);
+            eventPublisher.publishEvent(new ProductQuantityChangedEvent(id, null, null, null, null));
+            eventPublisher.publishEvent(new ProductChangedEvent(id, null, null, null, null));
+        }
+        return ids.size();
+    }
+
+    private static Product toProduct(ResultSet rs, int rowNum) throws SQLException {
+        Product product = new Product(rs.getString("name"), rs.getString("description"), rs.getBigDecimal("price"),
+                rs.getInt("quantity"), rs.getString("category"));
+        product.setId(rs.getLong("id"));
+        product.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        product.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        return product;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.sd.store.backup;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/backup}: online backups of the database.
+ * <ul>
+ *   <li>{@code POST} with optional {@code type} ({@code full}, or {@code incremental} by default) takes
+ *       a backup and returns its manifest</li>
+ *   <li>{@code GET} lists the completed backups, oldest first</li>
+ * </ul>
+ * One backup runs at a time. Restoring is done offline with {@link RestoreCommand}.
+ */
+@Component
+@WebEndpoint(id = "backup")
+public class BackupEndpoint {
+
+    private final ObjectProvider<OnlineBackupService> backupService;
+
+    public BackupEndpoint(ObjectProvider<OnlineBackupService> backupService) {
+        this.backupService = backupService;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<List<BackupManifest>> list() {
+        // Absent when store.backup.enabled is false or products are sharded
+        OnlineBackupService service = backupService.getIfAvailable();
+        if (service == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        return new WebEndpointResponse<>(service.list());
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<BackupManifest> backup(@Nullable String type) {
+        OnlineBackupService service = backupService.getIfAvailable();
+        if (service == null || !service.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        BackupManifest.Type requested;
+        if (type == null || type.equals("incremental")) {
+            requested = BackupManifest.Type.INCREMENTAL;
+        } else if (type.equals("full")) {
+            requested = BackupManifest.Type.FULL;
+        } else {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        try {
+            return new WebEndpointResponse<>(service.backup(requested));
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(409);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.sd.store.backup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Describes one backup directory, stored next to its data as {@value #FILE_NAME}.
+ * <p>
+ * A full backup holds the H2 {@code BACKUP TO} archive ({@value #FULL_IMAGE}) and the SHA-256 of
+ * every {@code blockSize} block of the database file ({@value #BLOCK_HASHES}). An incremental backup
+ * holds only the blocks that differ from its {@code base} full backup ({@value #CHANGED_BLOCKS}, a
+ * gzip stream of {@code int index, int length, bytes} records). {@code sha256} is the digest of the
+ * whole database file the backup restores to.
+ */
+public record BackupManifest(
+    String id,
+    Type type,
+    String base,
+    Instant createdAt,
+    long imageBytes,
+    long storedBytes,
+    int blockSize,
+    long blocks,
+    long changedBlocks,
+    String sha256,
+    long durationMillis,
+    long pauseMillis
+) {
+
+    public static final String FILE_NAME = "manifest.properties";
+    static final String FULL_IMAGE = "store_db.zip";
+    static final String BLOCK_HASHES = "blocks.sha256";
+    static final String CHANGED_BLOCKS = "changed-blocks.gz";
+    static final int HASH_LENGTH = 32;
+
+    public enum Type {
+        FULL, INCREMENTAL
+    }
+
+    void write(Path directory) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("id", id);
+        properties.setProperty("type", type.name());
+        if (base != null) {
+            properties.setProperty("base", base);
+        }
+        properties.setProperty("created-at", createdAt.toString());
+        properties.setProperty("image-bytes", Long.toString(imageBytes));
+        properties.setProperty("stored-bytes", Long.toString(storedBytes));
+        properties.setProperty("block-size", Integer.toString(blockSize));
+        properties.setProperty("blocks", Long.toString(blocks));
+        properties.setProperty("changed-blocks", Long.toString(changedBlocks));
+        properties.setProperty("sha256", sha256);
+        properties.setProperty("duration-millis", Long.toString(durationMillis));
+        properties.setProperty("pause-millis", Long.toString(pauseMillis));
+        // Written last and renamed into place, so a directory without a manifest is an unfinished backup
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Store database backup");
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME));
+    }
+
+    static BackupManifest read(Path directory) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(FILE_NAME), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new BackupManifest(
+                properties.getProperty("id"),
+                Type.valueOf(properties.getProperty("type")),
+                properties.getProperty("base"),
+                Instant.parse(properties.getProperty("created-at")),
+                Long.parseLong(properties.getProperty("image-bytes")),
+                Long.parseLong(properties.getProperty("stored-bytes")),
+                Integer.parseInt(properties.getProperty("block-size")),
+                Long.parseLong(properties.getProperty("blocks")),
+                Long.parseLong(properties.getProperty("changed-blocks")),
+                properties.getProperty("sha256"),
+                Long.parseLong(properties.getProperty("duration-millis")),
+                Long.parseLong(properties.getProperty("pause-millis")));
+    }
+}
@@ -0,0 +1,216 @@
+package com.sd.store.backup;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the backups written by {@link OnlineBackupService} and rebuilds a database file from one.
+ * <p>
+ * A restore never touches the target until the rebuilt file has been checked: it is put together
+ * next to the target, its SHA-256 must match the manifest and H2 must open it read-only and count the
+ * products. Only then is it moved over the target, which must not be open by a running application.
+ * Used by the application to list backups and by {@link RestoreCommand}, which runs without it.
+ */
+public class BackupRestore {
+
+    private final Path directory;
+
+    public BackupRestore(Path directory) {
+        this.directory = directory;
+    }
+
+    public record Verified(BackupManifest manifest, Path file, long products) {
+    }
+
+    /**
+     * Completed backups, oldest first. Directories without a manifest are backups that did not finish.
+     */
+    public List<BackupManifest> list() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<BackupManifest> manifests = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path entry : entries.filter(path -> Files.isRegularFile(path.resolve(BackupManifest.FILE_NAME))).toList()) {
+                manifests.add(BackupManifest.read(entry));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list backups in " + directory, e);
+        }
+        manifests.sort(Comparator.comparing(BackupManifest::createdAt).thenComparing(BackupManifest::id));
+        return manifests;
+    }
+
+    public BackupManifest latestFull() {
+        List<BackupManifest> manifests = list();
+        for (int i = manifests.size() - 1; i >= 0; i--) {
+            if (manifests.get(i).type() == BackupManifest.Type.FULL) {
+                return manifests.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param id a backup id, or {@code latest} for the most recent backup of either kind
+     * @throws IllegalArgumentException if there is no such backup
+     */
+    public BackupManifest find(String id) {
+        List<BackupManifest> manifests = list();
+        if ("latest".equals(id)) {
+            if (manifests.isEmpty()) {
+                throw new IllegalArgumentException("No backups in " + directory);
+            }
+            return manifests.get(manifests.size() - 1);
+        }
+        return manifests.stream()
+                .filter(manifest -> manifest.id().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No backup '" + id + "' in " + directory));
+    }
+
+    /**
+     * Rebuilds the database file of a backup as {@code file} and checks it.
+     *
+     * @throws IllegalStateException if the rebuilt file does not match the manifest or H2 cannot open it
+     */
+    public Verified rebuild(BackupManifest manifest, Path file, String user, String password) throws IOException {
+        BackupManifest full = manifest.type() == BackupManifest.Type.FULL ? manifest : find(manifest.base());
+        Files.deleteIfExists(file);
+        try (InputStream in = OnlineBackupService.databaseEntry(directory.resolve(full.id()).resolve(BackupManifest.FULL_IMAGE))) {
+            Files.copy(in, file);
+        }
+        if (manifest != full) {
+            applyChangedBlocks(manifest, file);
+        }
+
+        String sha256 = sha256(file);
+        if (!sha256.equals(manifest.sha256())) {
+            throw new IllegalStateException("Backup " + manifest.id() + " rebuilt to " + sha256
+                    + " instead of " + manifest.sha256());
+        }
+        return new Verified(manifest, file, countProducts(file, user, password));
+    }
+
+    /**
+     * Rebuilds a backup next to {@code target}, checks it and moves it over {@code target}. An existing
+     * target is only replaced when {@code force} is set, and is then kept as
+     * {@code <name>.before-restore-<backup id>}.
+     *
+     * @throws IllegalStateException if the target is in use or exists without {@code force}, or the
+     *         backup does not check out
+     */
+    public Verified restore(String id, Path target, boolean force, String user, String password) throws IOException {
+        BackupManifest manifest = find(id);
+        if (Files.exists(target)) {
+            if (!force) {
+                throw new IllegalStateException(target + " exists; restore with --force to replace it");
+            }
+            ensureNotInUse(target);
+        }
+        Path rebuilt = target.resolveSibling(databaseName(target) + "-restore-" + manifest.id() + ".mv.db");
+        try {
+            Verified verified = rebuild(manifest, rebuilt, user, password);
+            if (Files.exists(target)) {
+                ensureNotInUse(target);
+                Files.move(target, target.resolveSibling(target.getFileName() + ".before-restore-" + manifest.id()),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(target.resolveSibling(databaseName(target) + ".trace.db"));
+            Files.move(rebuilt, target, StandardCopyOption.ATOMIC_MOVE);
+            return new Verified(manifest, target, verified.products());
+        } finally {
+            Files.deleteIfExists(rebuilt);
+        }
+    }
+
+    private void applyChangedBlocks(BackupManifest manifest, Path file) throws IOException {
+        Path changed = directory.resolve(manifest.id()).resolve(BackupManifest.CHANGED_BLOCKS);
+        byte[] buffer = new byte[manifest.blockSize()];
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(changed)));
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (long record = 0; record < manifest.changedBlocks(); record++) {
+                long index;
+                int length;
+                try {
+                    index = Integer.toUnsignedLong(in.readInt());
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    throw new IllegalStateException("Backup " + manifest.id() + " ends after " + record + " of "
+                            + manifest.changedBlocks() + " changed blocks", e);
+                }
+                in.readFully(buffer, 0, length);
+                ByteBuffer block = ByteBuffer.wrap(buffer, 0, length);
+                long position = index * manifest.blockSize();
+                while (block.hasRemaining()) {
+                    position += channel.write(block, position);
+                }
+            }
+            channel.truncate(manifest.imageBytes());
+        }
+    }
+
+    private static long countProducts(Path file, String user, String password) {
+        String url = "jdbc:h2:file:" + file.toAbsolutePath().toString().replaceFirst("\\.mv\\.db$", "")
+                + ";ACCESS_MODE_DATA=r;IFEXISTS=TRUE";
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM products")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("H2 cannot read the rebuilt database: " + e.getMessage(), e);
+        }
+    }
+
+    private static void ensureNotInUse(Path target) throws IOException {
+        // H2 holds a lock on the database file for as long as it has it open
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            if (lock == null) {
+                throw new IllegalStateException(target + " is in use; stop the application before restoring");
+            }
+        } catch (OverlappingFileLockException e) {
+            throw new IllegalStateException(target + " is in use; stop the application before restoring", e);
+        }
+    }
+
+    private static String databaseName(Path target) {
+        return target.getFileName().toString().replaceFirst("\\.mv\\.db$", "");
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest = OnlineBackupService.sha256();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,301 @@
+package com.sd.store.backup;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Online backups of the H2 database file into {@code store.backup.dir}, one directory per backup.
+ * <p>
+ * The copy is H2's {@code BACKUP TO}: it flushes the store, stops it from reusing free space and
+ * copies the file while writers carry on appending, so the copy holds a consistent store as of the
+ * flush. Writers only wait for the flush. A probe thread keeps committing to {@code backup_heartbeat}
+ * while the copy runs and the slowest commit is reported as the pause.
+ * <p>
+ * A full backup keeps H2's zip and a SHA-256 per {@code block-size} block of the file. An incremental
+ * backup takes the same copy, keeps only the blocks whose hash differs from the last full backup and
+ * drops the rest. {@link BackupRestore} puts either kind back together.
+ */
+@Component
+@ConditionalOnExpression("${store.backup.enabled:true} and !${store.sharding.enabled:false}")
+public class OnlineBackupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnlineBackupService.class);
+
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+            .withZone(ZoneOffset.UTC);
+    private static final String PROBE_SQL = "UPDATE backup_heartbeat SET beat_at = ? WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final BackupRestore backups;
+    private final Path directory;
+    private final int blockSize;
+    private final MeterRegistry meterRegistry;
+    private final Timer pauseTimer;
+    private final DistributionSummary throughput;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public OnlineBackupService(JdbcTemplate jdbcTemplate, DataSource dataSource, MeterRegistry meterRegistry,
+                               @Value("${store.backup.dir:./data/backups}") Path directory,
+                               @Value("${store.backup.block-size:64KB}") DataSize blockSize) {
+        if (blockSize.toBytes() < 4096 || blockSize.toBytes() > DataSize.ofMegabytes(16).toBytes()) {
+            throw new IllegalArgumentException("store.backup.block-size must be between 4KB and 16MB");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.directory = directory;
+        this.backups = new BackupRestore(directory);
+        this.blockSize = (int) blockSize.toBytes();
+        this.meterRegistry = meterRegistry;
+        this.pauseTimer = Timer.builder("store.backup.pause")
+                .description("Slowest write commit while a backup copied the database file")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("store.backup.throughput")
+                .baseUnit("bytes/s")
+                .description("Database bytes backed up per second")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the database lives in a file that can be backed up; in-memory databases cannot.
+     */
+    public boolean isAvailable() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE_PATH()", String.class) != null;
+    }
+
+    public List<BackupManifest> list() {
+        return backups.list();
+    }
+
+    /**
+     * Takes a backup. An incremental backup with no full backup to build on is taken as a full one.
+     *
+     * @throws IllegalStateException if another backup is running
+     */
+    public BackupManifest backup(BackupManifest.Type requested) {
+        if (!running.tryLock()) {
+            throw new IllegalStateException("A backup is already running");
+        }
+        try {
+            BackupManifest base = requested == BackupManifest.Type.INCREMENTAL ? backups.latestFull() : null;
+            BackupManifest.Type type = base != null ? BackupManifest.Type.INCREMENTAL : BackupManifest.Type.FULL;
+            Instant createdAt = Instant.now();
+            String id = ID_FORMAT.format(createdAt) + (base != null ? "-incr" : "-full");
+            Path target = directory.resolve(id);
+            try {
+                Files.createDirectories(target);
+                BackupManifest manifest = take(id, type, base, createdAt, target);
+                manifest.write(target);
+                record(manifest);
+                return manifest;
+            } catch (IOException | RuntimeException e) {
+                FileSystemUtils.deleteRecursively(target.toFile());
+                throw e instanceof IOException io ? new UncheckedIOException("Backup " + id + " failed", io)
+                        : (RuntimeException) e;
+            }
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private BackupManifest take(String id, BackupManifest.Type type, BackupManifest base, Instant createdAt,
+                                Path target) throws IOException {
+        boolean full = base == null;
+        int size = full ? blockSize : base.blockSize();
+        byte[] baseHashes = full ? null : Files.readAllBytes(directory.resolve(base.id()).resolve(BackupManifest.BLOCK_HASHES));
+        Path zip = target.resolve(full ? BackupManifest.FULL_IMAGE : ".h2-backup.zip");
+
+        long start = System.nanoTime();
+        long pauseNanos;
+        try (PauseProbe probe = new PauseProbe()) {
+            jdbcTemplate.execute("BACKUP TO '" + zip.toAbsolutePath().toString().replace("'", "''") + "'");
+            pauseNanos = probe.slowestNanos();
+        }
+
+        MessageDigest image = sha256();
+        MessageDigest block = sha256();
+        long imageBytes = 0;
+        long blocks = 0;
+        long changed = 0;
+        try (InputStream in = databaseEntry(zip);
+             DataOutputStream out = new DataOutputStream(full
+                     ? new BufferedOutputStream(Files.newOutputStream(target.resolve(BackupManifest.BLOCK_HASHES)))
+                     : new GZIPOutputStream(new BufferedOutputStream(
+                             Files.newOutputStream(target.resolve(BackupManifest.CHANGED_BLOCKS)))))) {
+            byte[] buffer = new byte[size];
+            int read;
+            while ((read = in.readNBytes(buffer, 0, size)) > 0) {
+                image.update(buffer, 0, read);
+                block.update(buffer, 0, read);
+                byte[] hash = block.digest();
+                if (full) {
+                    out.write(hash);
+                } else if (!sameHash(baseHashes, blocks, hash)) {
+                    out.writeInt((int) blocks);
+                    out.writeInt(read);
+                    out.write(buffer, 0, read);
+                    changed++;
+                }
+                imageBytes += read;
+                blocks++;
+            }
+        }
+        if (!full) {
+            Files.delete(zip);
+        }
+        long durationNanos = System.nanoTime() - start;
+
+        long storedBytes;
+        try (Stream<Path> files = Files.list(target)) {
+            storedBytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        return new BackupManifest(id, type, full ? null : base.id(), createdAt, imageBytes, storedBytes, size, blocks,
+                full ? blocks : changed, HexFormat.of().formatHex(image.digest()),
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), TimeUnit.NANOSECONDS.toMillis(pauseNanos));
+    }
+
+    private void record(BackupManifest manifest) {
+        String type = manifest.type().name().toLowerCase();
+        Timer.builder("store.backup.duration")
+                .tag("type", type)
+                .description("Time to take a backup, from the copy to the last block written")
+                .register(meterRegistry)
+                .record(manifest.durationMillis(), TimeUnit.MILLISECONDS);
+        DistributionSummary.builder("store.backup.size")
+                .tag("type", type)
+                .baseUnit("bytes")
+                .description("Bytes a backup keeps on disk")
+                .register(meterRegistry)
+                .record(manifest.storedBytes());
+        pauseTimer.record(manifest.pauseMillis(), TimeUnit.MILLISECONDS);
+        throughput.record(manifest.imageBytes() * 1000.0 / Math.max(1, manifest.durationMillis()));
+        logger.info("Took {} backup {}: {} of {} blocks, {} bytes stored, {} ms, slowest write {} ms",
+                type, manifest.id(), manifest.changedBlocks(), manifest.blocks(), manifest.storedBytes(),
+                manifest.durationMillis(), manifest.pauseMillis());
+    }
+
+    private static boolean sameHash(byte[] hashes, long index, byte[] hash) {
+        long offset = index * BackupManifest.HASH_LENGTH;
+        return offset + BackupManifest.HASH_LENGTH <= hashes.length
+                && Arrays.equals(hashes, (int) offset, (int) offset + BackupManifest.HASH_LENGTH,
+                        hash, 0, BackupManifest.HASH_LENGTH);
+    }
+
+    /**
+     * The database file inside an H2 backup zip, positioned at its first byte.
+     */
+    static InputStream databaseEntry(Path zip) throws IOException {
+        ZipInputStream in = new ZipInputStream(Files.newInputStream(zip));
+        try {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.getName().endsWith(".mv.db")) {
+                    return in;
+                }
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        in.close();
+        throw new IOException("No database file in " + zip);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Commits to {@code backup_heartbeat} in a loop on its own connection until closed, keeping the
+     * slowest commit.
+     */
+    private final class PauseProbe implements AutoCloseable {
+
+        private final AtomicLong slowest = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean stopped;
+
+        PauseProbe() {
+            thread = Thread.ofPlatform().name("backup-pause-probe").daemon().start(this::run);
+        }
+
+        long slowestNanos() {
+            stop();
+            return slowest.get();
+        }
+
+        private void run() {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(PROBE_SQL)) {
+                connection.setAutoCommit(true);
+                while (!stopped) {
+                    long start = System.nanoTime();
+                    statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                    statement.executeUpdate();
+                    slowest.accumulateAndGet(System.nanoTime() - start, Math::max);
+                    Thread.sleep(1);
+                }
+            } catch (SQLException e) {
+                logger.warn("Backup pause probe stopped: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void stop() {
+            stopped = true;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            stop();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.sd.store.backup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Restores the database file from a backup. Runs without the application, which must be stopped:
+ * <pre>
+ * java -cp target/store-0.0.1-SNAPSHOT.jar -Dloader.main=com.sd.store.backup.RestoreCommand \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher latest --force
+ * </pre>
+ * Options: {@code --dir} (default {@code ./data/backups}), {@code --target} (default
+ * {@code ./data/store_db.mv.db}), {@code --user} and {@code --password} (the datasource credentials,
+ * used to open the rebuilt file), {@code --force} to replace an existing target and
+ * {@code --verify-only} to check a backup without restoring it.
+ */
+public final class RestoreCommand {
+
+    private static final String USAGE = "Usage: RestoreCommand <backup-id|latest> [--dir=./data/backups] "
+            + "[--target=./data/store_db.mv.db] [--user=sa] [--password=password] [--force] [--verify-only]";
+
+    private RestoreCommand() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Path.of("./data/backups");
+        Path target = Path.of("./data/store_db.mv.db");
+        String user = "sa";
+        String password = "password";
+        boolean force = false;
+        boolean verifyOnly = false;
+        List<String> ids = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--dir=")) {
+                dir = Path.of(value(arg));
+            } else if (arg.startsWith("--target=")) {
+                target = Path.of(value(arg));
+            } else if (arg.startsWith("--user=")) {
+                user = value(arg);
+            } else if (arg.startsWith("--password=")) {
+                password = value(arg);
+            } else if (arg.equals("--force")) {
+                force = true;
+            } else if (arg.equals("--verify-only")) {
+                verifyOnly = true;
+            } else if (arg.startsWith("--")) {
+                exit("Unknown option " + arg);
+            } else {
+                ids.add(arg);
+            }
+        }
+        if (ids.size() != 1) {
+            exit(USAGE);
+        }
+
+        BackupRestore backups = new BackupRestore(dir);
+        long start = System.nanoTime();
+        try {
+            BackupRestore.Verified verified;
+            if (verifyOnly) {
+                BackupManifest manifest = backups.find(ids.get(0));
+                Path scratch = Files.createTempFile("store-verify-", ".mv.db");
+                try {
+                    verified = backups.rebuild(manifest, scratch, user, password);
+                } finally {
+                    Files.deleteIfExists(scratch);
+                }
+            } else {
+                verified = backups.restore(ids.get(0), target, force, user, password);
+            }
+            System.out.printf("%s backup %s (%d bytes, sha256 %s, %d products) in %d ms%n",
+                    verifyOnly ? "Verified" : "Restored " + target + " from",
+                    verified.manifest().id(), verified.manifest().imageBytes(), verified.manifest().sha256(),
+                    verified.products(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            exit(e.getMessage());
+        }
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    private static void exit(String message) {
+        System.err.println(message);
+        System.exit(2);
+    }
+}
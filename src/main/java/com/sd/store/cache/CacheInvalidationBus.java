@@ -0,0 +1,209 @@
+package com.sd.store.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Broadcasts entity changes to the other instances sharing the database through the
+ * {@code cache_invalidations} outbox table.
+ * <p>
+ * Keys are collected after commit, deduplicated, and written in one batch per flush interval;
+ * a flush with more than {@code max-batch-size} keys of one entity type collapses them into a
+ * single "all" row. Peers poll rows past their watermark and skip their own. The watermark only
+ * moves past rows older than the settle window, so a row whose insert committed after a
+ * higher id became visible is still picked up; rows inside the window are re-read and
+ * deduplicated by id.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<CacheInvalidationListener> listeners;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long settleMillis;
+    private final Duration retention;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Set<EntityKey> pending = new LinkedHashSet<>();
+    private final Set<Long> seenUnsettled = new TreeSet<>();
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private long watermark = -1;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate, List<CacheInvalidationListener> listeners,
+                                MeterRegistry meterRegistry,
+                                @Value("${store.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${store.cache.invalidation.max-batch-size:200}") int maxBatchSize,
+                                @Value("${store.cache.invalidation.settle:2s}") Duration settle,
+                                @Value("${store.cache.invalidation.retention:10m}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listeners = listeners;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.settleMillis = settle.toMillis();
+        this.retention = retention;
+        this.publishedCounter = Counter.builder("store.cache.invalidation.published")
+                .description("Invalidation rows written to the outbox")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("store.cache.invalidation.received")
+                .description("Invalidations received from other instances")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an invalidation once the current transaction commits, or immediately outside one.
+     */
+    public void publish(String entity, Long id) {
+        if (!enabled) {
+            return;
+        }
+        EntityKey key = new EntityKey(entity, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(key);
+                }
+            });
+        } else {
+            enqueue(key);
+        }
+    }
+
+    private void enqueue(EntityKey key) {
+        synchronized (pending) {
+            pending.add(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${store.cache.invalidation.flush-interval:100ms}")
+    public void flush() {
+        List<EntityKey> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        List<Object[]> rows = new ArrayList<>();
+        Map<String, List<EntityKey>> byEntity = new HashMap<>();
+        batch.forEach(key -> byEntity.computeIfAbsent(key.entity(), entity -> new ArrayList<>()).add(key));
+        byEntity.forEach((entity, keys) -> {
+            boolean collapse = keys.size() > maxBatchSize || keys.stream().anyMatch(key -> key.id() == null);
+            if (collapse) {
+                rows.add(new Object[] {instanceId, entity, null});
+            } else {
+                keys.forEach(key -> rows.add(new Object[] {instanceId, entity, key.id()}));
+            }
+        });
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO cache_invalidations (origin, entity, entity_id) VALUES (?, ?, ?)", rows);
+            publishedCounter.increment(rows.size());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish {} cache invalidations, retrying next flush: {}", batch.size(), e.getMessage());
+            synchronized (pending) {
+                pending.addAll(batch);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${store.cache.invalidation.poll-interval:500ms}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        if (watermark < 0) {
+            // Caches start empty, so earlier rows are irrelevant to this instance
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+            watermark = max != null ? max : 0;
+            return;
+        }
+        Timestamp now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+        long settledBefore = now.getTime() - settleMillis;
+        Set<EntityKey> received = new HashSet<>();
+        boolean[] contiguousSettled = {true};
+        jdbcTemplate.query("SELECT id, origin, entity, entity_id, created_at FROM cache_invalidations "
+                + "WHERE id > ? ORDER BY id", rs -> {
+            long id = rs.getLong("id");
+            boolean settled = rs.getTimestamp("created_at").getTime() < settledBefore;
+            if (seenUnsettled.add(id) && !instanceId.equals(rs.getString("origin"))) {
+                long entityId = rs.getLong("entity_id");
+                received.add(new EntityKey(rs.getString("entity"), rs.wasNull() ? null : entityId));
+            }
+            if (settled && contiguousSettled[0]) {
+                watermark = id;
+            } else {
+                contiguousSettled[0] = false;
+            }
+        }, watermark);
+        seenUnsettled.removeIf(id -> id <= watermark);
+
+        if (received.isEmpty()) {
+            return;
+        }
+        receivedCounter.increment(received.size());
+        Set<EntityKey> keys = collapse(received);
+        for (CacheInvalidationListener listener : listeners) {
+            try {
+                listener.onRemoteInvalidation(keys);
+            } catch (RuntimeException e) {
+                logger.error("Cache invalidation listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${store.cache.invalidation.purge-interval:1m}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        int purged = jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                Timestamp.valueOf(jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class)
+                        .toLocalDateTime().minus(retention)));
+        if (purged > 0) {
+            logger.debug("Purged {} cache invalidation rows", purged);
+        }
+    }
+
+    // An "all" key makes the individual keys of that entity redundant
+    private static Set<EntityKey> collapse(Set<EntityKey> keys) {
+        Set<String> wholeEntities = new HashSet<>();
+        keys.stream().filter(key -> key.id() == null).forEach(key -> wholeEntities.add(key.entity()));
+        Set<EntityKey> result = new HashSet<>(keys);
+        for (Iterator<EntityKey> it = result.iterator(); it.hasNext(); ) {
+            EntityKey key = it.next();
+            if (key.id() != null && wholeEntities.contains(key.entity())) {
+                it.remove();
+            }
+        }
+        return Set.copyOf(result);
+    }
+
+    String instanceId() {
+        return instanceId;
+    }
+}
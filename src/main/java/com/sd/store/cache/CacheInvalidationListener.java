@@ -0,0 +1,12 @@
+package com.sd.store.cache;
+
+import java.util.Set;
+
+/**
+ * Receives invalidations published by other instances. Local writes invalidate their own caches
+ * directly and are not echoed back.
+ */
+public interface CacheInvalidationListener {
+
+    void onRemoteInvalidation(Set<EntityKey> keys);
+}
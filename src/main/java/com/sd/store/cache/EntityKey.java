@@ -0,0 +1,11 @@
+package com.sd.store.cache;
+
+/**
+ * Identifies a changed entity. A {@code null} id stands for every entity of that type.
+ */
+public record EntityKey(String entity, Long id) {
+
+    public static EntityKey all(String entity) {
+        return new EntityKey(entity, null);
+    }
+}
@@ -0,0 +1,332 @@
+package com.sd.store.catalog;
+
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.model.StockStatus;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One immutable version of the product catalog in a memory-mapped file written by
+ * {@link CatalogSnapshotWriter}. All multi-byte values are big-endian.
+ * <pre>
+ * header       128 bytes: magic, format, version, capture time, row/category counts, section offsets,
+ *              row count per stock status
+ * id index     rows x long, ascending; the position of an id is its row number
+ * records      rows x 64 bytes, fixed layout (see RECORD_* offsets)
+ * status rows  rows x int: row numbers grouped by stock status, ascending id within a status
+ * dictionary   categories x (int offset, int length) into the string heap
+ * string heap  UTF-8 names, descriptions and categories
+ * </pre>
+ * Lookups only read the mapping with absolute gets, so any number of threads can use a snapshot at
+ * once and a lookup allocates nothing. Category names are decoded once when the file is opened.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x43415431; // "CAT1"
+    static final int FORMAT = 1;
+    static final int HEADER_SIZE = 128;
+    static final int RECORD_SIZE = 64;
+    static final int NULL = -1;
+    static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_FORMAT = 4;
+    static final int HEADER_VERSION = 8;
+    static final int HEADER_CAPTURED_AT = 16;
+    static final int HEADER_ROWS = 24;
+    static final int HEADER_CATEGORIES = 28;
+    static final int HEADER_INDEX = 32;
+    static final int HEADER_RECORDS = 36;
+    static final int HEADER_STATUS_ROWS = 40;
+    static final int HEADER_DICTIONARY = 44;
+    static final int HEADER_STRINGS = 48;
+    static final int HEADER_STATUS_COUNTS = 52;
+
+    static final int RECORD_PRICE = 0;
+    static final int RECORD_CREATED_AT = 8;
+    static final int RECORD_UPDATED_AT = 16;
+    static final int RECORD_CREATED_NANO = 24;
+    static final int RECORD_UPDATED_NANO = 28;
+    static final int RECORD_QUANTITY = 32;
+    static final int RECORD_CATEGORY = 36;
+    static final int RECORD_NAME = 40;
+    static final int RECORD_DESCRIPTION = 48;
+    static final int RECORD_STATUS = 56;
+    static final int RECORD_PRICE_SCALE = 57;
+
+    private static final StockStatus[] STATUSES = StockStatus.values();
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final long version;
+    private final long capturedAt;
+    private final int rows;
+    private final int index;
+    private final int records;
+    private final int strings;
+    private final String[] categories;
+    private final int[] statusStart = new int[STATUSES.length + 1];
+
+    private CatalogSnapshot(Path file, ByteBuffer buffer) {
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_FORMAT) != FORMAT) {
+            throw new IllegalStateException("Not a catalog snapshot: " + file);
+        }
+        this.file = file;
+        this.buffer = buffer;
+        this.version = buffer.getLong(HEADER_VERSION);
+        this.capturedAt = buffer.getLong(HEADER_CAPTURED_AT);
+        this.rows = buffer.getInt(HEADER_ROWS);
+        this.index = buffer.getInt(HEADER_INDEX);
+        this.records = buffer.getInt(HEADER_RECORDS);
+        this.strings = buffer.getInt(HEADER_STRINGS);
+
+        int dictionary = buffer.getInt(HEADER_DICTIONARY);
+        this.categories = new String[buffer.getInt(HEADER_CATEGORIES)];
+        for (int i = 0; i < categories.length; i++) {
+            byte[] bytes = new byte[buffer.getInt(dictionary + i * 8 + 4)];
+            buffer.get(strings + buffer.getInt(dictionary + i * 8), bytes);
+            categories[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int statusRows = buffer.getInt(HEADER_STATUS_ROWS);
+        statusStart[0] = statusRows;
+        for (int i = 0; i < STATUSES.length; i++) {
+            statusStart[i + 1] = statusStart[i] + buffer.getInt(HEADER_STATUS_COUNTS + i * 4) * 4;
+        }
+    }
+
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new CatalogSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Epoch millis taken just before the rows were read; nothing older than this is missing.
+     */
+    public long capturedAt() {
+        return capturedAt;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Row number of the product with {@code id}, or -1 if it is not in this snapshot.
+     */
+    public int find(long id) {
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = buffer.getLong(index + mid * 8);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public int count(StockStatus status) {
+        return (statusStart[status.ordinal() + 1] - statusStart[status.ordinal()]) / 4;
+    }
+
+    /**
+     * Row number of the {@code n}-th product with {@code status}, in id order.
+     */
+    public int rowWithStatus(StockStatus status, int n) {
+        return buffer.getInt(statusStart[status.ordinal()] + n * 4);
+    }
+
+    /**
+     * Rows {@code from} (inclusive) to {@code to} (exclusive) in id order, as a view.
+     */
+    public List<SnapshotProduct> products(int from, int to) {
+        return new RowView(from, to - from, null);
+    }
+
+    /**
+     * The {@code from}-th to {@code to}-th (exclusive) products with {@code status} in id order, as a view.
+     */
+    public List<SnapshotProduct> products(StockStatus status, int from, int to) {
+        return new RowView(from, to - from, status);
+    }
+
+    public long id(int row) {
+        return buffer.getLong(index + row * 8);
+    }
+
+    public int quantity(int row) {
+        return buffer.getInt(record(row) + RECORD_QUANTITY);
+    }
+
+    /**
+     * Dictionary-decoded category; the same instance for every product in the category.
+     */
+    public String category(int row) {
+        int code = buffer.getInt(record(row) + RECORD_CATEGORY);
+        return code == NULL ? null : categories[code];
+    }
+
+    public StockStatus stockStatus(int row) {
+        int ordinal = buffer.get(record(row) + RECORD_STATUS);
+        return ordinal == NULL ? null : STATUSES[ordinal];
+    }
+
+    boolean hasPrice(int row) {
+        return buffer.get(record(row) + RECORD_PRICE_SCALE) != NULL;
+    }
+
+    long unscaledPrice(int row) {
+        return buffer.getLong(record(row) + RECORD_PRICE);
+    }
+
+    int priceScale(int row) {
+        return buffer.get(record(row) + RECORD_PRICE_SCALE);
+    }
+
+    /**
+     * {@code yyyyMMddHHmmss} as a number, or {@link #NULL_TIMESTAMP}.
+     */
+    long createdAt(int row) {
+        return buffer.getLong(record(row) + RECORD_CREATED_AT);
+    }
+
+    int createdAtNano(int row) {
+        return buffer.getInt(record(row) + RECORD_CREATED_NANO);
+    }
+
+    long updatedAt(int row) {
+        return buffer.getLong(record(row) + RECORD_UPDATED_AT);
+    }
+
+    int updatedAtNano(int row) {
+        return buffer.getInt(record(row) + RECORD_UPDATED_NANO);
+    }
+
+    int nameLength(int row) {
+        return buffer.getInt(record(row) + RECORD_NAME + 4);
+    }
+
+    int descriptionLength(int row) {
+        return buffer.getInt(record(row) + RECORD_DESCRIPTION + 4);
+    }
+
+    /**
+     * Decodes the name into {@code chars}, which must hold {@link #nameLength} chars; returns the char count.
+     */
+    int name(int row, char[] chars) {
+        return decode(record(row) + RECORD_NAME, chars);
+    }
+
+    int description(int row, char[] chars) {
+        return decode(record(row) + RECORD_DESCRIPTION, chars);
+    }
+
+    /**
+     * Copies one product onto the heap, for callers that need a regular {@link ProductDTO}.
+     */
+    public ProductDTO toDTO(int row) {
+        char[] chars = new char[Math.max(nameLength(row), descriptionLength(row)) + 1];
+        String name = nameLength(row) == NULL ? null : new String(chars, 0, name(row, chars));
+        String description = descriptionLength(row) == NULL ? null : new String(chars, 0, description(row, chars));
+        return new ProductDTO(id(row), name, description,
+                hasPrice(row) ? BigDecimal.valueOf(unscaledPrice(row), priceScale(row)) : null,
+                quantity(row), category(row), stockStatus(row),
+                toLocalDateTime(createdAt(row), createdAtNano(row)),
+                toLocalDateTime(updatedAt(row), updatedAtNano(row)));
+    }
+
+    static long packTimestamp(LocalDateTime value) {
+        return ((((value.getYear() * 100L + value.getMonthValue()) * 100 + value.getDayOfMonth()) * 100
+                + value.getHour()) * 100 + value.getMinute()) * 100 + value.getSecond();
+    }
+
+    private static LocalDateTime toLocalDateTime(long packed, int nano) {
+        if (packed == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.of((int) (packed / 10_000_000_000L), (int) (packed / 100_000_000 % 100),
+                (int) (packed / 1_000_000 % 100), (int) (packed / 10_000 % 100), (int) (packed / 100 % 100),
+                (int) (packed % 100), nano);
+    }
+
+    private int record(int row) {
+        return records + row * RECORD_SIZE;
+    }
+
+    private int decode(int reference, char[] chars) {
+        int pos = strings + buffer.getInt(reference);
+        int end = pos + buffer.getInt(reference + 4);
+        int length = 0;
+        while (pos < end) {
+            int b = buffer.get(pos++);
+            if (b >= 0) {
+                chars[length++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[length++] = (char) (((b & 0x1F) << 6) | (buffer.get(pos++) & 0x3F));
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[length++] = (char) (((b & 0x0F) << 12) | ((buffer.get(pos++) & 0x3F) << 6)
+                        | (buffer.get(pos++) & 0x3F));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((buffer.get(pos++) & 0x3F) << 12)
+                        | ((buffer.get(pos++) & 0x3F) << 6) | (buffer.get(pos++) & 0x3F);
+                chars[length++] = Character.highSurrogate(codePoint);
+                chars[length++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        return length;
+    }
+
+    private final class RowView extends AbstractList<SnapshotProduct> {
+
+        private final int from;
+        private final int size;
+        private final StockStatus status;
+
+        RowView(int from, int size, StockStatus status) {
+            this.from = from;
+            this.size = Math.max(size, 0);
+            this.status = status;
+        }
+
+        @Override
+        public SnapshotProduct get(int i) {
+            int n = from + Objects.checkIndex(i, size);
+            return new SnapshotProduct(CatalogSnapshot.this, status == null ? n : rowWithStatus(status, n));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.sd.store.catalog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a memory-mapped {@link CatalogSnapshot} of the products table for the read-heavy endpoints.
+ * <p>
+ * Every {@code refresh-interval} a cheap fingerprint query (row count, highest id, latest update)
+ * decides whether the catalog changed; if so, or once the snapshot is half of {@code max-staleness}
+ * old, a new file is written and swapped in with a single volatile write. Readers take whichever
+ * version is current when they start and are never blocked by a rebuild. {@link #current()} stops
+ * returning a snapshot older than {@code max-staleness}, so callers fall back to the database rather
+ * than serve data past that bound.
+ * <p>
+ * Only the first shard would be read, so there is no snapshot when products are sharded.
+ */
+@Component
+@ConditionalOnExpression("${store.catalog-snapshot.enabled:false} and !${store.sharding.enabled:false}")
+public class CatalogSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    private static final String FINGERPRINT = "SELECT COUNT(*), MAX(id), MAX(updated_at) FROM products";
+    private static final String FILE_PREFIX = "catalog-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final DataSource dataSource;
+    private final Path directory;
+    private final long maxStalenessMillis;
+    private final Timer buildTimer;
+    private volatile CatalogSnapshot current;
+    private Fingerprint fingerprint;
+    private long version;
+
+    public CatalogSnapshotStore(DataSource dataSource, MeterRegistry meterRegistry,
+                                @Value("${store.catalog-snapshot.dir:./data/catalog}") String directory,
+                                @Value("${store.catalog-snapshot.max-staleness:2m}") Duration maxStaleness) throws IOException {
+        this.dataSource = dataSource;
+        this.directory = Path.of(directory);
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.buildTimer = Timer.builder("store.catalog.snapshot.build")
+                .description("Time to write and map a new catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("store.catalog.snapshot.age", this, store -> store.current == null
+                        ? Double.NaN : System.currentTimeMillis() - store.current.capturedAt())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("store.catalog.snapshot.size", this, store -> store.current == null
+                        ? 0 : store.current.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        // Files of an earlier run are never reused: the catalog may have changed since
+        Files.createDirectories(this.directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * The current snapshot, or {@code null} if there is none yet or it is older than {@code max-staleness}.
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot == null || System.currentTimeMillis() - snapshot.capturedAt() > maxStalenessMillis) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${store.catalog-snapshot.refresh-interval:1s}")
+    public synchronized void refresh() {
+        try {
+            long capturedAt = System.currentTimeMillis();
+            Fingerprint latest = fingerprint();
+            CatalogSnapshot snapshot = current;
+            if (snapshot != null && latest.equals(fingerprint)
+                    && capturedAt - snapshot.capturedAt() < maxStalenessMillis / 2) {
+                return;
+            }
+            rebuild(latest, capturedAt);
+        } catch (IOException | SQLException | RuntimeException e) {
+            logger.error("Failed to refresh catalog snapshot; reads fall back to the database once it is stale", e);
+        }
+    }
+
+    private void rebuild(Fingerprint latest, long capturedAt) throws IOException, SQLException {
+        long start = System.nanoTime();
+        Path file = directory.resolve(FILE_PREFIX + (++version) + FILE_SUFFIX);
+        try (Connection connection = dataSource.getConnection()) {
+            CatalogSnapshotWriter.write(connection, file, version, capturedAt);
+        }
+        CatalogSnapshot previous = current;
+        current = CatalogSnapshot.open(file);
+        fingerprint = latest;
+        long elapsed = System.nanoTime() - start;
+        buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Catalog snapshot {} with {} products ({} bytes) built in {} ms",
+                version, current.size(), current.sizeInBytes(), elapsed / 1_000_000);
+
+        // Readers still holding the previous version keep their mapping; only the directory entry goes
+        if (previous != null) {
+            try {
+                Files.deleteIfExists(previous.file());
+            } catch (IOException e) {
+                logger.debug("Could not delete old catalog snapshot {}: {}", previous.file(), e.toString());
+            }
+        }
+    }
+
+    private Fingerprint fingerprint() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(FINGERPRINT)) {
+            rs.next();
+            return new Fingerprint(rs.getLong(1), rs.getLong(2), rs.getObject(3));
+        }
+    }
+
+    private record Fingerprint(long rows, long maxId, Object lastUpdate) {}
+}
@@ -0,0 +1,225 @@
+package com.sd.store.catalog;
+
+import com.sd.store.model.StockStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.sd.store.catalog.CatalogSnapshot.*;
+
+/**
+ * Writes all {@code products} rows into a {@link CatalogSnapshot} file. Rows are streamed in id
+ * order: records and strings go to temporary files as they are read, and only the ids, stock statuses
+ * and category dictionary stay on the heap until the final file is assembled.
+ */
+final class CatalogSnapshotWriter {
+
+    private static final String SELECT_PRODUCTS = """
+            SELECT id, name, description, price, quantity, category, stock_status, created_at, updated_at
+            FROM products ORDER BY id""";
+
+    private static final StockStatus[] STATUSES = StockStatus.values();
+    private static final byte[] RECORD_PADDING = new byte[RECORD_SIZE - RECORD_PRICE_SCALE - 1];
+
+    private CatalogSnapshotWriter() {
+    }
+
+    /**
+     * Writes the snapshot to {@code target}, replacing it atomically.
+     */
+    static void write(Connection connection, Path target, long version, long capturedAt) throws IOException, SQLException {
+        Path records = Files.createTempFile(target.getParent(), "records-", ".tmp");
+        Path strings = Files.createTempFile(target.getParent(), "strings-", ".tmp");
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            long[] ids = new long[1024];
+            byte[] statuses = new byte[1024];
+            int rows = 0;
+            Map<String, Integer> categories = new LinkedHashMap<>();
+            int[] categoryOffsets;
+            int[] categoryLengths;
+            StringHeap heap;
+
+            try (DataOutputStream recordOut = open(records);
+                 DataOutputStream stringOut = open(strings);
+                 Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                heap = new StringHeap(stringOut);
+                statement.setFetchSize(1000);
+                try (ResultSet rs = statement.executeQuery(SELECT_PRODUCTS)) {
+                    while (rs.next()) {
+                        if (rows == ids.length) {
+                            ids = Arrays.copyOf(ids, rows * 2);
+                            statuses = Arrays.copyOf(statuses, rows * 2);
+                        }
+                        ids[rows] = rs.getLong("id");
+                        String status = rs.getString("stock_status");
+                        statuses[rows] = status == null ? NULL : (byte) StockStatus.valueOf(status).ordinal();
+                        String category = rs.getString("category");
+                        int categoryCode = category == null ? NULL
+                                : categories.computeIfAbsent(category, key -> categories.size());
+                        writeRecord(recordOut, heap, rs, categoryCode, statuses[rows]);
+                        rows++;
+                    }
+                }
+                categoryOffsets = new int[categories.size()];
+                categoryLengths = new int[categories.size()];
+                for (Map.Entry<String, Integer> category : categories.entrySet()) {
+                    categoryOffsets[category.getValue()] = heap.add(category.getKey());
+                    categoryLengths[category.getValue()] = heap.lastLength();
+                }
+            }
+
+            int[] statusCounts = new int[STATUSES.length];
+            for (int row = 0; row < rows; row++) {
+                if (statuses[row] != NULL) {
+                    statusCounts[statuses[row]]++;
+                }
+            }
+
+            long index = HEADER_SIZE;
+            long recordStart = index + rows * 8L;
+            long statusRows = recordStart + (long) rows * RECORD_SIZE;
+            long dictionary = statusRows + rows * 4L;
+            long stringStart = dictionary + categories.size() * 8L;
+            if (stringStart + heap.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Catalog too large for a snapshot: " + (stringStart + heap.size()) + " bytes");
+            }
+
+            try (DataOutputStream out = open(temp)) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(version);
+                out.writeLong(capturedAt);
+                out.writeInt(rows);
+                out.writeInt(categories.size());
+                out.writeInt((int) index);
+                out.writeInt((int) recordStart);
+                out.writeInt((int) statusRows);
+                out.writeInt((int) dictionary);
+                out.writeInt((int) stringStart);
+                for (int count : statusCounts) {
+                    out.writeInt(count);
+                }
+                out.write(new byte[HEADER_SIZE - out.size()]);
+
+                for (int row = 0; row < rows; row++) {
+                    out.writeLong(ids[row]);
+                }
+                Files.copy(records, out);
+                // Products without a status are left out of the status lists; the column is NOT NULL
+                for (StockStatus status : STATUSES) {
+                    for (int row = 0; row < rows; row++) {
+                        if (statuses[row] == status.ordinal()) {
+                            out.writeInt(row);
+                        }
+                    }
+                }
+                for (int code = 0; code < categoryOffsets.length; code++) {
+                    out.writeInt(categoryOffsets[code]);
+                    out.writeInt(categoryLengths[code]);
+                }
+                Files.copy(strings, out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(strings);
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, StringHeap heap, ResultSet rs, int category, byte status)
+            throws IOException, SQLException {
+        BigDecimal price = rs.getBigDecimal("price");
+        if (price != null && (price.scale() < 0 || price.scale() > 6 || price.unscaledValue().bitLength() > 62)) {
+            throw new IllegalStateException("Price " + price + " of product " + rs.getLong("id") + " has no snapshot encoding");
+        }
+        LocalDateTime createdAt = rs.getObject("created_at", LocalDateTime.class);
+        LocalDateTime updatedAt = rs.getObject("updated_at", LocalDateTime.class);
+        int nameRef = heap.add(rs.getString("name"));
+        int nameLength = heap.lastLength();
+        int descriptionRef = heap.add(rs.getString("description"));
+        int descriptionLength = heap.lastLength();
+
+        out.writeLong(price == null ? 0 : price.unscaledValue().longValue());
+        out.writeLong(pack(createdAt));
+        out.writeLong(pack(updatedAt));
+        out.writeInt(createdAt == null ? 0 : createdAt.getNano());
+        out.writeInt(updatedAt == null ? 0 : updatedAt.getNano());
+        out.writeInt(rs.getInt("quantity"));
+        out.writeInt(category);
+        out.writeInt(nameRef);
+        out.writeInt(nameLength);
+        out.writeInt(descriptionRef);
+        out.writeInt(descriptionLength);
+        out.writeByte(status);
+        out.writeByte(price == null ? NULL : price.scale());
+        out.write(RECORD_PADDING);
+    }
+
+    private static long pack(LocalDateTime value) {
+        if (value == null) {
+            return NULL_TIMESTAMP;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            throw new IllegalStateException("Timestamp " + value + " has no snapshot encoding");
+        }
+        return packTimestamp(value);
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    /**
+     * Appends UTF-8 strings to the string section and hands out their offsets.
+     */
+    private static final class StringHeap {
+
+        private final DataOutputStream out;
+        private long size;
+        private int lastLength;
+
+        StringHeap(DataOutputStream out) {
+            this.out = out;
+        }
+
+        int add(String value) throws IOException {
+            if (value == null) {
+                lastLength = NULL;
+                return 0;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (size + bytes.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Catalog strings exceed the snapshot size limit");
+            }
+            int offset = (int) size;
+            out.write(bytes);
+            size += bytes.length;
+            lastLength = bytes.length;
+            return offset;
+        }
+
+        int lastLength() {
+            return lastLength;
+        }
+
+        long size() {
+            return size;
+        }
+    }
+}
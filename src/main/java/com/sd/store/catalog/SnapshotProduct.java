@@ -0,0 +1,12 @@
+package com.sd.store.catalog;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sd.store.dto.ProductView;
+
+/**
+ * A product row of a {@link CatalogSnapshot}, serialized straight from the mapping into the same
+ * JSON as {@link com.sd.store.dto.ProductDTO}.
+ */
+@JsonSerialize(using = SnapshotProductSerializer.class)
+public record SnapshotProduct(CatalogSnapshot snapshot, int row) implements ProductView {
+}
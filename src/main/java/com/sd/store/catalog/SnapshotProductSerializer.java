@@ -0,0 +1,144 @@
+package com.sd.store.catalog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductDTOSerializer;
+import com.sd.store.model.StockStatus;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link SnapshotProduct} field by field from the mapped file, decoding names and descriptions
+ * into a per-thread buffer. The output matches {@link ProductDTOSerializer}; with non-default inclusion,
+ * date or enum settings the row is copied into a {@link ProductDTO} and written by that serializer.
+ */
+public class SnapshotProductSerializer extends StdSerializer<SnapshotProduct> implements ContextualSerializer {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString CATEGORY = new SerializedString("category");
+    private static final SerializableString STOCK_STATUS = new SerializedString("stockStatus");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+
+    private static final SerializableString[] STATUS_NAMES = new SerializableString[StockStatus.values().length];
+
+    static {
+        for (StockStatus status : StockStatus.values()) {
+            STATUS_NAMES[status.ordinal()] = new SerializedString(status.name());
+        }
+    }
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+    private final boolean fastPath;
+
+    public SnapshotProductSerializer() {
+        this(true);
+    }
+
+    private SnapshotProductSerializer(boolean fastPath) {
+        super(SnapshotProduct.class);
+        this.fastPath = fastPath;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+        SerializationConfig config = provider.getConfig();
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(ProductDTO.class).getValueInclusion();
+        return new SnapshotProductSerializer(
+                (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS)
+                        && !config.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                        && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX));
+    }
+
+    @Override
+    public void serialize(SnapshotProduct product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        CatalogSnapshot snapshot = product.snapshot();
+        int row = product.row();
+        if (!fastPath) {
+            provider.defaultSerializeValue(snapshot.toDTO(row), gen);
+            return;
+        }
+        char[] buffer = buffer(Math.max(snapshot.nameLength(row), snapshot.descriptionLength(row)));
+
+        gen.writeStartObject(product);
+        gen.writeFieldName(ID);
+        gen.writeNumber(snapshot.id(row));
+
+        gen.writeFieldName(NAME);
+        if (snapshot.nameLength(row) == CatalogSnapshot.NULL) {
+            gen.writeNull();
+        } else {
+            gen.writeString(buffer, 0, snapshot.name(row, buffer));
+        }
+        gen.writeFieldName(DESCRIPTION);
+        if (snapshot.descriptionLength(row) == CatalogSnapshot.NULL) {
+            gen.writeNull();
+        } else {
+            gen.writeString(buffer, 0, snapshot.description(row, buffer));
+        }
+
+        gen.writeFieldName(PRICE);
+        if (snapshot.hasPrice(row)) {
+            gen.writeNumber(buffer, 0, ProductDTOSerializer.formatDecimal(snapshot.unscaledPrice(row),
+                    snapshot.priceScale(row), buffer));
+        } else {
+            gen.writeNull();
+        }
+
+        gen.writeFieldName(QUANTITY);
+        gen.writeNumber(snapshot.quantity(row));
+        gen.writeFieldName(CATEGORY);
+        gen.writeString(snapshot.category(row));
+
+        gen.writeFieldName(STOCK_STATUS);
+        StockStatus status = snapshot.stockStatus(row);
+        if (status == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(STATUS_NAMES[status.ordinal()]);
+        }
+
+        writeTimestamp(gen, CREATED_AT, snapshot.createdAt(row), snapshot.createdAtNano(row), buffer);
+        writeTimestamp(gen, UPDATED_AT, snapshot.updatedAt(row), snapshot.updatedAtNano(row), buffer);
+        gen.writeEndObject();
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, SerializableString field, long packed, int nano,
+                                       char[] buffer) throws IOException {
+        gen.writeFieldName(field);
+        if (packed == CatalogSnapshot.NULL_TIMESTAMP) {
+            gen.writeNull();
+            return;
+        }
+        int length = ProductDTOSerializer.formatTimestamp((int) (packed / 10_000_000_000L),
+                (int) (packed / 100_000_000 % 100), (int) (packed / 1_000_000 % 100), (int) (packed / 10_000 % 100),
+                (int) (packed / 100 % 100), (int) (packed % 100), nano, buffer);
+        gen.writeString(buffer, 0, length);
+    }
+
+    // Sized for the longest of a decoded string (at most one char per UTF-8 byte) and a formatted value
+    private static char[] buffer(int bytes) {
+        char[] buffer = BUFFER.get();
+        if (buffer.length < bytes) {
+            buffer = new char[Math.max(bytes, buffer.length * 2)];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+}
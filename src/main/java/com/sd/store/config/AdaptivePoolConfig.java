@@ -0,0 +1,85 @@
+package com.sd.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Wraps the auto-configured Hikari pool in a {@link ConnectionTrackingDataSource} and lets an
+ * {@link AdaptivePoolController} size it. Only applies to the single-pool setup; with read/write
+ * routing or sharding the pools are not beans and keep their static sizes.
+ */
+@Configuration
+@ConditionalOnExpression("${store.datasource.pool.adaptive.enabled:false} and !${store.datasource.routing.enabled:false}"
+        + " and !${store.sharding.enabled:false}")
+public class AdaptivePoolConfig {
+
+    @Value("${store.datasource.pool.adaptive.min-size:5}")
+    private int minSize;
+
+    @Value("${store.datasource.pool.adaptive.max-size:30}")
+    private int maxSize;
+
+    @Value("${store.datasource.pool.adaptive.target-acquire-wait:20ms}")
+    private Duration targetAcquireWait;
+
+    @Value("${store.datasource.pool.adaptive.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${store.datasource.pool.adaptive.increase-step:2}")
+    private int increaseStep;
+
+    @Value("${store.datasource.pool.adaptive.decrease-factor:0.75}")
+    private double decreaseFactor;
+
+    @Value("${store.datasource.pool.adaptive.idle-intervals-before-shrink:6}")
+    private int idleIntervalsBeforeShrink;
+
+    @Value("${store.datasource.pool.adaptive.long-hold-threshold:10s}")
+    private Duration longHoldThreshold;
+
+    @Bean
+    public static ConnectionTrackingPostProcessor connectionTrackingPostProcessor() {
+        return new ConnectionTrackingPostProcessor();
+    }
+
+    @Bean
+    public AdaptivePoolController adaptivePoolController(DataSource dataSource, MeterRegistry meterRegistry)
+            throws SQLException {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Adaptive pool bounds must satisfy 1 <= min-size <= max-size");
+        }
+        ConnectionTrackingDataSource tracker = dataSource.unwrap(ConnectionTrackingDataSource.class);
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        AdaptivePoolController.Settings settings = new AdaptivePoolController.Settings(minSize, maxSize,
+                targetAcquireWait, latencyTolerance, increaseStep, decreaseFactor, idleIntervalsBeforeShrink,
+                longHoldThreshold);
+        return new AdaptivePoolController(pool, tracker, settings, meterRegistry);
+    }
+
+    /**
+     * Ordered so it wraps the pool itself, before post-processors that decorate the data source
+     * further (the in-memory journal) see it.
+     */
+    static class ConnectionTrackingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof HikariDataSource hikari ? new ConnectionTrackingDataSource(hikari) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.sd.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Resizes the Hikari pool between configured bounds based on acquire wait, active connections
+ * and connection hold time.
+ * <p>
+ * When callers queue for connections and hold time is near its baseline, the pool grows
+ * additively, scaled by the gradient {@code baseline / holdTime}. When callers queue but hold time
+ * is inflated, the database itself is the bottleneck and extra connections would only queue
+ * inside it, so the pool shrinks multiplicatively. A pool that stays mostly idle gives back one
+ * connection at a time.
+ */
+public class AdaptivePoolController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolController.class);
+
+    public record Settings(int minSize, int maxSize, Duration targetAcquireWait, double latencyTolerance,
+                           int increaseStep, double decreaseFactor, int idleIntervalsBeforeShrink,
+                           Duration longHoldThreshold) {}
+
+    enum Decision { HOLD, GROW, SHRINK_LATENCY, SHRINK_IDLE }
+
+    private final HikariDataSource pool;
+    private final ConnectionTrackingDataSource tracker;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final Counter longHeldCounter;
+
+    private ConnectionTrackingDataSource.Stats previous;
+    private double baselineHoldMillis;
+    private volatile double lastAcquireWaitMillis;
+    private volatile double lastHoldMillis;
+    private int idleIntervals;
+
+    public AdaptivePoolController(HikariDataSource pool, ConnectionTrackingDataSource tracker,
+                                  Settings settings, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.tracker = tracker;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.previous = tracker.stats();
+
+        int initial = Math.clamp(pool.getMaximumPoolSize(), settings.minSize(), settings.maxSize());
+        pool.setMaximumPoolSize(initial);
+        // A fixed-size pool never retires idle connections, so let it drift down to the lower bound
+        pool.setMinimumIdle(settings.minSize());
+
+        Gauge.builder("store.db.pool.size.target", pool, HikariDataSource::getMaximumPoolSize)
+                .description("Maximum pool size chosen by the adaptive controller")
+                .register(meterRegistry);
+        Gauge.builder("store.db.pool.acquire.wait", this, controller -> controller.lastAcquireWaitMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("store.db.pool.hold.time", this, controller -> controller.lastHoldMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("store.db.pool.hold.baseline", this, controller -> controller.baselineHoldMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        longHeldCounter = Counter.builder("store.db.pool.long_held")
+                .description("Connections held longer than the long-hold threshold")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${store.datasource.pool.adaptive.interval:5s}")
+    public void adjust() {
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        if (poolBean == null) {
+            return;
+        }
+        ConnectionTrackingDataSource.Stats current = tracker.stats();
+        long acquired = current.acquired() - previous.acquired();
+        long released = current.released() - previous.released();
+        double acquireWaitMillis = acquired > 0 ? (current.acquireNanos() - previous.acquireNanos()) / 1e6 / acquired : 0;
+        double holdMillis = released > 0 ? (current.holdNanos() - previous.holdNanos()) / 1e6 / released : 0;
+        previous = current;
+        lastAcquireWaitMillis = acquireWaitMillis;
+        lastHoldMillis = holdMillis;
+
+        int size = pool.getMaximumPoolSize();
+        int waiting = poolBean.getThreadsAwaitingConnection();
+        int active = poolBean.getActiveConnections();
+        Decision decision = decide(size, waiting, active, acquireWaitMillis, holdMillis);
+        int target = switch (decision) {
+            case HOLD -> size;
+            case GROW -> size + Math.max(1, (int) Math.round(settings.increaseStep() * gradient(holdMillis)));
+            case SHRINK_LATENCY -> (int) Math.floor(size * settings.decreaseFactor());
+            case SHRINK_IDLE -> size - 1;
+        };
+        target = Math.clamp(target, settings.minSize(), settings.maxSize());
+        if (target != size) {
+            resize(size, target, decision, waiting, active, acquireWaitMillis, holdMillis);
+        }
+        reportLongHeldConnections();
+    }
+
+    Decision decide(int size, int waiting, int active, double acquireWaitMillis, double holdMillis) {
+        if (holdMillis > 0) {
+            // Track the floor of hold time, letting it drift up slowly so a lasting shift is accepted
+            baselineHoldMillis = baselineHoldMillis == 0 || holdMillis < baselineHoldMillis
+                    ? holdMillis
+                    : baselineHoldMillis + (holdMillis - baselineHoldMillis) * 0.05;
+        }
+        boolean saturated = waiting > 0 || acquireWaitMillis > settings.targetAcquireWait().toMillis();
+        if (saturated) {
+            idleIntervals = 0;
+            boolean latencyInflated = holdMillis > baselineHoldMillis * settings.latencyTolerance();
+            return latencyInflated ? Decision.SHRINK_LATENCY : Decision.GROW;
+        }
+        if (active * 2 < size && ++idleIntervals >= settings.idleIntervalsBeforeShrink()) {
+            idleIntervals = 0;
+            return Decision.SHRINK_IDLE;
+        }
+        return Decision.HOLD;
+    }
+
+    private double gradient(double holdMillis) {
+        if (holdMillis <= 0 || baselineHoldMillis <= 0) {
+            return 1.0;
+        }
+        return Math.clamp(baselineHoldMillis / holdMillis, 0.5, 1.0);
+    }
+
+    private void resize(int from, int to, Decision decision, int waiting, int active,
+                        double acquireWaitMillis, double holdMillis) {
+        pool.setMaximumPoolSize(to);
+        logger.info("Resized connection pool {} -> {} ({}; waiting={}, active={}, acquireWait={}ms, hold={}ms, baseline={}ms)",
+                from, to, decision, waiting, active, String.format("%.1f", acquireWaitMillis),
+                String.format("%.1f", holdMillis), String.format("%.1f", baselineHoldMillis));
+        Counter.builder("store.db.pool.resizes")
+                .tag("direction", to > from ? "up" : "down")
+                .tag("reason", decision.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Logs the current stack of every thread that has held a connection longer than the threshold,
+     * once per borrow. Unlike Hikari's leak detection this shows where the holder is now, not where
+     * it acquired the connection.
+     */
+    void reportLongHeldConnections() {
+        long now = System.nanoTime();
+        long thresholdNanos = settings.longHoldThreshold().toNanos();
+        for (ConnectionTrackingDataSource.Lease lease : tracker.leases()) {
+            long heldNanos = lease.heldNanos(now);
+            if (heldNanos < thresholdNanos || !lease.markReported()) {
+                continue;
+            }
+            longHeldCounter.increment();
+            Thread thread = lease.thread();
+            StringBuilder stack = new StringBuilder();
+            for (StackTraceElement element : thread.getStackTrace()) {
+                stack.append("\n\tat ").append(element);
+            }
+            logger.warn("Thread '{}' ({}) has held a connection for {} ms{}", thread.getName(), thread.getState(),
+                    Duration.ofNanos(heldNanos).toMillis(), stack);
+        }
+    }
+}
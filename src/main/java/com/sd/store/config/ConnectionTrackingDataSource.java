@@ -0,0 +1,157 @@
+package com.sd.store.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long callers wait for a connection and how long they hold it, and which thread
+ * currently holds each borrowed connection.
+ * <p>
+ * Acquire wait is the pool's queueing delay; hold time covers every statement run on the
+ * connection, so its average is the latency signal {@link AdaptivePoolController} sizes against.
+ * <p>
+ * It replaces the pool bean, so it also closes the pool when the context shuts down.
+ */
+public class ConnectionTrackingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+
+    public ConnectionTrackingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return track(obtainTargetDataSource().getConnection(), start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return track(obtainTargetDataSource().getConnection(username, password), start);
+    }
+
+    private Connection track(Connection target, long start) {
+        long now = System.nanoTime();
+        acquired.increment();
+        acquireNanos.add(now - start);
+        Lease lease = new Lease(Thread.currentThread(), now);
+        leases.add(lease);
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, new TrackingInvocationHandler(target, lease));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(acquired.sum(), acquireNanos.sum(), released.sum(), holdNanos.sum());
+    }
+
+    public Collection<Lease> leases() {
+        return leases;
+    }
+
+    /**
+     * Cumulative counters; callers diff two snapshots to get per-interval averages.
+     */
+    public record Stats(long acquired, long acquireNanos, long released, long holdNanos) {}
+
+    /**
+     * A borrowed connection. {@code reported} lets diagnostics log a long hold only once.
+     */
+    public static final class Lease {
+
+        private final Thread thread;
+        private final long acquiredAtNanos;
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private Lease(Thread thread, long acquiredAtNanos) {
+            this.thread = thread;
+            this.acquiredAtNanos = acquiredAtNanos;
+        }
+
+        public Thread thread() {
+            return thread;
+        }
+
+        public long heldNanos(long now) {
+            return now - acquiredAtNanos;
+        }
+
+        public boolean markReported() {
+            return reported.compareAndSet(false, true);
+        }
+    }
+
+    private final class TrackingInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final Lease lease;
+        private boolean closed;
+
+        private TrackingInvocationHandler(Connection target, Lease lease) {
+            this.target = target;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        leases.remove(lease);
+                        released.increment();
+                        holdNanos.add(lease.heldNanos(System.nanoTime()));
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
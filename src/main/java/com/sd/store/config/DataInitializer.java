@@ -15,7 +15,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Configuration
 public class DataInitializer {
@@ -50,44 +55,52 @@ public class DataInitializer {
     }
 
     private void seedUsers() {
-        Role adminRole = roleRepository.findByName("ROLE_ADMIN").orElseThrow();
-        Role managerRole = roleRepository.findByName("ROLE_MANAGER").orElseThrow();
-        Role employeeRole = roleRepository.findByName("ROLE_EMPLOYEE").orElseThrow();
-        Role userRole = roleRepository.findByName("ROLE_USER").orElseThrow();
-
-        createUserIfAbsent("admin", "admin123", "admin@store.com", Set.of(adminRole));
-        createUserIfAbsent("manager", "manager123", "manager@store.com", Set.of(managerRole));
-        createUserIfAbsent("employee", "employee123", "employee@store.com", Set.of(employeeRole));
-        createUserIfAbsent("user", "user123", "user@store.com", Set.of(userRole));
-    }
+        Map<String, Role> roles = roleRepository.findByNameIn(
+                        List.of("ROLE_ADMIN", "ROLE_MANAGER", "ROLE_EMPLOYEE", "ROLE_USER")).stream()
+                .collect(Collectors.toMap(Role::getName, Function.identity()));
 
-    private void createUserIfAbsent(String username, String rawPassword, String email, Set<Role> roles) {
-        userRepository.findByUsername(username).ifPresentOrElse(
-            u -> {}, 
-            () -> {
-                var u = new User(username, passwordEncoder.encode(rawPassword), email, roles);
-                userRepository.save(u);
-                log.info("Seeded user {}", username);
-            }
+        List<UserSeed> seeds = List.of(
+            new UserSeed("admin", "admin123", "admin@store.com", "ROLE_ADMIN"),
+            new UserSeed("manager", "manager123", "manager@store.com", "ROLE_MANAGER"),
+            new UserSeed("employee", "employee123", "employee@store.com", "ROLE_EMPLOYEE"),
+            new UserSeed("user", "user123", "user@store.com", "ROLE_USER")
         );
-    }
 
-    private void seedProducts() {
-        createProductIfAbsent("Laptop", "Gaming laptop", new BigDecimal("7999.99"), 10, "Electronics");
-        createProductIfAbsent("Smartphone", "Iphone", new BigDecimal("5699.99"), 15, "Electronics");
-        createProductIfAbsent("Book", "Java programming guide", new BigDecimal("49.25"), 51, "Books");
-        createProductIfAbsent("Office Chair", "Ergonomic office chair", new BigDecimal("1000.00"), 4, "Furniture");
-        createProductIfAbsent("Desk", "Adjustable desk", new BigDecimal("1500.00"), 0, "Furniture");
-        createProductIfAbsent("Coffee", "Coffee beans", new BigDecimal("40.50"), 8, "Food");
+        // One existence query for all seeds; BCrypt only runs for users that are actually missing
+        Set<String> existing = userRepository.findExistingUsernames(
+                seeds.stream().map(UserSeed::username).toList());
+        List<User> missing = seeds.stream()
+                .filter(seed -> !existing.contains(seed.username()))
+                .map(seed -> new User(seed.username(), passwordEncoder.encode(seed.rawPassword()), seed.email(),
+                        Set.of(Optional.ofNullable(roles.get(seed.role())).orElseThrow())))
+                .toList();
+
+        if (!missing.isEmpty()) {
+            userRepository.saveAll(missing);
+            missing.forEach(u -> log.info("Seeded user {}", u.getUsername()));
+        }
     }
 
-    private void createProductIfAbsent(String name, String description, BigDecimal price, int quantity, String category) {
-        productRepository.findByName(name).ifPresentOrElse(
-            p -> {},
-            () -> {
-                productRepository.save(new Product(name, description, price, quantity, category));
-                log.info("Seeded product {}", name);
-            }
+    private void seedProducts() {
+        List<Product> seeds = List.of(
+            new Product("Laptop", "Gaming laptop", new BigDecimal("7999.99"), 10, "Electronics"),
+            new Product("Smartphone", "Iphone", new BigDecimal("5699.99"), 15, "Electronics"),
+            new Product("Book", "Java programming guide", new BigDecimal("49.25"), 51, "Books"),
+            new Product("Office Chair", "Ergonomic office chair", new BigDecimal("1000.00"), 4, "Furniture"),
+            new Product("Desk", "Adjustable desk", new BigDecimal("1500.00"), 0, "Furniture"),
+            new Product("Coffee", "Coffee beans", new BigDecimal("40.50"), 8, "Food")
         );
+
+        Set<String> existing = productRepository.findExistingNames(seeds.stream().map(Product::getName).toList());
+        List<Product> missing = seeds.stream()
+                .filter(product -> !existing.contains(product.getName()))
+                .toList();
+
+        if (!missing.isEmpty()) {
+            productRepository.saveAll(missing);
+            missing.forEach(p -> log.info("Seeded product {}", p.getName()));
+        }
     }
+
+    private record UserSeed(String username, String rawPassword, String email, String role) {}
 }
@@ -1,10 +1,20 @@
 package com.sd.store.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd.store.filter.AdmissionControlFilter;
+import com.sd.store.filter.AdmissionControlFilter.EndpointClass;
+import com.sd.store.filter.AdmissionControlFilter.Limits;
 import com.sd.store.model.Role;
+import com.sd.store.profiling.ProfiledAuthenticationProvider;
 import com.sd.store.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -16,7 +26,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Configuration
@@ -27,6 +40,33 @@ public class SecurityConfig {
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${store.admission.enabled:true}")
+    private boolean admissionControlEnabled;
+
+    @Value("${store.admission.queue-budget:100ms}")
+    private Duration admissionQueueBudget;
+
+    @Value("${store.admission.max-tracked-principals:100000}")
+    private int admissionMaxTrackedPrincipals;
+
+    @Value("${store.admission.standard.rate-per-second:50}")
+    private double standardRatePerSecond;
+
+    @Value("${store.admission.standard.burst:100}")
+    private int standardBurst;
+
+    @Value("${store.admission.standard.max-concurrent:64}")
+    private int standardMaxConcurrent;
+
+    @Value("${store.admission.expensive.rate-per-second:5}")
+    private double expensiveRatePerSecond;
+
+    @Value("${store.admission.expensive.burst:10}")
+    private int expensiveBurst;
+
+    @Value("${store.admission.expensive.max-concurrent:8}")
+    private int expensiveMaxConcurrent;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -52,12 +92,19 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                           UserDetailsService userDetailsService,
+                                           PasswordEncoder passwordEncoder) throws Exception {
+        // The chain's own manager has no global parent, so a rejected login is not checked a second time
         http
+            .authenticationManager(new ProviderManager(authenticationProvider(userDetailsService, passwordEncoder)))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
+                .requestMatchers("/actuator/startup", "/actuator/startup/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/jfr", "/actuator/jfr/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/backup", "/actuator/backup/**").hasRole("ADMIN")
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/api-docs/**").permitAll()
                 .requestMatchers("/swagger-ui/**").permitAll()
@@ -67,6 +114,30 @@ public class SecurityConfig {
             .httpBasic(httpBasic -> {})
             .headers(headers -> headers.frameOptions().disable()); // for H2 console
 
+        if (admissionControlEnabled) {
+            http.addFilterAfter(admissionControlFilter(objectMapper, meterRegistry), BasicAuthenticationFilter.class);
+        }
+
         return http.build();
     }
+
+    private static AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                                 PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProfiledAuthenticationProvider(provider);
+    }
+
+    private AdmissionControlFilter admissionControlFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new AdmissionControlFilter(
+                Map.of(
+                        EndpointClass.STANDARD, new Limits(standardRatePerSecond, standardBurst, standardMaxConcurrent),
+                        EndpointClass.EXPENSIVE, new Limits(expensiveRatePerSecond, expensiveBurst, expensiveMaxConcurrent)
+                ),
+                admissionQueueBudget,
+                admissionMaxTrackedPrincipals,
+                objectMapper,
+                meterRegistry
+        );
+    }
 }
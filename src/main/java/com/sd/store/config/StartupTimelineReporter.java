@@ -0,0 +1,55 @@
+package com.sd.store.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+
+/**
+ * Logs how long the JVM took to become ready and the slowest recorded startup steps.
+ * <p>
+ * Only reports steps when the application was started with a {@link BufferingApplicationStartup},
+ * which {@code StoreManagementApiApplication.main} installs. The full timeline is also served
+ * by {@code /actuator/startup}.
+ */
+@Component
+public class StartupTimelineReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimelineReporter.class);
+
+    @Value("${store.startup.report.top-steps:15}")
+    private int topSteps;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        long jvmUptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Application ready in {} ms of JVM uptime (context ready after {} ms)",
+                jvmUptime, event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1);
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        log.info("Slowest startup steps:");
+        timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topSteps)
+                .forEach(step -> log.info("  {} ms  {} {}", step.getDuration().toMillis(),
+                        step.getStartupStep().getName(), describe(step)));
+    }
+
+    private static String describe(StartupTimeline.TimelineEvent step) {
+        StringBuilder tags = new StringBuilder();
+        step.getStartupStep().getTags().forEach(tag -> tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' '));
+        return tags.toString().trim();
+    }
+}
@@ -0,0 +1,81 @@
+package com.sd.store.controller;
+
+import com.sd.store.alert.StockAlertDispatcher;
+import com.sd.store.dto.WebhookRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/alerts")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@Tag(name = "Stock Alerts", description = "Push notifications for low and out-of-stock products")
+public class AlertController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AlertController.class);
+    
+    private final StockAlertDispatcher dispatcher;
+    
+    public AlertController(StockAlertDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+    
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Subscribe to stock alerts",
+        description = "Server-sent events; each 'stock-alerts' event carries a batch of alerts"
+    )
+    public SseEmitter streamAlerts() {
+        logger.info("New stock alert subscriber");
+        return dispatcher.subscribe();
+    }
+    
+    @GetMapping("/webhooks")
+    public ResponseEntity<Set<URI>> getWebhooks() {
+        return ResponseEntity.ok(dispatcher.getWebhooks());
+    }
+    
+    @PostMapping("/webhooks")
+    @Operation(
+        summary = "Register a local webhook",
+        description = "Alert batches are POSTed as JSON arrays to the URL, which must be a loopback address"
+    )
+    public ResponseEntity<Void> registerWebhook(@Valid @RequestBody WebhookRequest request) {
+        logger.info("Request to register stock alert webhook: {}", request.url());
+        dispatcher.registerWebhook(toUri(request.url()));
+        return new ResponseEntity<>(HttpStatus.CREATED);
+    }
+    
+    @DeleteMapping("/webhooks")
+    public ResponseEntity<Void> unregisterWebhook(@RequestParam String url) {
+        logger.info("Request to unregister stock alert webhook: {}", url);
+        return dispatcher.unregisterWebhook(toUri(url))
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+    
+    private static URI toUri(String url) {
+        try {
+            return URI.create(url.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid webhook URL: " + url);
+        }
+    }
+}
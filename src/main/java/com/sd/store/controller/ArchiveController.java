@@ -0,0 +1,80 @@
+package com.sd.store.controller;
+
+import com.sd.store.archive.ProductArchive;
+import com.sd.store.archive.ProductArchive.ArchivedProduct;
+import com.sd.store.dto.ProductDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/archive")
+public class ArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveController.class);
+
+    // Absent when store.archive.enabled is false or products are sharded
+    private final ProductArchive productArchive;
+
+    public ArchiveController(ObjectProvider<ProductArchive> productArchive) {
+        this.productArchive = productArchive.getIfAvailable();
+    }
+
+    @GetMapping("/products")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(
+        summary = "List archived products",
+        description = "Products moved out of the hot table, most recently archived first"
+    )
+    public ResponseEntity<Page<ArchivedProduct>> getArchivedProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.info("Request to list archived products: page={}, size={}", page, size);
+        if (productArchive == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(productArchive.findArchived(PageRequest.of(page, size)));
+    }
+
+    @PostMapping("/products/{id}/restore")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(
+        summary = "Restore an archived product",
+        description = "Moves the product back to the hot table under the same id"
+    )
+    public ResponseEntity<ProductDTO> restoreProduct(@PathVariable Long id) {
+        logger.info("Request to restore archived product with ID: {}", id);
+        if (productArchive == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(ProductDTO.fromProduct(productArchive.restore(id)));
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Archive stale products now",
+        description = "Runs the scheduled archiving pass immediately and returns how many products it moved"
+    )
+    public ResponseEntity<Map<String, Integer>> archiveNow() {
+        logger.info("Request to archive stale products now");
+        if (productArchive == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(Map.of("archived", productArchive.archiveStale()));
+    }
+}
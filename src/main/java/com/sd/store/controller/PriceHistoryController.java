@@ -0,0 +1,64 @@
+package com.sd.store.controller;
+
+import com.sd.store.dto.PricePointDTO;
+import com.sd.store.service.PriceHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+@Tag(name = "Price History", description = "API for historical product prices")
+public class PriceHistoryController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryController.class);
+    
+    private final PriceHistoryService priceHistoryService;
+    
+    public PriceHistoryController(PriceHistoryService priceHistoryService) {
+        this.priceHistoryService = priceHistoryService;
+    }
+    
+    @GetMapping("/{id}/price-history")
+    @Operation(
+        summary = "Get price history of a product",
+        description = "Returns the prices a product had between two instants, oldest first"
+    )
+    public ResponseEntity<List<PricePointDTO>> getPriceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now();
+        logger.info("Request to get price history for product ID: {} from {} to {}", id, start, end);
+        
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        return ResponseEntity.ok(priceHistoryService.findPriceSeries(id, start, end));
+    }
+    
+    @GetMapping("/prices/as-of")
+    @Operation(
+        summary = "Get catalog prices as of an instant",
+        description = "Returns the last recorded price of every product at the given instant"
+    )
+    public ResponseEntity<List<PricePointDTO>> getCatalogPricesAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        logger.info("Request to get catalog prices as of {}", at);
+        return ResponseEntity.ok(priceHistoryService.findCatalogPricesAsOf(at));
+    }
+}
@@ -1,8 +1,19 @@
 package com.sd.store.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd.store.catalog.CatalogSnapshot;
+import com.sd.store.catalog.CatalogSnapshotStore;
+import com.sd.store.catalog.SnapshotProduct;
 import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.dto.ProductPatch;
+import com.sd.store.dto.ProductView;
 import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
 import com.sd.store.service.ProductService;
+import com.sd.store.typeahead.ProductTypeahead;
+import com.sd.store.typeahead.ProductTypeahead.Suggestion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,20 +23,29 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
@@ -35,11 +55,30 @@ public class ProductController {
     
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
     
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("id", "name", "price", "quantity", "category", "createdAt", "updatedAt");
+    
     private final ProductService productService;
     
+    // Absent unless store.catalog-snapshot.enabled is set
+    private final CatalogSnapshotStore catalogSnapshots;
+    
+    // Absent when store.typeahead.enabled is false or products are sharded
+    private final ProductTypeahead typeahead;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final Validator validator;
+    
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectProvider<CatalogSnapshotStore> catalogSnapshots,
+                             ObjectProvider<ProductTypeahead> typeahead, ObjectMapper objectMapper,
+                             Validator validator) {
         this.productService = productService;
+        this.catalogSnapshots = catalogSnapshots.getIfAvailable();
+        this.typeahead = typeahead.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
     
     @PostMapping
@@ -91,7 +130,7 @@ public class ProductController {
             description = "Product list retrieved successfully",
             content = @Content(
                 mediaType = "application/json",
-                schema = @Schema(implementation = Product.class, type = "array")
+                schema = @Schema(implementation = ProductDTO.class, type = "array")
             )
         ),
         @ApiResponse(
@@ -103,15 +142,62 @@ public class ProductController {
             description = "Internal server error"
         )
     })
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<ProductView>> getAllProducts() {
         logger.info("Request to get all products");
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot != null) {
+            return ResponseEntity.ok(Collections.unmodifiableList(snapshot.products(0, snapshot.size())));
+        }
         List<Product> products = productService.findAllProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(Collections.unmodifiableList(toDTOs(products)));
+    }
+    
+    @GetMapping(params = "status")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+    @Operation(
+        summary = "Get products by stock status",
+        description = "Returns a page of products with the given precomputed stock status, ordered by ID"
+    )
+    public ResponseEntity<Page<ProductView>> getProductsByStockStatus(
+            @RequestParam StockStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.info("Request to get products with stock status {}: page={}, size={}", status, page, size);
+        
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot != null) {
+            int total = snapshot.count(status);
+            int from = (int) Math.min(pageable.getOffset(), total);
+            int to = Math.min(from + size, total);
+            return ResponseEntity.ok(new PageImpl<>(Collections.unmodifiableList(snapshot.products(status, from, to)),
+                    pageable, total));
+        }
+        return ResponseEntity.ok(productService.findProductsByStockStatus(status, pageable).map(ProductView.class::cast));
+    }
+    
+    @GetMapping("/status-counts")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+    @Operation(
+        summary = "Count products per stock status",
+        description = "Returns the number of products in each stock status"
+    )
+    public ResponseEntity<Map<StockStatus, Long>> getStockStatusCounts() {
+        logger.info("Request to count products by stock status");
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot != null) {
+            Map<StockStatus, Long> counts = new EnumMap<>(StockStatus.class);
+            for (StockStatus status : StockStatus.values()) {
+                counts.put(status, (long) snapshot.count(status));
+            }
+            return ResponseEntity.ok(counts);
+        }
+        return ResponseEntity.ok(productService.countProductsByStockStatus());
     }
     
     @GetMapping("/paginated")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
-    public ResponseEntity<Page<Product>> getAllProductsPaginated(
+    public ResponseEntity<Page<ProductView>> getAllProductsPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "4") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -120,38 +206,69 @@ public class ProductController {
         logger.info("Request to get all products with pagination: page={}, size={}, sortBy={}, sortDir={}", 
                    page, size, sortBy, sortDir);
         
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.DESC.name()) 
-                   ? Sort.by(sortBy).descending() 
-                   : Sort.by(sortBy).ascending();
-        
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, size, buildSort(sortBy, sortDir));
+        // Snapshot rows are in id order, so only that ordering can be sliced from them
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot != null && sortBy.equals("id") && pageable.getSort().getOrderFor("id").isAscending()) {
+            int from = (int) Math.min(pageable.getOffset(), snapshot.size());
+            int to = Math.min(from + size, snapshot.size());
+            return ResponseEntity.ok(new PageImpl<>(Collections.unmodifiableList(snapshot.products(from, to)),
+                    pageable, snapshot.size()));
+        }
         Page<Product> products = productService.findAllProductsPaginated(pageable);
         
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(products.map(ProductDTO::fromProduct));
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id) {
         logger.info("Request to get product by ID: {}", id);
         
+        // A miss may be a product created since the snapshot was taken, so it goes to the database
+        CatalogSnapshot snapshot = catalogSnapshot();
+        int row = snapshot != null ? snapshot.find(id) : -1;
+        if (row >= 0) {
+            return ResponseEntity.ok(new SnapshotProduct(snapshot, row));
+        }
         return productService.findProductById(id)
-                .map(ResponseEntity::ok)
+                .<ResponseEntity<ProductView>>map(product -> ResponseEntity.ok(ProductDTO.fromProduct(product)))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String name) {
         logger.info("Request to search products by name: {}", name);
 
         List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(toDTOs(products));
+    }
+    
+    @GetMapping("/typeahead")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+    @Operation(
+        summary = "Suggest products by name prefix",
+        description = "Returns ids and names of products whose name, or a word in it, starts with the prefix, " +
+                      "most stock first. Served from memory; meant to be called on every keystroke"
+    )
+    public ResponseEntity<List<Suggestion>> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (typeahead == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (limit < 1 || limit > typeahead.topK()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + typeahead.topK());
+        }
+        List<Suggestion> suggestions = typeahead.suggest(q, limit);
+        return suggestions != null ? ResponseEntity.ok(suggestions)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
     }
     
     @GetMapping("/search/paginated")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
-    public ResponseEntity<Page<Product>> searchProductsPaginated(
+    public ResponseEntity<Page<ProductDTO>> searchProductsPaginated(
             @RequestParam String name,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -161,14 +278,39 @@ public class ProductController {
         logger.info("Request to search products by name: {} with pagination: page={}, size={}, sortBy={}, sortDir={}", 
                    name, page, size, sortBy, sortDir);
         
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.DESC.name()) 
-                   ? Sort.by(sortBy).descending() 
-                   : Sort.by(sortBy).ascending();
-        
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, size, buildSort(sortBy, sortDir));
         Page<Product> products = productService.searchProductsByNamePaginated(name, pageable);
         
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(products.map(ProductDTO::fromProduct));
+    }
+    
+    @GetMapping("/filter")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+    @Operation(
+        summary = "Filter products",
+        description = "Filters products by category, name prefix, price range, quantity range and last update, " +
+                      "with pagination and sorting on whitelisted fields"
+    )
+    public ResponseEntity<Page<ProductDTO>> filterProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer minQuantity,
+            @RequestParam(required = false) Integer maxQuantity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        
+        ProductFilter filter = new ProductFilter(category, namePrefix, minPrice, maxPrice,
+                                                 minQuantity, maxQuantity, updatedSince);
+        logger.info("Request to filter products by {} with pagination: page={}, size={}, sortBy={}, sortDir={}",
+                   filter, page, size, sortBy, sortDir);
+        
+        Pageable pageable = PageRequest.of(page, size, buildSort(sortBy, sortDir));
+        return ResponseEntity.ok(productService.filterProducts(filter, pageable));
     }
     
     @PutMapping("/{id}")
@@ -180,13 +322,28 @@ public class ProductController {
         return ResponseEntity.ok(ProductDTO.fromProduct(updatedProduct));
     }
     
+    @PatchMapping(value = "/{id}", consumes = ProductPatch.MEDIA_TYPE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(
+        summary = "Partially update a product",
+        description = "Applies a JSON Merge Patch (RFC 7396). Only the supplied fields are validated and only " +
+                      "the changed columns are written; a patch that changes nothing writes nothing"
+    )
+    public ResponseEntity<ProductDTO> patchProduct(@PathVariable Long id, @RequestBody JsonNode mergePatch) {
+        logger.info("Request to patch product with ID: {}", id);
+        
+        ProductPatch patch = ProductPatch.fromMergePatch(mergePatch, objectMapper, validator);
+        Product patchedProduct = productService.patchProduct(id, patch);
+        return ResponseEntity.ok(ProductDTO.fromProduct(patchedProduct));
+    }
+    
     @PatchMapping("/{id}/price")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<Product> changePrice(@PathVariable Long id, @RequestParam BigDecimal price) {
+    public ResponseEntity<ProductDTO> changePrice(@PathVariable Long id, @RequestParam BigDecimal price) {
         logger.info("Request to change price for product ID: {} to {}", id, price);
 
         Product updatedProduct = productService.changePrice(id, price);
-        return ResponseEntity.ok(updatedProduct);
+        return ResponseEntity.ok(ProductDTO.fromProduct(updatedProduct));
     }
     
     
@@ -204,20 +361,28 @@ public class ProductController {
         logger.info("Request to get product status for ID: {}", id);
         
         return productService.findProductById(id)
-                .map(product -> {
-                    String status = switch (product.getQuantity()) {
-                        case 0 -> "OUT_OF_STOCK";
-                        case 1, 2, 3, 4 -> "CRITICAL_STOCK";
-                        case 5, 6, 7, 8, 9 -> "LOW_STOCK";
-                        default -> product.getQuantity() > 50 ? "OVERSTOCKED" : "IN_STOCK";
-                    };
-                    
-                                         return ResponseEntity.ok(status);
-                 })
-                 .orElse(ResponseEntity.notFound().build());
+                .map(product -> ResponseEntity.ok(product.getStockStatus().name()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+     private static Sort buildSort(String sortBy, String sortDir) {
+         if (!SORTABLE_FIELDS.contains(sortBy)) {
+             throw new IllegalArgumentException("Cannot sort by '" + sortBy + "', allowed fields: " + SORTABLE_FIELDS);
+         }
+         return sortDir.equalsIgnoreCase(Sort.Direction.DESC.name())
+                ? Sort.by(sortBy).descending()
+                : Sort.by(sortBy).ascending();
      }
-     
 
+     // Null when snapshots are disabled or the current one is past its staleness bound
+     private CatalogSnapshot catalogSnapshot() {
+         return catalogSnapshots != null ? catalogSnapshots.current() : null;
+     }
+
+     // Entities never reach Jackson: lazy proxies and new fields would leak into responses
+     private static List<ProductDTO> toDTOs(List<Product> products) {
+         return products.stream().map(ProductDTO::fromProduct).toList();
+     }
 
      private Product convertToProduct(ProductDTO productDTO) {
          return new Product(
@@ -0,0 +1,43 @@
+package com.sd.store.controller;
+
+import com.sd.store.valuation.InventoryProjection;
+import com.sd.store.valuation.InventoryValuation;
+import io.swagger.v3.oas.annotations.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/valuation")
+@PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+public class ValuationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationController.class);
+
+    // Absent when store.valuation.enabled is false or products are sharded
+    private final InventoryProjection inventoryProjection;
+
+    public ValuationController(ObjectProvider<InventoryProjection> inventoryProjection) {
+        this.inventoryProjection = inventoryProjection.getIfAvailable();
+    }
+
+    @GetMapping
+    @Operation(
+        summary = "Value the inventory",
+        description = "Returns the total stock value (price * quantity) and its split by category"
+    )
+    public ResponseEntity<InventoryValuation> getValuation() {
+        logger.info("Request to value the inventory");
+        InventoryValuation valuation = inventoryProjection != null ? inventoryProjection.valuation() : null;
+        if (valuation == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(valuation);
+    }
+}
@@ -0,0 +1,11 @@
+package com.sd.store.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PricePointDTO(
+    Long productId,
+    Instant timestamp,
+    BigDecimal price
+) {
+}
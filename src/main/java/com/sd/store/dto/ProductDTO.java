@@ -1,10 +1,13 @@
 package com.sd.store.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sd.store.model.StockStatus;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 
+@JsonSerialize(using = ProductDTOSerializer.class)
 public record ProductDTO(
     Long id,
     
@@ -31,9 +34,12 @@ public record ProductDTO(
     @Pattern(regexp = "^[a-zA-Z\\s\\-]+$", message = "Category can only contain letters, spaces, and hyphens")
     String category,
     
+    // Derived from quantity on write, so ignored in requests
+    StockStatus stockStatus,
+    
     LocalDateTime createdAt,
     LocalDateTime updatedAt
-) {
+) implements ProductView {
 
     public static ProductDTO fromProduct(com.sd.store.model.Product product) {
         return new ProductDTO(
@@ -43,6 +49,7 @@ public record ProductDTO(
             product.getPrice(),
             product.getQuantity(),
             product.getCategory(),
+            product.getStockStatus(),
             product.getCreatedAt(),
             product.getUpdatedAt()
         );
@@ -58,6 +65,7 @@ public record ProductDTO(
             quantity,
             category,
             null,
+            null,
             null
         );
     }
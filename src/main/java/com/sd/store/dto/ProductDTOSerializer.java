@@ -0,0 +1,236 @@
+package com.sd.store.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.sd.store.model.StockStatus;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hand-written Jackson serializer for {@link ProductDTO}, producing the same JSON as the reflective
+ * bean serializer without its per-field lookups.
+ * <p>
+ * Field names and stock status values are pre-encoded, and prices and timestamps are formatted into a
+ * per-thread {@code char[]} that is handed to the generator directly, so a product costs no {@code String}s
+ * beyond the ones it already holds. Values the fast paths do not cover (scientific-notation decimals,
+ * years past 9999, non-default date, decimal or enum settings) go through the mapper's own serializers.
+ */
+public class ProductDTOSerializer extends StdSerializer<ProductDTO> implements ContextualSerializer {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString CATEGORY = new SerializedString("category");
+    private static final SerializableString STOCK_STATUS = new SerializedString("stockStatus");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+
+    private static final Map<StockStatus, SerializableString> STATUS_NAMES = new EnumMap<>(StockStatus.class);
+
+    static {
+        for (StockStatus status : StockStatus.values()) {
+            STATUS_NAMES.put(status, new SerializedString(status.name()));
+        }
+    }
+
+    // Longest fast-path value: "-9223372036854775808" with a decimal point, or "yyyy-MM-ddTHH:mm:ss.nnnnnnnnn"
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[32]);
+
+    private final boolean writeNulls;
+    private final boolean fastDates;
+    private final boolean fastEnums;
+
+    public ProductDTOSerializer() {
+        this(true, true, true);
+    }
+
+    private ProductDTOSerializer(boolean writeNulls, boolean fastDates, boolean fastEnums) {
+        super(ProductDTO.class);
+        this.writeNulls = writeNulls;
+        this.fastDates = fastDates;
+        this.fastEnums = fastEnums;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+        SerializationConfig config = provider.getConfig();
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion(ProductDTO.class).getValueInclusion();
+        return new ProductDTOSerializer(
+                inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS,
+                !config.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS),
+                !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                        && !config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX));
+    }
+
+    @Override
+    public void serialize(ProductDTO product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(product);
+        if (product.id() != null) {
+            gen.writeFieldName(ID);
+            gen.writeNumber(product.id());
+        } else {
+            writeNull(gen, ID);
+        }
+        writeString(gen, NAME, product.name());
+        writeString(gen, DESCRIPTION, product.description());
+        writePrice(gen, provider, product.price());
+        if (product.quantity() != null) {
+            gen.writeFieldName(QUANTITY);
+            gen.writeNumber(product.quantity());
+        } else {
+            writeNull(gen, QUANTITY);
+        }
+        writeString(gen, CATEGORY, product.category());
+        writeStatus(gen, provider, product.stockStatus());
+        writeTimestamp(gen, provider, CREATED_AT, product.createdAt());
+        writeTimestamp(gen, provider, UPDATED_AT, product.updatedAt());
+        gen.writeEndObject();
+    }
+
+    private void writeNull(JsonGenerator gen, SerializableString field) throws IOException {
+        if (writeNulls) {
+            gen.writeFieldName(field);
+            gen.writeNull();
+        }
+    }
+
+    private void writeString(JsonGenerator gen, SerializableString field, String value) throws IOException {
+        if (value == null) {
+            writeNull(gen, field);
+            return;
+        }
+        gen.writeFieldName(field);
+        gen.writeString(value);
+    }
+
+    private void writePrice(JsonGenerator gen, SerializerProvider provider, BigDecimal price) throws IOException {
+        if (price == null) {
+            writeNull(gen, PRICE);
+            return;
+        }
+        gen.writeFieldName(PRICE);
+        // Scales 0-6 always print without an exponent, so toString and toPlainString agree
+        if (price.scale() < 0 || price.scale() > 6 || price.unscaledValue().bitLength() > 62) {
+            provider.defaultSerializeValue(price, gen);
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = formatDecimal(price.unscaledValue().longValue(), price.scale(), buffer);
+        gen.writeNumber(buffer, 0, length);
+    }
+
+    private void writeStatus(JsonGenerator gen, SerializerProvider provider, StockStatus status) throws IOException {
+        if (status == null) {
+            writeNull(gen, STOCK_STATUS);
+            return;
+        }
+        gen.writeFieldName(STOCK_STATUS);
+        if (fastEnums) {
+            gen.writeString(STATUS_NAMES.get(status));
+        } else {
+            provider.defaultSerializeValue(status, gen);
+        }
+    }
+
+    private void writeTimestamp(JsonGenerator gen, SerializerProvider provider, SerializableString field,
+                                LocalDateTime value) throws IOException {
+        if (value == null) {
+            writeNull(gen, field);
+            return;
+        }
+        gen.writeFieldName(field);
+        if (!fastDates || value.getYear() < 0 || value.getYear() > 9999) {
+            provider.defaultSerializeValue(value, gen);
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = formatTimestamp(value, buffer);
+        gen.writeString(buffer, 0, length);
+    }
+
+    /**
+     * Writes {@code unscaled * 10^-scale} in {@link BigDecimal#toString()} form, for scales 0-6.
+     */
+    public static int formatDecimal(long unscaled, int scale, char[] buffer) {
+        int pos = buffer.length;
+        boolean negative = unscaled < 0;
+        // Work on the negative value so Long.MIN_VALUE does not overflow
+        long value = negative ? unscaled : -unscaled;
+        int digits = 0;
+        do {
+            if (digits == scale && scale > 0) {
+                buffer[--pos] = '.';
+            }
+            buffer[--pos] = (char) ('0' - value % 10);
+            value /= 10;
+            digits++;
+        } while (value != 0 || digits <= scale);
+        if (negative) {
+            buffer[--pos] = '-';
+        }
+        int length = buffer.length - pos;
+        System.arraycopy(buffer, pos, buffer, 0, length);
+        return length;
+    }
+
+    /**
+     * Writes {@code value} in {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME} form, which
+     * always prints seconds and drops trailing zeros from the fraction. Years must be 0-9999.
+     */
+    static int formatTimestamp(LocalDateTime value, char[] buffer) {
+        return formatTimestamp(value.getYear(), value.getMonthValue(), value.getDayOfMonth(),
+                value.getHour(), value.getMinute(), value.getSecond(), value.getNano(), buffer);
+    }
+
+    /**
+     * Same as {@link #formatTimestamp(LocalDateTime, char[])}, from the individual fields.
+     */
+    public static int formatTimestamp(int year, int month, int day, int hour, int minute, int second, int nano,
+                                      char[] buffer) {
+        int pos = 0;
+        pos = writeDigits(buffer, pos, year, 4);
+        buffer[pos++] = '-';
+        pos = writeDigits(buffer, pos, month, 2);
+        buffer[pos++] = '-';
+        pos = writeDigits(buffer, pos, day, 2);
+        buffer[pos++] = 'T';
+        pos = writeDigits(buffer, pos, hour, 2);
+        buffer[pos++] = ':';
+        pos = writeDigits(buffer, pos, minute, 2);
+        buffer[pos++] = ':';
+        pos = writeDigits(buffer, pos, second, 2);
+        if (nano != 0) {
+            int width = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                width--;
+            }
+            buffer[pos++] = '.';
+            pos = writeDigits(buffer, pos, nano, width);
+        }
+        return pos;
+    }
+
+    private static int writeDigits(char[] buffer, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+}
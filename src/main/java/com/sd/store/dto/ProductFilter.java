@@ -0,0 +1,30 @@
+package com.sd.store.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ProductFilter(
+    String category,
+    String namePrefix,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    Integer minQuantity,
+    Integer maxQuantity,
+    LocalDateTime updatedSince
+) {
+
+    public ProductFilter {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (minQuantity != null && maxQuantity != null && minQuantity > maxQuantity) {
+            throw new IllegalArgumentException("minQuantity must not be greater than maxQuantity");
+        }
+        category = blankToNull(category);
+        namePrefix = blankToNull(namePrefix);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
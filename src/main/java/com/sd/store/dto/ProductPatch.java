@@ -0,0 +1,92 @@
+package com.sd.store.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of a JSON Merge Patch (RFC 7396) on a product. A {@code null} component was not in the
+ * patch and stays as it is; every product field is required, so a patch cannot remove one.
+ */
+public record ProductPatch(
+    String name,
+    String description,
+    BigDecimal price,
+    Integer quantity,
+    String category
+) {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private static final Map<String, Class<?>> WRITABLE_FIELDS = Map.of(
+            "name", String.class,
+            "description", String.class,
+            "price", BigDecimal.class,
+            "quantity", Integer.class,
+            "category", String.class);
+
+    private static final Set<String> READ_ONLY_FIELDS = Set.of("id", "stockStatus", "createdAt", "updatedAt");
+
+    /**
+     * Reads a merge patch document, checking each supplied field against the constraints it has on
+     * {@link ProductDTO}. Fields that are absent are not validated.
+     *
+     * @throws IllegalArgumentException if the document is not an object, names a field that cannot be
+     *         written, removes a field or has a value of the wrong type
+     * @throws ConstraintViolationException if a supplied value breaks a {@link ProductDTO} constraint
+     */
+    public static ProductPatch fromMergePatch(JsonNode document, ObjectMapper objectMapper, Validator validator) {
+        if (document == null || !document.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        Map<String, Object> values = new HashMap<>();
+        Set<ConstraintViolation<ProductDTO>> violations = new HashSet<>();
+        for (Map.Entry<String, JsonNode> field : document.properties()) {
+            String name = field.getKey();
+            Class<?> type = WRITABLE_FIELDS.get(name);
+            if (type == null) {
+                throw new IllegalArgumentException(READ_ONLY_FIELDS.contains(name)
+                        ? "Field '" + name + "' cannot be changed"
+                        : "Unknown product field '" + name + "'");
+            }
+            if (field.getValue().isNull()) {
+                throw new IllegalArgumentException("Field '" + name + "' is required and cannot be removed");
+            }
+            Object value = convert(name, field.getValue(), type, objectMapper);
+            violations.addAll(validator.validateValue(ProductDTO.class, name, value));
+            values.put(name, value);
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return new ProductPatch(
+                (String) values.get("name"),
+                (String) values.get("description"),
+                (BigDecimal) values.get("price"),
+                (Integer) values.get("quantity"),
+                (String) values.get("category"));
+    }
+
+    private static Object convert(String name, JsonNode value, Class<?> type, ObjectMapper objectMapper) {
+        boolean matches = type == String.class ? value.isTextual()
+                : type == Integer.class ? value.isIntegralNumber() && value.canConvertToInt()
+                : value.isNumber();
+        if (!matches) {
+            throw new IllegalArgumentException("Invalid value " + value + " for field '" + name + "'");
+        }
+        try {
+            return objectMapper.treeToValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid value " + value + " for field '" + name + "'", e);
+        }
+    }
+}
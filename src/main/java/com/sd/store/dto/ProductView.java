@@ -0,0 +1,11 @@
+package com.sd.store.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A product as returned by the read endpoints: either a {@link ProductDTO} or a catalog snapshot row
+ * that serializes to the same JSON, which is why the API documents it as a {@code ProductDTO}.
+ */
+@Schema(implementation = ProductDTO.class)
+public interface ProductView {
+}
@@ -0,0 +1,9 @@
+package com.sd.store.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record WebhookRequest(
+    @NotBlank(message = "Webhook URL is required")
+    String url
+) {
+}
@@ -0,0 +1,195 @@
+package com.sd.store.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd.store.exception.GlobalExceptionHandler.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-principal rate limiting and per-endpoint-class concurrency limits for {@code /api/**}.
+ * <p>
+ * Runs after authentication so buckets are keyed by username. A principal over its rate gets
+ * 429; a request that cannot get a concurrency slot within the queue budget gets 503. Both
+ * carry {@code Retry-After} so well-behaved clients back off instead of piling onto the tail.
+ * <p>
+ * Buckets that have refilled are dropped by a sweep once per refill window, so only principals seen
+ * within the window are kept. Beyond {@code maxTrackedPrincipals}, new principals share one overflow
+ * bucket per endpoint class, which keeps memory bounded when a client rotates addresses or usernames.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    public enum EndpointClass { STANDARD, EXPENSIVE }
+
+    public record Limits(double ratePerSecond, int burst, int maxConcurrent) {}
+
+    private final Map<EndpointClass, Limits> limits;
+    private final Map<EndpointClass, Semaphore> permits = new EnumMap<>(EndpointClass.class);
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int maxTrackedPrincipals;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweepNanos;
+    private final long queueBudgetNanos;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<EndpointClass, Timer> queueWaitTimers = new EnumMap<>(EndpointClass.class);
+
+    public AdmissionControlFilter(Map<EndpointClass, Limits> limits, Duration queueBudget, int maxTrackedPrincipals,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.limits = limits;
+        this.maxTrackedPrincipals = maxTrackedPrincipals;
+        // A bucket refills completely within burst / rate, so sweeping that often drops every idle one
+        this.sweepIntervalNanos = limits.values().stream()
+                .mapToLong(classLimits -> (long) Math.ceil(classLimits.burst() / classLimits.ratePerSecond() * 1e9))
+                .max()
+                .orElse(TimeUnit.SECONDS.toNanos(1));
+        this.nextSweepNanos = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+        this.queueBudgetNanos = queueBudget.toNanos();
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            Semaphore semaphore = new Semaphore(limits.get(endpointClass).maxConcurrent());
+            permits.put(endpointClass, semaphore);
+            String tag = endpointClass.name().toLowerCase();
+            meterRegistry.gauge("store.admission.in_flight", Tags.of("class", tag),
+                    semaphore, s -> limits.get(endpointClass).maxConcurrent() - s.availablePermits());
+            queueWaitTimers.put(endpointClass, Timer.builder("store.admission.queue.wait")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        // Long-lived SSE subscriptions would pin a concurrency slot for their whole lifetime
+        return !path.startsWith("/api/") || path.equals("/api/alerts/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        long now = System.nanoTime();
+
+        String principal = principal(request);
+        sweepFullBuckets(now);
+        String key = endpointClass + ":" + principal;
+        if (buckets.size() >= maxTrackedPrincipals && !buckets.containsKey(key)) {
+            key = endpointClass + ":overflow";
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(key, ignored -> {
+            Limits classLimits = limits.get(endpointClass);
+            return new TokenBucket(classLimits.ratePerSecond(), classLimits.burst(), now);
+        });
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            log.debug("Rate limit exceeded for {} on {} endpoint", principal, endpointClass);
+            reject(request, response, endpointClass, HttpStatus.TOO_MANY_REQUESTS, "rate_limited",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)),
+                    "Too many requests, retry later");
+            return;
+        }
+
+        Semaphore semaphore = permits.get(endpointClass);
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(queueBudgetNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        queueWaitTimers.get(endpointClass).record(System.nanoTime() - now, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            log.debug("Concurrency limit reached for {} endpoint", endpointClass);
+            reject(request, response, endpointClass, HttpStatus.SERVICE_UNAVAILABLE, "overloaded", 1,
+                    "Server is busy, retry later");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    int trackedBuckets() {
+        return buckets.size();
+    }
+
+    private void sweepFullBuckets(long now) {
+        long next = nextSweepNanos.get();
+        if (now - next < 0 || !nextSweepNanos.compareAndSet(next, now + sweepIntervalNanos)) {
+            return;
+        }
+        // A request racing the sweep may take a token from a bucket being dropped; the bucket was full,
+        // so that costs at most one extra token
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/summary")) {
+            return EndpointClass.EXPENSIVE;
+        }
+        // The unpaginated product list is expensive; ?status= is a paginated index scan
+        if ("GET".equals(request.getMethod()) && ("/api/products".equals(path) || "/api/products/".equals(path))
+                && request.getParameter("status") == null) {
+            return EndpointClass.EXPENSIVE;
+        }
+        return EndpointClass.STANDARD;
+    }
+
+    private static String principal(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, EndpointClass endpointClass,
+                        HttpStatus status, String reason, long retryAfterSeconds, String message) throws IOException {
+        Counter.builder("store.admission.rejected")
+                .tag("class", endpointClass.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                status.value(),
+                status.getReasonPhrase(),
+                message,
+                "uri=" + request.getRequestURI()
+        );
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
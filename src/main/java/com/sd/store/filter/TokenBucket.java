@@ -0,0 +1,41 @@
+package com.sd.store.filter;
+
+/**
+ * Classic token bucket refilled lazily on each acquire attempt.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.capacity = burst;
+        this.refillPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = burst;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 when a token was taken, otherwise the nanos until the next token is available
+     */
+    synchronized long tryAcquire(long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = nowNanos;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    /**
+     * Whether the bucket has refilled to capacity, at which point it is no different from a new one.
+     */
+    synchronized boolean isFull(long nowNanos) {
+        return tokens + (nowNanos - lastRefillNanos) * refillPerNano >= capacity;
+    }
+}
@@ -0,0 +1,59 @@
+package com.sd.store.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Command-line entry point for the synthetic catalog generator:
+ * {@code java -jar store.jar --spring.profiles.active=generate-catalog --store.generator.products=1000000}
+ */
+@Component
+@Profile("generate-catalog")
+@Order(100)
+public class CatalogGeneratorRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogGeneratorRunner.class);
+
+    private final DataSource dataSource;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${store.generator.products:1000000}")
+    private long products;
+
+    @Value("${store.generator.users:0}")
+    private int users;
+
+    @Value("${store.generator.seed:42}")
+    private long seed;
+
+    @Value("${store.generator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${store.generator.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    public CatalogGeneratorRunner(DataSource dataSource, ConfigurableApplicationContext context) {
+        this.dataSource = dataSource;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Generating synthetic catalog: {} products, {} users, seed {}", products, users, seed);
+        new SyntheticCatalogGenerator(dataSource)
+                .generate(new SyntheticCatalogGenerator.Spec(products, users, seed, batchSize));
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.sd.store.generator;
+
+import com.sd.store.model.StockStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Fills {@code products} (and optionally {@code users}) with large amounts of realistic-looking data.
+ * <p>
+ * Categories follow a Zipf distribution, prices are log-normal around a per-category median, and
+ * stock levels are skewed so a small share of the catalog is out of or low on stock. The same seed
+ * always produces the same rows. Rows are written with JDBC batches and periodic commits, bypassing
+ * JPA, so it can be used from tests and benchmarks as well as from the {@code generate-catalog} profile.
+ */
+public class SyntheticCatalogGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticCatalogGenerator.class);
+
+    private static final String[] CATEGORIES = {
+        "Electronics", "Books", "Clothing", "Home", "Food", "Toys", "Sports", "Beauty", "Garden", "Furniture",
+        "Automotive", "Office", "Pet Supplies", "Music", "Health", "Jewelry", "Tools", "Baby", "Shoes", "Games",
+        "Kitchen", "Lighting", "Outdoor", "Crafts", "Stationery", "Travel", "Watches", "Software", "Cameras", "Audio"
+    };
+
+    /** Median price per category, same order as {@link #CATEGORIES}. */
+    private static final double[] MEDIAN_PRICES = {
+        450, 25, 40, 60, 8, 30, 55, 20, 35, 380,
+        90, 15, 22, 18, 28, 240, 70, 35, 85, 55,
+        45, 65, 120, 14, 6, 95, 310, 75, 690, 160
+    };
+
+    private static final String[] ADJECTIVES = {
+        "Classic", "Premium", "Compact", "Ultra", "Eco", "Smart", "Deluxe", "Portable", "Pro", "Essential",
+        "Vintage", "Modern", "Heavy-Duty", "Lightweight", "Wireless", "Organic", "Advanced", "Mini", "Max", "Basic"
+    };
+
+    private static final String[] NOUNS = {
+        "Speaker", "Lamp", "Backpack", "Mug", "Chair", "Jacket", "Notebook", "Blender", "Drill", "Headphones",
+        "Bottle", "Camera", "Sneakers", "Watch", "Puzzle", "Tent", "Brush", "Keyboard", "Monitor", "Kettle"
+    };
+
+    private static final String[] DESCRIPTION_PHRASES = {
+        "Built to last with durable materials.", "A customer favourite for everyday use.",
+        "Designed for comfort and performance.", "Includes a two year warranty.",
+        "Ships in recyclable packaging.", "Great value for the price.",
+        "Available while stocks last.", "Tested for quality and safety."
+    };
+
+    private final DataSource dataSource;
+
+    public SyntheticCatalogGenerator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public record Spec(long products, int users, long seed, int batchSize) {
+
+        public Spec {
+            if (products < 0 || users < 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Invalid generator spec: " + products + " products, "
+                        + users + " users, batch size " + batchSize);
+            }
+        }
+    }
+
+    public record Result(long products, int users, long elapsedMillis) {}
+
+    public Result generate(Spec spec) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                SplittableRandom random = new SplittableRandom(spec.seed());
+                long offset = maxId(connection, "products");
+                insertProducts(connection, spec, random, offset);
+                if (spec.users() > 0) {
+                    insertUsers(connection, spec, maxId(connection, "users"));
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to generate synthetic catalog", e);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} products and {} users in {} ms", spec.products(), spec.users(), elapsedMillis);
+        return new Result(spec.products(), spec.users(), elapsedMillis);
+    }
+
+    private void insertProducts(Connection connection, Spec spec, SplittableRandom random, long offset) throws SQLException {
+        double[] zipf = zipfCumulative(CATEGORIES.length, 1.1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO products (name, description, price, quantity, category, sku, stock_status, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (long i = 1; i <= spec.products(); i++) {
+                long sequence = offset + i;
+                int category = sample(zipf, random.nextDouble());
+                Timestamp updatedAt = new Timestamp(now.getTime() - random.nextLong(365L * 24 * 3600 * 1000));
+
+                statement.setString(1, name(random, sequence));
+                statement.setString(2, description(random));
+                int quantity = quantity(random);
+                statement.setBigDecimal(3, price(random, MEDIAN_PRICES[category]));
+                statement.setInt(4, quantity);
+                statement.setString(5, CATEGORIES[category]);
+                statement.setString(6, String.format("SD-%010d", sequence));
+                statement.setString(7, StockStatus.fromQuantity(quantity).name());
+                statement.setTimestamp(8, updatedAt);
+                statement.setTimestamp(9, updatedAt);
+                statement.addBatch();
+
+                if (i % spec.batchSize() == 0) {
+                    statement.executeBatch();
+                    connection.commit();
+                    if (i % (spec.batchSize() * 100L) == 0) {
+                        log.info("Generated {} of {} products", i, spec.products());
+                    }
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Users all share one BCrypt hash of {@code password}, so generating them costs a single hash.
+     */
+    private void insertUsers(Connection connection, Spec spec, long offset) throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder().encode("password");
+        long roleId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM roles WHERE name = 'ROLE_USER'")) {
+            if (!rs.next()) {
+                throw new IllegalStateException("ROLE_USER is missing, run the migrations first");
+            }
+            roleId = rs.getLong(1);
+        }
+
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO users (username, email, password, enabled) VALUES (?, ?, ?, TRUE)",
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement userRoles = connection.prepareStatement(
+                "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)")) {
+            for (int i = 1; i <= spec.users(); i++) {
+                long sequence = offset + i;
+                users.setString(1, "user" + sequence);
+                users.setString(2, "user" + sequence + "@generated.store.com");
+                users.setString(3, passwordHash);
+                users.addBatch();
+                if (i % spec.batchSize() == 0 || i == spec.users()) {
+                    users.executeBatch();
+                    try (ResultSet keys = users.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            userRoles.setLong(1, keys.getLong(1));
+                            userRoles.setLong(2, roleId);
+                            userRoles.addBatch();
+                        }
+                    }
+                    userRoles.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String name(SplittableRandom random, long sequence) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + sequence;
+    }
+
+    private static String description(SplittableRandom random) {
+        return DESCRIPTION_PHRASES[random.nextInt(DESCRIPTION_PHRASES.length)] + " "
+                + DESCRIPTION_PHRASES[random.nextInt(DESCRIPTION_PHRASES.length)];
+    }
+
+    /**
+     * Log-normal around the category median, clamped to the range accepted by {@code ProductDTO}
+     * and ending in .99 for most items, like real shelf prices.
+     */
+    private static BigDecimal price(SplittableRandom random, double median) {
+        double gaussian = gaussian(random);
+        double raw = median * Math.exp(0.6 * gaussian);
+        long cents = Math.max(1, Math.min(99_999_999L, Math.round(raw * 100)));
+        if (cents > 100 && random.nextInt(10) < 7) {
+            cents = cents / 100 * 100 - 1;
+        }
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * About 4% out of stock, 8% critical or low, a long tail of overstock, and the rest in stock.
+     */
+    private static int quantity(SplittableRandom random) {
+        int bucket = random.nextInt(100);
+        if (bucket < 4) {
+            return 0;
+        }
+        if (bucket < 12) {
+            return 1 + random.nextInt(9);
+        }
+        if (bucket < 92) {
+            return 10 + (int) Math.min(40, -Math.log(1 - random.nextDouble()) * 15);
+        }
+        return 51 + (int) Math.min(5000, -Math.log(1 - random.nextDouble()) * 200);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static double[] zipfCumulative(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double u) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
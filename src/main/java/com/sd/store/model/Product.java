@@ -1,11 +1,17 @@
 package com.sd.store.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// UPDATEs list only the columns that changed, so a stock change does not rewrite the description
+@DynamicUpdate
+@Table(name = "products", uniqueConstraints = @UniqueConstraint(name = "uk_products_name", columnNames = "name"))
 public class Product {
     
     @Id
@@ -25,6 +31,11 @@ public class Product {
     
     private String category;
     
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "stock_status", nullable = false, length = 20)
+    private StockStatus stockStatus;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -39,10 +50,26 @@ public class Product {
         this.price = price;
         this.quantity = quantity;
         this.category = category;
+        this.stockStatus = quantity != null ? StockStatus.fromQuantity(quantity) : null;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
     
+    /**
+     * Detached copy of {@code other}, with the same id and timestamps.
+     */
+    public Product(Product other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.description = other.description;
+        this.price = other.price;
+        this.quantity = other.quantity;
+        this.category = other.category;
+        this.stockStatus = other.stockStatus;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -81,6 +108,7 @@ public class Product {
     
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
+        this.stockStatus = quantity != null ? StockStatus.fromQuantity(quantity) : null;
     }
     
     public String getCategory() {
@@ -91,6 +119,10 @@ public class Product {
         this.category = category;
     }
     
+    public StockStatus getStockStatus() {
+        return stockStatus;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,23 @@
+package com.sd.store.model;
+
+public enum StockStatus {
+    
+    OUT_OF_STOCK,
+    CRITICAL_STOCK,
+    LOW_STOCK,
+    IN_STOCK,
+    OVERSTOCKED;
+    
+    public static StockStatus fromQuantity(int quantity) {
+        if (quantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        if (quantity < 5) {
+            return CRITICAL_STOCK;
+        }
+        if (quantity < 10) {
+            return LOW_STOCK;
+        }
+        return quantity > 50 ? OVERSTOCKED : IN_STOCK;
+    }
+}
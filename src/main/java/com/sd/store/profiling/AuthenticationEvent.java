@@ -0,0 +1,22 @@
+package com.sd.store.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.sd.store.Authentication")
+@Label("Authentication")
+@Category({"Store", "Security"})
+@Description("A username and password check: the user lookup and the password hash comparison")
+@StackTrace(false)
+class AuthenticationEvent extends Event {
+
+    @Label("Username")
+    String username;
+
+    @Label("Authenticated")
+    boolean authenticated;
+}
@@ -0,0 +1,140 @@
+package com.sd.store.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * {@code /actuator/jfr}: starts a time-bounded JDK Flight Recorder recording, reports on it and hands
+ * out the {@code .jfr} file.
+ * <ul>
+ *   <li>{@code POST} with optional {@code duration} (default {@code default-duration}, at most
+ *       {@code max-duration}) and {@code settings} ({@code default} or {@code profile})</li>
+ *   <li>{@code GET} returns the state of the latest recording</li>
+ *   <li>{@code DELETE} stops it if still running and returns the file</li>
+ * </ul>
+ * One recording runs at a time. Its file is kept until the next recording starts.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private Recording recording;
+    private String settings;
+    private Path file;
+
+    public JfrRecordingEndpoint(@Value("${store.profiling.jfr.default-duration:60s}") Duration defaultDuration,
+                                @Value("${store.profiling.jfr.max-duration:10m}") Duration maxDuration) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+    }
+
+    @ReadOperation
+    public synchronized RecordingStatus status() {
+        return recording == null ? RecordingStatus.NONE : statusOf(recording);
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> start(@Nullable Duration duration, @Nullable String settings)
+            throws IOException {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        Duration length = duration != null ? duration : defaultDuration;
+        String settingsName = settings != null ? settings : "profile";
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0 || !SETTINGS.contains(settingsName)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(statusOf(recording), 409);
+        }
+        discard();
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settingsName);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JFR settings '" + settingsName + "' cannot be read", e);
+        }
+        Path destination = Files.createTempFile("store-", ".jfr");
+        Recording started = new Recording(configuration);
+        started.setName("store-on-demand");
+        started.setToDisk(true);
+        started.setDuration(length);
+        started.setDestination(destination);
+        started.start();
+        this.recording = started;
+        this.settings = settingsName;
+        this.file = destination;
+        logger.info("Started JFR recording with '{}' settings for {}", settingsName, length);
+        return new WebEndpointResponse<>(statusOf(started));
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Resource> stop() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        // Stopping writes the destination file; a recording that ran its full duration has done so already
+        if (recording.getState() == RecordingState.RUNNING) {
+            try {
+                recording.stop();
+                logger.info("Stopped JFR recording after {}", Duration.between(recording.getStartTime(), Instant.now()));
+            } catch (IllegalStateException e) {
+                logger.debug("JFR recording ended on its own before it was stopped");
+            }
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file));
+    }
+
+    @PreDestroy
+    public synchronized void discard() throws IOException {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            Files.deleteIfExists(file);
+            file = null;
+        }
+    }
+
+    private RecordingStatus statusOf(Recording current) {
+        return new RecordingStatus(current.getState().name(), settings, current.getStartTime(),
+                current.getDuration(), current.getStopTime());
+    }
+
+    public record RecordingStatus(String state, String settings, Instant startTime, Duration duration,
+                                  Instant stopTime) {
+
+        static final RecordingStatus NONE = new RecordingStatus("NONE", null, null, null, null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sd.store.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.sd.store.ProductService")
+@Label("Product Service Call")
+@Category({"Store", "Service"})
+@Description("A ProductServiceImpl method, including its transaction")
+@StackTrace(false)
+class ProductServiceEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Product Id")
+    @Description("Id of the product the call is about, 0 if it is not about one product")
+    long productId;
+
+    @Label("Rows")
+    @Description("Products returned")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
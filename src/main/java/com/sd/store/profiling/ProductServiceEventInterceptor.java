@@ -0,0 +1,35 @@
+package com.sd.store.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Emits a {@link ProductServiceEvent} per product service call while a recording has the event enabled.
+ */
+class ProductServiceEventInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ProductServiceEvent event = new ProductServiceEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = invocation.getMethod().getName();
+                event.productId = ProfilingEvents.productId(invocation.getArguments(), result);
+                event.rows = ProfilingEvents.rows(result);
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.sd.store.profiling;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Emits an {@link AuthenticationEvent} around each authentication of the wrapped provider, so the
+ * password hash cost shows up next to the request it delays.
+ */
+public class ProfiledAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    public ProfiledAuthenticationProvider(AuthenticationProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        AuthenticationEvent event = new AuthenticationEvent();
+        if (!event.isEnabled()) {
+            return delegate.authenticate(authentication);
+        }
+        event.begin();
+        Authentication result = null;
+        try {
+            result = delegate.authenticate(authentication);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = authentication.getName();
+                event.authenticated = result != null && result.isAuthenticated();
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sd.store.profiling;
+
+import com.sd.store.service.impl.ProductServiceImpl;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Hooks the custom JFR events into the product service, the repositories and the JSON message converter.
+ * The events cost a flag check per call unless a recording enables them, e.g. one started through
+ * {@link JfrRecordingEndpoint}.
+ */
+@Configuration
+public class ProfilingConfig {
+
+    @Bean
+    public static BeanPostProcessor jfrEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Both are already proxies, so the interceptor joins the front of their chain and
+                // callers that inject the concrete class keep working
+                if (!(bean instanceof Advised advised) || advised.isFrozen()) {
+                    return bean;
+                }
+                if (bean instanceof ProductServiceImpl) {
+                    advised.addAdvice(0, new ProductServiceEventInterceptor());
+                } else if (bean instanceof Repository<?, ?>) {
+                    Class<?>[] interfaces = advised.getProxiedInterfaces();
+                    String repository = interfaces.length > 0 ? interfaces[0].getSimpleName()
+                            : AopUtils.getTargetClass(bean).getSimpleName();
+                    advised.addAdvice(0, new RepositoryCallEventInterceptor(repository));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer profiledMessageConverters() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                        ? new ProfiledJacksonHttpMessageConverter(((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                        : converter);
+            }
+        };
+    }
+}
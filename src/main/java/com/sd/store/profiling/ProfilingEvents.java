@@ -0,0 +1,58 @@
+package com.sd.store.profiling;
+
+import com.sd.store.model.Product;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Field values shared by the profiling events.
+ */
+final class ProfilingEvents {
+
+    private ProfilingEvents() {
+    }
+
+    /**
+     * Elements in a returned collection, page or optional; 1 for any other value and 0 for none.
+     */
+    static int rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return 1;
+    }
+
+    /**
+     * The id a call is about: its first {@code Long} argument, or the id of a product passed in or
+     * returned. 0 when there is none.
+     */
+    static long productId(Object[] args, Object result) {
+        for (Object arg : args) {
+            if (arg instanceof Long id) {
+                return id;
+            }
+        }
+        for (Object arg : args) {
+            if (arg instanceof Product product && product.getId() != null) {
+                return product.getId();
+            }
+        }
+        Object value = result instanceof Optional<?> optional ? optional.orElse(null) : result;
+        return value instanceof Product product && product.getId() != null ? product.getId() : 0;
+    }
+}
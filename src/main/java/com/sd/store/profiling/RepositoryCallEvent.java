@@ -0,0 +1,33 @@
+package com.sd.store.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.sd.store.RepositoryCall")
+@Label("Repository Call")
+@Category({"Store", "Repository"})
+@Description("A Spring Data repository method, including the queries and flushes it triggers")
+@StackTrace(false)
+class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Entity Id")
+    @Description("Id the call looked up or saved, 0 if it is not about one entity")
+    long entityId;
+
+    @Label("Rows")
+    @Description("Entities returned, or 1 for a count or existence check")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,42 @@
+package com.sd.store.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Emits a {@link RepositoryCallEvent} per repository call while a recording has the event enabled.
+ */
+class RepositoryCallEventInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    RepositoryCallEventInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.entityId = ProfilingEvents.productId(invocation.getArguments(), result);
+                event.rows = ProfilingEvents.rows(result);
+                event.commit();
+            }
+        }
+    }
+}
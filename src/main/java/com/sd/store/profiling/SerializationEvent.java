@@ -0,0 +1,28 @@
+package com.sd.store.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.sd.store.Serialization")
+@Label("JSON Serialization")
+@Category({"Store", "Web"})
+@Description("Writing a response body as JSON, including the writes to the client")
+@StackTrace(false)
+class SerializationEvent extends Event {
+
+    @Label("Value Type")
+    String valueType;
+
+    @Label("Rows")
+    @Description("Elements of a list or page, 1 for a single value")
+    int rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -1,18 +1,23 @@
 package com.sd.store.repository;
 
 import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     
     Optional<Product> findByName(String name);
     
@@ -20,6 +25,24 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
     
+    // Archived products keep their names, so they count as existing
+    @Query(value = "SELECT name FROM products UNION ALL SELECT name FROM products_archive", nativeQuery = true)
+    Stream<String> streamAllNames();
+    
+    @Query(value = "SELECT name FROM products WHERE name IN (:names) "
+            + "UNION SELECT name FROM products_archive WHERE name IN (:names)", nativeQuery = true)
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+    
+    Page<Product> findByStockStatus(StockStatus stockStatus, Pageable pageable);
+    
+    @Query("SELECT p.stockStatus AS status, COUNT(p) AS count FROM Product p GROUP BY p.stockStatus")
+    List<StockStatusCount> countByStockStatus();
+    
+    interface StockStatusCount {
+        StockStatus getStatus();
+        long getCount();
+    }
+    
     @Query("SELECT COUNT(p) FROM Product p WHERE p.quantity < :threshold")
     long countByQuantityLessThan(@Param("threshold") Integer threshold);
     
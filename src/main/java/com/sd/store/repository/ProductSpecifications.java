@@ -0,0 +1,54 @@
+package com.sd.store.repository;
+
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.model.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds product filter predicates in shapes the indexes from V5 can serve: equality on
+ * {@code category} first, then plain ranges, and a case-sensitive prefix {@code LIKE} on name.
+ * Absent filter fields add no predicate at all rather than an always-true one.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.category() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.category()));
+            }
+            if (filter.minPrice() != null && filter.maxPrice() != null) {
+                predicates.add(cb.between(root.get("price"), filter.minPrice(), filter.maxPrice()));
+            } else if (filter.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+            } else if (filter.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+            }
+            if (filter.minQuantity() != null && filter.maxQuantity() != null) {
+                predicates.add(cb.between(root.get("quantity"), filter.minQuantity(), filter.maxQuantity()));
+            } else if (filter.minQuantity() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("quantity"), filter.minQuantity()));
+            } else if (filter.maxQuantity() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("quantity"), filter.maxQuantity()));
+            }
+            if (filter.updatedSince() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("updatedAt"), filter.updatedSince()));
+            }
+            if (filter.namePrefix() != null) {
+                predicates.add(cb.like(root.get("name"), escapeLike(filter.namePrefix()) + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,21 @@
+package com.sd.store.service;
+
+import com.sd.store.dto.PricePointDTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public interface PriceHistoryService {
+    
+    void recordPrice(Long productId, BigDecimal price);
+    
+    void recordDeletion(Long productId);
+    
+    List<PricePointDTO> findPriceSeries(Long productId, Instant from, Instant to);
+    
+    List<PricePointDTO> findCatalogPricesAsOf(Instant asOf);
+    
+    void flush();
+    
+}
@@ -0,0 +1,16 @@
+package com.sd.store.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the product service whenever a product is created, updated, repriced or deleted,
+ * carrying the values it was saved with. All but {@code productId} are {@code null} for deleted products.
+ */
+public record ProductChangedEvent(
+    Long productId,
+    String name,
+    String category,
+    BigDecimal price,
+    Integer quantity
+) {
+}
@@ -1,11 +1,16 @@
 package com.sd.store.service;
 
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.dto.ProductPatch;
 import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductService {
@@ -24,8 +29,16 @@ public interface ProductService {
     
     Page<Product> searchProductsByNamePaginated(String name, Pageable pageable);
     
+    Page<ProductDTO> filterProducts(ProductFilter filter, Pageable pageable);
+    
+    Page<ProductDTO> findProductsByStockStatus(StockStatus status, Pageable pageable);
+    
+    Map<StockStatus, Long> countProductsByStockStatus();
+    
     Product updateProduct(Long id, Product product);
     
+    Product patchProduct(Long id, ProductPatch patch);
+    
     Product changePrice(Long id, BigDecimal newPrice);
     
     void deleteProduct(Long id);
@@ -0,0 +1,283 @@
+package com.sd.store.service.impl;
+
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.dto.ProductPatch;
+import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
+import com.sd.store.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for product writes: mutations from concurrent callers are queued and a single
+ * committer thread applies up to {@code max-batch-size} of them, collected for at most
+ * {@code max-delay}, in one transaction. Each caller blocks until its batch has committed.
+ * <p>
+ * A failing mutation rolls back its whole batch; the batch is then replayed one transaction per
+ * mutation, so every caller gets exactly the result or exception it would have got on its own.
+ * Side effects of {@link ProductServiceImpl} writes all run after commit, so a rolled back
+ * attempt leaves nothing behind. Calls made inside an existing transaction, when the queue is
+ * full or when the committer thread is gone, run directly on the calling thread. A caller waits at
+ * most {@code commit-timeout}; a mutation the committer has not picked up by then is taken back and
+ * run directly as well.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "store.write-pipeline.enabled", havingValue = "true")
+public class GroupCommitProductService implements ProductService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitProductService.class);
+
+    private final ProductServiceImpl delegate;
+    private final TransactionTemplate batchTransaction;
+    private final BlockingQueue<Mutation<?>> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Duration commitTimeout;
+    private final DistributionSummary batchSizes;
+    private final Counter fallbacks;
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    public GroupCommitProductService(ProductServiceImpl delegate, PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${store.write-pipeline.max-batch-size:64}") int maxBatchSize,
+                                     @Value("${store.write-pipeline.max-delay:2ms}") Duration maxDelay,
+                                     @Value("${store.write-pipeline.queue-capacity:4096}") int queueCapacity,
+                                     @Value("${store.write-pipeline.commit-timeout:30s}") Duration commitTimeout) {
+        this.delegate = delegate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.commitTimeout = commitTimeout;
+        this.batchSizes = DistributionSummary.builder("store.write.batch.size")
+                .description("Product mutations committed per transaction")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("store.write.batch.fallbacks")
+                .description("Batches rolled back and replayed one mutation per transaction")
+                .register(meterRegistry);
+        this.committer = new Thread(this::runCommitter, "product-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    @Override
+    public Product addProduct(Product product) {
+        // A failed attempt leaves the generated id on the entity, so every attempt saves a fresh copy
+        String name = product.getName();
+        String description = product.getDescription();
+        BigDecimal price = product.getPrice();
+        Integer quantity = product.getQuantity();
+        String category = product.getCategory();
+        return submit(() -> delegate.addProduct(new Product(name, description, price, quantity, category)));
+    }
+
+    @Override
+    public Product updateProduct(Long id, Product product) {
+        return submit(() -> delegate.updateProduct(id, product));
+    }
+
+    @Override
+    public Product patchProduct(Long id, ProductPatch patch) {
+        return submit(() -> delegate.patchProduct(id, patch));
+    }
+
+    @Override
+    public Product changePrice(Long id, BigDecimal newPrice) {
+        return submit(() -> delegate.changePrice(id, newPrice));
+    }
+
+    @Override
+    public void deleteProduct(Long id) {
+        submit(() -> {
+            delegate.deleteProduct(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Product> findProductById(Long id) {
+        return delegate.findProductById(id);
+    }
+
+    @Override
+    public Optional<Product> findProductByName(String name) {
+        return delegate.findProductByName(name);
+    }
+
+    @Override
+    public List<Product> findAllProducts() {
+        return delegate.findAllProducts();
+    }
+
+    @Override
+    public Page<Product> findAllProductsPaginated(Pageable pageable) {
+        return delegate.findAllProductsPaginated(pageable);
+    }
+
+    @Override
+    public List<Product> searchProductsByName(String name) {
+        return delegate.searchProductsByName(name);
+    }
+
+    @Override
+    public Page<Product> searchProductsByNamePaginated(String name, Pageable pageable) {
+        return delegate.searchProductsByNamePaginated(name, pageable);
+    }
+
+    @Override
+    public Page<ProductDTO> filterProducts(ProductFilter filter, Pageable pageable) {
+        return delegate.filterProducts(filter, pageable);
+    }
+
+    @Override
+    public Page<ProductDTO> findProductsByStockStatus(StockStatus status, Pageable pageable) {
+        return delegate.findProductsByStockStatus(status, pageable);
+    }
+
+    @Override
+    public Map<StockStatus, Long> countProductsByStockStatus() {
+        return delegate.countProductsByStockStatus();
+    }
+
+    private <T> T submit(Supplier<T> work) {
+        // Joining a batch would take the caller's own transaction out of its control
+        if (!running || !committer.isAlive() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        Mutation<T> mutation = new Mutation<>(work, new CompletableFuture<>());
+        if (!queue.offer(mutation)) {
+            return work.get();
+        }
+        try {
+            return mutation.result().orTimeout(commitTimeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // Still queued means it never ran; otherwise the committer has it and its outcome is unknown
+                if (queue.remove(mutation)) {
+                    return work.get();
+                }
+                throw new TransactionTimedOutException("Product write did not commit within " + commitTimeout);
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    private void runCommitter() {
+        List<Mutation<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Mutation<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    Mutation<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                running = false;
+                batch.forEach(Mutation::runAlone);
+            } catch (Throwable e) {
+                logger.error("Group commit of {} product mutations failed", batch.size(), e);
+                batch.forEach(mutation -> mutation.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        // A caller may have queued a mutation just as the loop stopped
+        Mutation<?> straggler;
+        while ((straggler = queue.poll()) != null) {
+            straggler.runAlone();
+        }
+    }
+
+    void commit(List<Mutation<?>> batch) {
+        if (batch.size() == 1) {
+            batchSizes.record(1);
+            batch.getFirst().runAlone();
+            return;
+        }
+        List<Object> results;
+        try {
+            results = batchTransaction.execute(status -> {
+                List<Object> applied = new ArrayList<>(batch.size());
+                for (Mutation<?> mutation : batch) {
+                    applied.add(mutation.work().get());
+                }
+                return applied;
+            });
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            logger.debug("Batch of {} product mutations rolled back ({}), replaying one by one", batch.size(), e.toString());
+            batch.forEach(Mutation::runAlone);
+            return;
+        }
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Let the committer drain what is already queued
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    record Mutation<T>(Supplier<T> work, CompletableFuture<T> result) {
+
+        @SuppressWarnings("unchecked")
+        void complete(Object value) {
+            result.complete((T) value);
+        }
+
+        void runAlone() {
+            try {
+                result.complete(work.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
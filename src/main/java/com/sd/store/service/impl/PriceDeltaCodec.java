@@ -0,0 +1,74 @@
+package com.sd.store.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Encodes a time-ordered series of (epoch millis, price in cents) points as zigzag varint deltas.
+ * <p>
+ * The first point is stored relative to zero, every following point relative to its predecessor,
+ * so a typical price change costs three to five bytes instead of a full row.
+ */
+final class PriceDeltaCodec {
+
+    private PriceDeltaCodec() {
+    }
+
+    static byte[] encode(long[] timestamps, long[] cents, int count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 6);
+        long previousTimestamp = 0;
+        long previousCents = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarLong(out, zigzag(timestamps[i] - previousTimestamp));
+            writeVarLong(out, zigzag(cents[i] - previousCents));
+            previousTimestamp = timestamps[i];
+            previousCents = cents[i];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes {@code count} points, passing each (timestamp, cents) pair to {@code visitor}.
+     * Decoding stops early when the visitor returns a negative value.
+     */
+    static void decode(byte[] data, int count, LongBinaryOperator visitor) {
+        int[] position = {0};
+        long timestamp = 0;
+        long cents = 0;
+        for (int i = 0; i < count; i++) {
+            timestamp += unzigzag(readVarLong(data, position));
+            cents += unzigzag(readVarLong(data, position));
+            if (visitor.applyAsLong(timestamp, cents) < 0) {
+                return;
+            }
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,241 @@
+package com.sd.store.service.impl;
+
+import com.sd.store.dto.PricePointDTO;
+import com.sd.store.service.PriceHistoryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Append-only price history kept in {@code price_history_blocks}.
+ * <p>
+ * Price changes are queued after their transaction commits and written by a scheduled flush,
+ * one delta-encoded block per product per flush, so the request path never touches the history
+ * table. Points still in the queue are not visible to queries until the next flush; a flush that
+ * fails puts its points back for the next one.
+ * <p>
+ * Products that have no history yet, such as the ones that existed before it or were inserted by the
+ * seeders, get a baseline point at their creation time when the application starts. Deleting a
+ * product appends a tombstone, so catalog prices as of a later instant leave it out.
+ */
+@Service
+public class PriceHistoryServiceImpl implements PriceHistoryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryServiceImpl.class);
+    
+    // Prices are at least one cent, so a negative amount cannot be a real price
+    private static final long DELETED_CENTS = -1;
+    
+    private static final String INSERT_BLOCK =
+            "INSERT INTO price_history_blocks (product_id, first_ts, last_ts, entry_count, data) VALUES (?, ?, ?, ?, ?)";
+    
+    private static final int BASELINE_BATCH_SIZE = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final BlockingQueue<PendingPoint> pending = new LinkedBlockingQueue<>();
+    
+    private final int maxPointsPerBlock;
+    
+    public PriceHistoryServiceImpl(JdbcTemplate jdbcTemplate,
+                                   @Value("${store.price-history.max-points-per-block:1000}") int maxPointsPerBlock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPointsPerBlock = maxPointsPerBlock;
+    }
+    
+    @Override
+    public void recordPrice(Long productId, BigDecimal price) {
+        enqueueAfterCommit(new PendingPoint(productId, System.currentTimeMillis(), toCents(price)));
+    }
+    
+    @Override
+    public void recordDeletion(Long productId) {
+        enqueueAfterCommit(new PendingPoint(productId, System.currentTimeMillis(), DELETED_CENTS));
+    }
+    
+    private void enqueueAfterCommit(PendingPoint point) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(point);
+                }
+            });
+        } else {
+            pending.add(point);
+        }
+    }
+    
+    @Override
+    @Scheduled(fixedDelayString = "${store.price-history.flush-interval:1s}")
+    @Transactional
+    public void flush() {
+        List<PendingPoint> batch = new ArrayList<>();
+        pending.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, List<PendingPoint>> byProduct = new LinkedHashMap<>();
+        for (PendingPoint point : batch) {
+            byProduct.computeIfAbsent(point.productId(), id -> new ArrayList<>()).add(point);
+        }
+        
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, List<PendingPoint>> entry : byProduct.entrySet()) {
+            List<PendingPoint> points = entry.getValue();
+            points.sort((a, b) -> Long.compare(a.timestamp(), b.timestamp()));
+            for (int start = 0; start < points.size(); start += maxPointsPerBlock) {
+                rows.add(toBlockRow(entry.getKey(), points.subList(start, Math.min(points.size(), start + maxPointsPerBlock))));
+            }
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(INSERT_BLOCK, rows);
+        } catch (RuntimeException e) {
+            // The next flush drains these together with newer points, so blocks of a product never overlap
+            pending.addAll(batch);
+            logger.warn("Price history flush of {} points failed, retrying with the next flush", batch.size());
+            throw e;
+        }
+        logger.debug("Flushed {} price points in {} blocks", batch.size(), rows.size());
+    }
+    
+    /**
+     * Records the current price of every product, hot or archived, that has no history, stamped with
+     * its creation time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recordBaselinePrices() {
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        int[] total = {0};
+        jdbcTemplate.query(
+                "SELECT id, price, created_at FROM products p WHERE NOT EXISTS " +
+                "(SELECT 1 FROM price_history_blocks b WHERE b.product_id = p.id) " +
+                "UNION ALL SELECT id, price, created_at FROM products_archive a WHERE NOT EXISTS " +
+                "(SELECT 1 FROM price_history_blocks b WHERE b.product_id = a.id)",
+                rs -> {
+                    long productId = rs.getLong("id");
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    long timestamp = createdAt != null ? createdAt.getTime() : now;
+                    rows.add(toBlockRow(productId,
+                            List.of(new PendingPoint(productId, timestamp, toCents(rs.getBigDecimal("price"))))));
+                    if (rows.size() == BASELINE_BATCH_SIZE) {
+                        jdbcTemplate.batchUpdate(INSERT_BLOCK, rows);
+                        total[0] += rows.size();
+                        rows.clear();
+                    }
+                });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BLOCK, rows);
+            total[0] += rows.size();
+        }
+        if (total[0] > 0) {
+            logger.info("Recorded baseline prices for {} products without price history", total[0]);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<PricePointDTO> findPriceSeries(Long productId, Instant from, Instant to) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        List<PricePointDTO> series = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT entry_count, data FROM price_history_blocks " +
+                "WHERE product_id = ? AND first_ts <= ? AND last_ts >= ? ORDER BY first_ts, id",
+                rs -> {
+                    PriceDeltaCodec.decode(rs.getBytes("data"), rs.getInt("entry_count"), (timestamp, cents) -> {
+                        if (timestamp > toMillis) {
+                            return -1;
+                        }
+                        if (timestamp >= fromMillis && cents != DELETED_CENTS) {
+                            series.add(toPoint(productId, timestamp, cents));
+                        }
+                        return 0;
+                    });
+                },
+                productId, toMillis, fromMillis);
+        return series;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<PricePointDTO> findCatalogPricesAsOf(Instant asOf) {
+        long asOfMillis = asOf.toEpochMilli();
+        List<PricePointDTO> prices = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT b.product_id, b.entry_count, b.data FROM price_history_blocks b " +
+                "WHERE b.id = (SELECT MAX(l.id) FROM price_history_blocks l WHERE l.product_id = b.product_id " +
+                "AND l.first_ts = (SELECT MAX(f.first_ts) FROM price_history_blocks f " +
+                "WHERE f.product_id = b.product_id AND f.first_ts <= ?)) ORDER BY b.product_id",
+                rs -> {
+                    long productId = rs.getLong("product_id");
+                    long[] latest = {-1, 0};
+                    PriceDeltaCodec.decode(rs.getBytes("data"), rs.getInt("entry_count"), (timestamp, cents) -> {
+                        if (timestamp > asOfMillis) {
+                            return -1;
+                        }
+                        latest[0] = timestamp;
+                        latest[1] = cents;
+                        return 0;
+                    });
+                    if (latest[1] != DELETED_CENTS) {
+                        prices.add(toPoint(productId, latest[0], latest[1]));
+                    }
+                },
+                asOfMillis);
+        return prices;
+    }
+    
+    private Object[] toBlockRow(Long productId, List<PendingPoint> points) {
+        int count = points.size();
+        long[] timestamps = new long[count];
+        long[] cents = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = points.get(i).timestamp();
+            cents[i] = points.get(i).cents();
+        }
+        return new Object[] {
+                productId, timestamps[0], timestamps[count - 1], count, PriceDeltaCodec.encode(timestamps, cents, count)
+        };
+    }
+    
+    private static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    private static PricePointDTO toPoint(Long productId, long timestamp, long cents) {
+        return new PricePointDTO(productId, Instant.ofEpochMilli(timestamp), BigDecimal.valueOf(cents, 2));
+    }
+    
+    private record PendingPoint(Long productId, long timestamp, long cents) {
+    }
+}
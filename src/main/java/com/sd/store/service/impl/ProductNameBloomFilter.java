@@ -0,0 +1,118 @@
+package com.sd.store.service.impl;
+
+import com.sd.store.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over normalized product names.
+ * <p>
+ * A negative answer means no product, hot or archived, with that name exists, so {@code addProduct}
+ * can skip the existence query. A positive answer may be false and falls back to the query. Names
+ * inserted elsewhere (other instances, direct SQL) are not seen here, which is why the unique
+ * constraint on {@code products.name} stays the source of truth. Until loaded the filter answers "maybe".
+ */
+@Component
+public class ProductNameBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameBloomFilter.class);
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+    private volatile boolean loaded;
+
+    private final ProductRepository productRepository;
+
+    public ProductNameBloomFilter(
+            ProductRepository productRepository,
+            @Value("${store.product-name-filter.expected-names:2000000}") int expectedNames,
+            @Value("${store.product-name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.productRepository = productRepository;
+        long optimalBits = (long) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, optimalBits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedNames * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        AtomicLong count = new AtomicLong();
+        try (Stream<String> names = productRepository.streamAllNames()) {
+            names.forEach(name -> {
+                add(name);
+                count.incrementAndGet();
+            });
+        }
+        loaded = true;
+        logger.info("Product name filter loaded with {} names ({} bits, {} hashes)", count.get(), bitCount, hashCount);
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean mightContain(String name) {
+        if (!loaded) {
+            return true;
+        }
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String name) {
+        long hash = hash(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 64-bit FNV-1a over the normalized UTF-8 bytes, finished with a murmur3 mix.
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : normalize(name).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,95 @@
+package com.sd.store.service.impl;
+
+import com.sd.store.cache.CacheInvalidationListener;
+import com.sd.store.cache.EntityKey;
+import com.sd.store.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Small LRU cache for results of repeated product queries.
+ * <p>
+ * Every product write bumps a generation counter once its transaction commits, which makes all
+ * earlier entries stale at once, and so does a product change announced by another instance.
+ * Writes that bypass {@code ProductServiceImpl} are only picked up when entries expire after
+ * {@code store.product-query-cache.ttl}.
+ */
+@Component
+public class ProductQueryCache implements CacheInvalidationListener {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Object, Entry> entries;
+
+    public ProductQueryCache(@Value("${store.product-query-cache.max-entries:512}") int maxEntries,
+                             @Value("${store.product-query-cache.ttl:30s}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > ProductQueryCache.this.maxEntries;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> loader) {
+        long currentGeneration = generation.get();
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.generation == currentGeneration && entry.expiresAt > now) {
+                return (T) entry.value;
+            }
+        }
+        T value = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(value, currentGeneration, now + ttlMillis));
+        }
+        return value;
+    }
+
+    /**
+     * Counter bumped by every committed product write, local or remote.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Invalidates everything once the current transaction commits, or immediately outside one.
+     */
+    public void invalidateAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidation(Set<EntityKey> keys) {
+        String productEntity = Product.class.getSimpleName();
+        if (keys.stream().anyMatch(key -> productEntity.equals(key.entity()))) {
+            generation.incrementAndGet();
+        }
+    }
+
+    private record Entry(Object value, long generation, long expiresAt) {}
+}
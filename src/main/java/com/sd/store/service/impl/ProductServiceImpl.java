@@ -1,19 +1,36 @@
 package com.sd.store.service.impl;
 
+import com.sd.store.alert.ProductQuantityChangedEvent;
+import com.sd.store.archive.ProductArchive;
+import com.sd.store.cache.CacheInvalidationBus;
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.dto.ProductPatch;
 import com.sd.store.exception.ProductNotFoundException;
 import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
 import com.sd.store.repository.ProductRepository;
+import com.sd.store.repository.ProductSpecifications;
+import com.sd.store.service.PriceHistoryService;
+import com.sd.store.service.ProductChangedEvent;
 import com.sd.store.service.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -22,31 +39,76 @@ public class ProductServiceImpl implements ProductService {
     
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
     
+    private static final String PRODUCT_ENTITY = Product.class.getSimpleName();
+    
     private final ProductRepository productRepository;
     
+    private final ProductNameBloomFilter productNameFilter;
+    
+    private final PriceHistoryService priceHistoryService;
+    
+    private final ProductQueryCache productQueryCache;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final CacheInvalidationBus invalidationBus;
+    
+    private final ReadCoalescer readCoalescer;
+    
+    // Absent when store.archive.enabled is false or products are sharded
+    private final ProductArchive productArchive;
+    
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductNameBloomFilter productNameFilter,
+                              PriceHistoryService priceHistoryService, ProductQueryCache productQueryCache,
+                              ApplicationEventPublisher eventPublisher, CacheInvalidationBus invalidationBus,
+                              ReadCoalescer readCoalescer, ObjectProvider<ProductArchive> productArchive) {
         this.productRepository = productRepository;
+        this.productNameFilter = productNameFilter;
+        this.priceHistoryService = priceHistoryService;
+        this.productQueryCache = productQueryCache;
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.readCoalescer = readCoalescer;
+        this.productArchive = productArchive.getIfAvailable();
     }
     
     @Override
     public Product addProduct(Product product) {
         logger.info("Adding new product: {}", product.getName());
         
-        if (productRepository.findByName(product.getName()).isPresent()) {
-            throw new IllegalArgumentException("Product with name '" + product.getName() + "' already exists");
+        // The filter only rules names out; the unique constraint catches anything it lets through
+        if (nameTaken(product.getName())) {
+            throw duplicateName(product.getName());
         }
         
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct;
+        try {
+            savedProduct = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateName(product.getName());
+        }
+        productNameFilter.add(savedProduct.getName());
+        productQueryCache.invalidateAfterCommit();
+        invalidationBus.publish(PRODUCT_ENTITY, savedProduct.getId());
+        publishQuantityChange(savedProduct, null);
+        publishChange(savedProduct);
+        priceHistoryService.recordPrice(savedProduct.getId(), savedProduct.getPrice());
         logger.info("Product added successfully with ID: {}", savedProduct.getId());
         return savedProduct;
     }
     
+    // Coalesced reads run without a transaction of their own, so callers waiting on another
+    // caller's load do not hold a pooled connection; the repository call opens its own.
+    // A product missing from the hot table may have been archived, so the archive is tried next
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Product> findProductById(Long id) {
         logger.debug("Finding product by ID: {}", id);
-        return productRepository.findById(id);
+        return readCoalescer.load("findProductById", new CoalescedRead(id, productQueryCache.generation()),
+                () -> productRepository.findById(id)
+                        .or(() -> productArchive != null ? productArchive.findById(id) : Optional.empty()),
+                product -> product.map(Product::new));
     }
     
     @Override
@@ -72,10 +134,12 @@ public class ProductServiceImpl implements ProductService {
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Product> searchProductsByName(String name) {
         logger.debug("Searching products by name containing: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return readCoalescer.load("searchProductsByName", new CoalescedRead(name, productQueryCache.generation()),
+                () -> productRepository.findByNameContainingIgnoreCase(name),
+                products -> products.stream().map(Product::new).toList());
     }
     
     @Override
@@ -86,6 +150,36 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findByNameContainingIgnoreCase(name, pageable);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> filterProducts(ProductFilter filter, Pageable pageable) {
+        logger.debug("Filtering products by {} with pagination: page={}, size={}, sort={}",
+                    filter, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        return productQueryCache.get(new FilterQuery(filter, pageable),
+                () -> productRepository.findAll(ProductSpecifications.matching(filter), pageable)
+                        .map(ProductDTO::fromProduct));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> findProductsByStockStatus(StockStatus status, Pageable pageable) {
+        logger.debug("Finding products with stock status {}: page={}, size={}",
+                    status, pageable.getPageNumber(), pageable.getPageSize());
+        return productRepository.findByStockStatus(status, pageable).map(ProductDTO::fromProduct);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Map<StockStatus, Long> countProductsByStockStatus() {
+        logger.debug("Counting products by stock status");
+        Map<StockStatus, Long> counts = new EnumMap<>(StockStatus.class);
+        for (StockStatus status : StockStatus.values()) {
+            counts.put(status, 0L);
+        }
+        productRepository.countByStockStatus().forEach(row -> counts.put(row.getStatus(), row.getCount()));
+        return counts;
+    }
+    
     @Override
     public Product updateProduct(Long id, Product product) {
         logger.info("Updating product with ID: {}", id);
@@ -93,7 +187,12 @@ public class ProductServiceImpl implements ProductService {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + id));
         
+        BigDecimal oldPrice = existingProduct.getPrice();
+        Integer oldQuantity = existingProduct.getQuantity();
         if (product.getName() != null && !product.getName().trim().isEmpty()) {
+            if (!product.getName().equals(existingProduct.getName()) && nameTaken(product.getName())) {
+                throw duplicateName(product.getName());
+            }
             existingProduct.setName(product.getName());
             existingProduct.setDescription(product.getDescription());
             existingProduct.setPrice(product.getPrice());
@@ -104,10 +203,90 @@ public class ProductServiceImpl implements ProductService {
         }
         
         Product updatedProduct = productRepository.save(existingProduct);
+        productNameFilter.add(updatedProduct.getName());
+        productQueryCache.invalidateAfterCommit();
+        invalidationBus.publish(PRODUCT_ENTITY, id);
+        if (!Objects.equals(oldQuantity, updatedProduct.getQuantity())) {
+            publishQuantityChange(updatedProduct, oldQuantity);
+        }
+        publishChange(updatedProduct);
+        if (oldPrice == null || oldPrice.compareTo(updatedProduct.getPrice()) != 0) {
+            priceHistoryService.recordPrice(updatedProduct.getId(), updatedProduct.getPrice());
+        }
         logger.info("Product updated successfully: {}", updatedProduct.getId());
         return updatedProduct;
     }
     
+    /**
+     * Applies only the fields of {@code patch} that differ from the stored product. Unchanged fields
+     * stay clean, so the UPDATE lists just the changed columns, and a patch that changes nothing
+     * writes nothing and publishes no events.
+     */
+    @Override
+    public Product patchProduct(Long id, ProductPatch patch) {
+        logger.info("Patching product with ID: {}", id);
+        
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + id));
+        
+        BigDecimal oldPrice = product.getPrice();
+        Integer oldQuantity = product.getQuantity();
+        boolean nameChanged = patch.name() != null && !patch.name().equals(product.getName());
+        boolean priceChanged = patch.price() != null && patch.price().compareTo(oldPrice) != 0;
+        boolean quantityChanged = patch.quantity() != null && !patch.quantity().equals(oldQuantity);
+        boolean descriptionChanged = patch.description() != null
+                && !patch.description().equals(product.getDescription());
+        boolean categoryChanged = patch.category() != null && !patch.category().equals(product.getCategory());
+        
+        if (!(nameChanged || priceChanged || quantityChanged || descriptionChanged || categoryChanged)) {
+            logger.info("Patch leaves product {} unchanged, nothing written", id);
+            return product;
+        }
+        
+        if (nameChanged) {
+            if (nameTaken(patch.name())) {
+                throw duplicateName(patch.name());
+            }
+            product.setName(patch.name());
+        }
+        if (descriptionChanged) {
+            product.setDescription(patch.description());
+        }
+        if (priceChanged) {
+            product.setPrice(patch.price());
+        }
+        if (quantityChanged) {
+            product.setQuantity(patch.quantity());
+        }
+        if (categoryChanged) {
+            product.setCategory(patch.category());
+        }
+        
+        Product patchedProduct;
+        try {
+            patchedProduct = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (nameChanged) {
+                throw duplicateName(patch.name());
+            }
+            throw e;
+        }
+        if (nameChanged) {
+            productNameFilter.add(patchedProduct.getName());
+        }
+        productQueryCache.invalidateAfterCommit();
+        invalidationBus.publish(PRODUCT_ENTITY, id);
+        if (quantityChanged) {
+            publishQuantityChange(patchedProduct, oldQuantity);
+        }
+        publishChange(patchedProduct);
+        if (priceChanged) {
+            priceHistoryService.recordPrice(patchedProduct.getId(), patchedProduct.getPrice());
+        }
+        logger.info("Product patched successfully: {}", patchedProduct.getId());
+        return patchedProduct;
+    }
+    
     @Override
     public Product changePrice(Long id, BigDecimal newPrice) {
         logger.info("Changing price for product ID: {} to {}", id, newPrice);
@@ -119,6 +298,10 @@ public class ProductServiceImpl implements ProductService {
         product.setPrice(newPrice);
         
         Product updatedProduct = productRepository.save(product);
+        priceHistoryService.recordPrice(updatedProduct.getId(), newPrice);
+        publishChange(updatedProduct);
+        productQueryCache.invalidateAfterCommit();
+        invalidationBus.publish(PRODUCT_ENTITY, id);
         logger.info("Price changed from {} to {} for product: {}", oldPrice, newPrice, product.getName());
         return updatedProduct;
     }
@@ -132,7 +315,36 @@ public class ProductServiceImpl implements ProductService {
         }
         
         productRepository.deleteById(id);
+        productQueryCache.invalidateAfterCommit();
+        invalidationBus.publish(PRODUCT_ENTITY, id);
+        eventPublisher.publishEvent(new ProductQuantityChangedEvent(id, null, null, null, null));
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null, null, null, null));
+        priceHistoryService.recordDeletion(id);
         logger.info("Product deleted successfully with ID: {}", id);
     }
     
+    // Archived products keep their names so they can be restored; the data seeder applies the same rule
+    private boolean nameTaken(String name) {
+        return productNameFilter.mightContain(name) && !productRepository.findExistingNames(List.of(name)).isEmpty();
+    }
+    
+    private static IllegalArgumentException duplicateName(String name) {
+        return new IllegalArgumentException("Product with name '" + name + "' already exists");
+    }
+    
+    private void publishQuantityChange(Product product, Integer oldQuantity) {
+        eventPublisher.publishEvent(new ProductQuantityChangedEvent(
+                product.getId(), product.getName(), product.getCategory(), oldQuantity, product.getQuantity()));
+    }
+    
+    private void publishChange(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), product.getName(),
+                product.getCategory(), product.getPrice(), product.getQuantity()));
+    }
+    
+    private record FilterQuery(ProductFilter filter, Pageable pageable) {}
+    
+    // The write generation keeps a caller that starts after a committed write out of an older load
+    private record CoalescedRead(Object argument, long generation) {}
+    
 }
@@ -0,0 +1,89 @@
+package com.sd.store.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight loading: while a load for a key is running, identical requests wait for its result
+ * instead of running their own query. Nothing is kept once the load finishes.
+ * <p>
+ * Waiters give up after {@code store.read-coalescing.max-wait} and load on their own, so one slow
+ * query cannot hold a crowd hostage. A failed load fails its waiters too.
+ * <p>
+ * The loading caller keeps what it loaded; the others each get their own copy, made from a copy
+ * taken once the load finishes. A JPA entity loaded by one request is still managed by that
+ * request's persistence context (open-in-view), so it must not leak into another thread.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(MeterRegistry meterRegistry,
+                         @Value("${store.read-coalescing.enabled:true}") boolean enabled,
+                         @Value("${store.read-coalescing.max-wait:500ms}") Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Loads a value that is immutable, so every caller can be handed the same instance.
+     */
+    public <T> T load(String operation, Object key, Supplier<T> loader) {
+        return load(operation, key, loader, UnaryOperator.identity());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String operation, Object key, Supplier<T> loader, UnaryOperator<T> copy) {
+        // A caller inside a transaction may modify what it loads and needs its own managed entities
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        FlightKey flightKey = new FlightKey(operation, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+        if (running == null) {
+            try {
+                T value = loader.get();
+                flight.complete(copy.apply(value));
+                return value;
+            } catch (RuntimeException e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(flightKey, flight);
+            }
+        }
+
+        try {
+            T value = (T) running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("store.read.coalesced", "operation", operation).increment();
+            return copy.apply(value);
+        } catch (TimeoutException e) {
+            meterRegistry.counter("store.read.coalesce.timeouts", "operation", operation).increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced " + operation, e);
+        }
+    }
+
+    private record FlightKey(String operation, Object key) {}
+}
@@ -0,0 +1,63 @@
+package com.sd.store.sharding;
+
+import com.sd.store.model.Product;
+
+import java.util.Locale;
+
+/**
+ * Maps products to shards. A new product goes to the shard its category hashes to, and its id
+ * carries that shard in the low bits ({@code id % ID_STRIDE}), so later lookups by id route
+ * directly. Placement is fixed at creation: changing a product's category does not move it.
+ */
+public class ShardRouter {
+
+    /** Ids on shard {@code s} are {@code s, s + ID_STRIDE, s + 2 * ID_STRIDE, ...}; also the shard limit. */
+    public static final int ID_STRIDE = 64;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > ID_STRIDE) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + ID_STRIDE);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(Product product) {
+        return product.getId() != null ? shardOf(product.getId()) : shardForCategory(product.getCategory());
+    }
+
+    public int shardForCategory(String category) {
+        if (category == null) {
+            return 0;
+        }
+        int h = category.trim().toLowerCase(Locale.ROOT).hashCode();
+        // String.hashCode clusters similar names; spread it before taking the modulus
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return Math.floorMod(h, shardCount);
+    }
+
+    /**
+     * Shard encoded in an id, or -1 for an id no shard could have allocated.
+     */
+    public int shardOf(long id) {
+        int shard = (int) Math.floorMod(id, (long) ID_STRIDE);
+        return shard < shardCount ? shard : -1;
+    }
+
+    /**
+     * Smallest id above {@code currentMax} that belongs to {@code shard}.
+     */
+    public static long nextIdFor(int shard, long currentMax) {
+        long base = Math.max(currentMax, 0) / ID_STRIDE * ID_STRIDE + shard;
+        long next = base > currentMax ? base : base + ID_STRIDE;
+        // Keep 0 out of the id space so shard 0 starts at ID_STRIDE
+        return next == 0 ? ID_STRIDE : next;
+    }
+}
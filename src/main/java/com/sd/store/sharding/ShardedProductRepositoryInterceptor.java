@@ -0,0 +1,299 @@
+package com.sd.store.sharding;
+
+import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
+import com.sd.store.repository.ProductRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Spreads {@link ProductRepository} calls over the shards.
+ * <p>
+ * Calls that identify one product (by id, or the entity being saved) run on its shard. Everything
+ * else is scattered to all shards in parallel and merged by return type: pages with a k-way merge
+ * that stops after {@code offset + size} rows, lists and streams by concatenation in sort order,
+ * counts by summing. Each shard call runs in its own transaction, so a service-level transaction
+ * no longer makes product writes atomic with writes on other shards.
+ */
+public class ShardedProductRepositoryInterceptor implements MethodInterceptor {
+
+    private final ProductRepository target;
+    private final ShardRouter router;
+    private final ExecutorService executor;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public ShardedProductRepositoryInterceptor(ProductRepository target, ShardRouter router, ExecutorService executor,
+                                               PlatformTransactionManager transactionManager) {
+        this.target = target;
+        this.router = router;
+        this.executor = executor;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        Object[] args = invocation.getArguments();
+        if (AopUtils.isEqualsMethod(method) || AopUtils.isHashCodeMethod(method) || AopUtils.isToStringMethod(method)) {
+            return invocation.proceed();
+        }
+        String name = method.getName();
+        boolean readOnly = name.startsWith("find") || name.startsWith("count") || name.startsWith("exists")
+                || name.startsWith("get") || name.startsWith("stream");
+
+        if (name.endsWith("ById") && args.length == 1 && args[0] instanceof Long id) {
+            int shard = router.shardOf(id);
+            return shard < 0 ? emptyResult(method) : call(shard, readOnly, method, args);
+        }
+        if (args.length == 1 && args[0] instanceof Product product) {
+            return call(router.shardFor(product), false, method, args);
+        }
+        if ((name.startsWith("save") || name.startsWith("delete")) && args.length == 1 && args[0] instanceof Iterable<?> items) {
+            return writeGrouped(method, items);
+        }
+        if (name.equals("flush")) {
+            // Each shard call commits on its own; there is nothing left to flush
+            return null;
+        }
+        return scatter(method, args, readOnly);
+    }
+
+    private Object call(int shard, boolean readOnly, Method method, Object[] args) {
+        TransactionTemplate transaction = readOnly ? readTransaction : writeTransaction;
+        return ShardRoutingDataSource.onShard(shard, () -> transaction.execute(status -> invokeTarget(method, args)));
+    }
+
+    private Object writeGrouped(Method method, Iterable<?> items) {
+        Map<Integer, List<Product>> byShard = new LinkedHashMap<>();
+        for (Object item : items) {
+            Product product = (Product) item;
+            byShard.computeIfAbsent(router.shardFor(product), shard -> new ArrayList<>()).add(product);
+        }
+        List<Object> saved = new ArrayList<>();
+        byShard.forEach((shard, products) -> {
+            Object result = call(shard, false, method, new Object[] {products});
+            if (result instanceof Iterable<?> iterable) {
+                iterable.forEach(saved::add);
+            }
+        });
+        return method.getReturnType() == void.class ? null : saved;
+    }
+
+    private Object scatter(Method method, Object[] args, boolean readOnly) {
+        Pageable pageable = findArg(args, Pageable.class);
+        Sort sort = pageable != null ? pageable.getSort() : Optional.ofNullable(findArg(args, Sort.class)).orElse(Sort.unsorted());
+        Object[] shardArgs = args.clone();
+        if (pageable != null && pageable.isPaged()) {
+            // Any row of the requested page may come from any shard, so each shard supplies a full prefix
+            for (int i = 0; i < shardArgs.length; i++) {
+                if (shardArgs[i] instanceof Pageable) {
+                    shardArgs[i] = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort);
+                }
+            }
+        }
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            int current = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> call(current, readOnly, method, shardArgs), executor));
+        }
+        List<Object> results;
+        try {
+            results = futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        return merge(method, results, pageable, sort);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object merge(Method method, List<Object> results, Pageable pageable, Sort sort) {
+        Class<?> type = method.getReturnType();
+        if (type == void.class) {
+            return null;
+        }
+        if (Page.class.isAssignableFrom(type)) {
+            long total = 0;
+            List<List<Object>> parts = new ArrayList<>();
+            for (Object result : results) {
+                Page<Object> page = (Page<Object>) result;
+                total += page.getTotalElements();
+                parts.add(page.getContent());
+            }
+            if (pageable == null || pageable.isUnpaged()) {
+                return new PageImpl<>(mergeSorted(parts, sort, 0, Integer.MAX_VALUE));
+            }
+            List<Object> content = mergeSorted(parts, sort, pageable.getOffset(), pageable.getPageSize());
+            return new PageImpl<>(content, pageable, total);
+        }
+        if (type == long.class || type == Long.class) {
+            return results.stream().mapToLong(result -> (Long) result).sum();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (Optional.class.isAssignableFrom(type)) {
+            return results.stream().map(result -> (Optional<Object>) result).filter(Optional::isPresent)
+                    .findFirst().orElse(Optional.empty());
+        }
+        if (Set.class.isAssignableFrom(type)) {
+            Set<Object> union = new HashSet<>();
+            results.forEach(result -> union.addAll((Set<Object>) result));
+            return union;
+        }
+        if (Stream.class.isAssignableFrom(type)) {
+            return results.stream().flatMap(result -> ((List<Object>) result).stream());
+        }
+        if (List.class.isAssignableFrom(type)) {
+            List<List<Object>> parts = results.stream().map(result -> (List<Object>) result).toList();
+            if (parts.stream().flatMap(List::stream).findFirst().orElse(null) instanceof ProductRepository.StockStatusCount) {
+                return sumStatusCounts(parts);
+            }
+            return mergeSorted(parts, sort, 0, Integer.MAX_VALUE);
+        }
+        throw new UnsupportedOperationException("Sharded ProductRepository cannot merge results of " + method);
+    }
+
+    /**
+     * k-way merge of per-shard lists that are each already in {@code sort} order; only the first
+     * {@code offset + limit} rows are ever compared.
+     */
+    private static List<Object> mergeSorted(List<List<Object>> parts, Sort sort, long offset, int limit) {
+        Comparator<Object> comparator = comparator(sort);
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> comparator.compare(a.head(), b.head()));
+        for (List<Object> part : parts) {
+            if (!part.isEmpty()) {
+                heads.add(new Cursor(part, 0));
+            }
+        }
+        List<Object> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Cursor cursor = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(cursor.head());
+            }
+            if (cursor.index() + 1 < cursor.items().size()) {
+                heads.add(new Cursor(cursor.items(), cursor.index() + 1));
+            }
+        }
+        return merged;
+    }
+
+    // Matches H2's default ordering: nulls sort low, so first ascending and last descending
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> byProperty = Comparator.comparing(
+                    item -> (Comparable) property(item, order.getProperty()),
+                    Comparator.nullsFirst(order.isIgnoreCase()
+                            ? (x, y) -> String.valueOf(x).compareToIgnoreCase(String.valueOf(y))
+                            : Comparator.<Comparable>naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        // Shard-local order is unspecified for ties, fall back to id so pages do not overlap
+        return comparator.thenComparing(item -> item instanceof Product product ? product.getId() : null,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    private static Object property(Object item, String path) {
+        return item == null ? null : new BeanWrapperImpl(item).getPropertyValue(path);
+    }
+
+    private static List<ProductRepository.StockStatusCount> sumStatusCounts(List<List<Object>> parts) {
+        Map<StockStatus, Long> totals = new EnumMap<>(StockStatus.class);
+        parts.stream().flatMap(List::stream).map(ProductRepository.StockStatusCount.class::cast)
+                .forEach(row -> totals.merge(row.getStatus(), row.getCount(), Long::sum));
+        List<ProductRepository.StockStatusCount> merged = new ArrayList<>();
+        totals.forEach((status, count) -> merged.add(new StatusCount(status, count)));
+        return merged;
+    }
+
+    private Object invokeTarget(Method method, Object[] args) {
+        try {
+            Object result = AopUtils.invokeJoinpointUsingReflection(target, method, args);
+            // A JPA stream is only readable inside its transaction
+            if (result instanceof Stream<?> stream) {
+                try (stream) {
+                    return stream.toList();
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object emptyResult(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        return null;
+    }
+
+    private static <T> T findArg(Object[] args, Class<T> type) {
+        for (Object arg : args) {
+            if (type.isInstance(arg)) {
+                return type.cast(arg);
+            }
+        }
+        return null;
+    }
+
+    private record Cursor(List<Object> items, int index) {
+        Object head() {
+            return items.get(index);
+        }
+    }
+
+    private record StatusCount(StockStatus status, long count) implements ProductRepository.StockStatusCount {
+        @Override
+        public StockStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+    }
+}
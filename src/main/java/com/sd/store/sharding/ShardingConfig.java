@@ -0,0 +1,125 @@
+package com.sd.store.sharding;
+
+import com.sd.store.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Category-hash sharding of the products table over the datasources in {@code store.sharding.shard-urls}.
+ * <p>
+ * Every shard gets the full Flyway schema; products are spread over all of them and everything else
+ * lives on shard 0. Each shard's product identity column is set to allocate ids congruent to the
+ * shard number modulo {@link ShardRouter#ID_STRIDE}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "store.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    @Value("${store.sharding.shard-urls}")
+    private String shardUrls;
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties) {
+        List<DataSource> shards = Arrays.stream(shardUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(url)
+                        .username(properties.determineUsername())
+                        .password(properties.determinePassword())
+                        .build())
+                .toList();
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("store.sharding.shard-urls must list at least one datasource");
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardRouter(shardRoutingDataSource.shards().size());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardScatterExecutor(ShardRouter shardRouter) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(shardRouter.shardCount() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            List<DataSource> shards = shardRoutingDataSource.shards();
+            for (int shard = 0; shard < shards.size(); shard++) {
+                int current = shard;
+                ShardRoutingDataSource.onShard(current, flyway::migrate);
+                alignProductIds(new JdbcTemplate(shards.get(current)), current);
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor shardedProductRepositoryPostProcessor(
+            ObjectProvider<ShardRouter> shardRouter,
+            ObjectProvider<ExecutorService> shardScatterExecutor,
+            ObjectProvider<PlatformTransactionManager> transactionManager) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ProductRepository repository)) {
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory();
+                proxyFactory.setTarget(repository);
+                proxyFactory.addInterface(ProductRepository.class);
+                proxyFactory.addAdvice(new ShardedProductRepositoryInterceptor(repository, shardRouter.getObject(),
+                        shardScatterExecutor.getObject(), transactionManager.getObject()));
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+
+    private static void alignProductIds(JdbcTemplate jdbc, int shard) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        long next = ShardRouter.nextIdFor(shard, max != null ? max : 0);
+        jdbc.execute("ALTER TABLE products ALTER COLUMN id RESTART WITH " + next);
+        jdbc.execute("ALTER TABLE products ALTER COLUMN id SET INCREMENT BY " + ShardRouter.ID_STRIDE);
+        logger.info("Shard {}: next product id {}", shard, next);
+    }
+}
@@ -0,0 +1,49 @@
+package com.sd.store.snapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * In-memory operating mode: the database lives in {@code jdbc:h2:mem:} and is rebuilt from the
+ * snapshot directory before Flyway runs. Activate with the {@code in-memory} profile. The data
+ * source is wrapped in a {@link JournalingDataSource} so every commit goes through the journal.
+ */
+@Configuration
+@ConditionalOnProperty(name = "store.h2.memory.enabled", havingValue = "true")
+public class InMemorySnapshotConfig {
+
+    @Value("${store.h2.memory.snapshot-dir:./data/snapshots}")
+    private String snapshotDir;
+
+    @Value("${store.h2.memory.journal-fsync:true}")
+    private boolean journalFsync;
+
+    @Bean
+    public static BeanPostProcessor journalingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof JournalingDataSource)
+                        ? new JournalingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public InMemorySnapshotManager inMemorySnapshotManager(DataSource dataSource, MeterRegistry meterRegistry) {
+        return new InMemorySnapshotManager(dataSource, Path.of(snapshotDir), journalFsync, meterRegistry);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy snapshotRestoringMigrationStrategy(InMemorySnapshotManager snapshotManager) {
+        return flyway -> snapshotManager.restore(flyway::migrate);
+    }
+}
@@ -0,0 +1,208 @@
+package com.sd.store.snapshot;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps an in-memory H2 database durable with gzip {@code SCRIPT} snapshots plus a
+ * {@link WriteAheadJournal} of the row changes committed since the last snapshot.
+ * <p>
+ * Taking a snapshot first rotates the journal, so every change committed after the rotation lands
+ * in the new segment whether or not the {@code SCRIPT} run saw it. Replay is idempotent, so the
+ * overlap is harmless and the snapshot never has to block writers.
+ */
+public class InMemorySnapshotManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySnapshotManager.class);
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".sql.gz";
+    // Migration bookkeeping is rewritten by Flyway; the invalidation outbox is transient
+    private static final Set<String> EXCLUDED_TABLES = Set.of("FLYWAY_SCHEMA_HISTORY", "CACHE_INVALIDATIONS");
+
+    private final DataSource dataSource;
+    private final Path directory;
+    private final WriteAheadJournal journal;
+    private final Timer snapshotTimer;
+    private volatile long lastSnapshotBytes;
+
+    public InMemorySnapshotManager(DataSource dataSource, Path directory, boolean fsync, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.directory = directory;
+        this.journal = new WriteAheadJournal(directory, fsync);
+        this.snapshotTimer = Timer.builder("store.h2.snapshot")
+                .description("Time to write a compressed snapshot of the in-memory database")
+                .register(meterRegistry);
+        Gauge.builder("store.h2.snapshot.size", this, manager -> manager.lastSnapshotBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("store.h2.journal.changes", journal, WriteAheadJournal::appendedChanges)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the database from the newest snapshot and journal, runs {@code migrate}, then starts
+     * journaling and takes a fresh snapshot so the journal never spans a schema change.
+     */
+    public void restore(Runnable migrate) {
+        try {
+            Files.createDirectories(directory);
+            List<Long> snapshots = snapshots();
+            List<Long> segments = journal.segments();
+            long lastSegment = Stream.concat(snapshots.stream(), segments.stream()).mapToLong(Long::longValue).max().orElse(0);
+
+            try (Connection connection = dataSource.getConnection()) {
+                if (!snapshots.isEmpty()) {
+                    long snapshot = snapshots.getLast();
+                    long start = System.nanoTime();
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("RUNSCRIPT FROM " + literal(snapshotPath(snapshot)) + " COMPRESSION GZIP");
+                    }
+                    int replayed = journal.replay(connection, snapshot);
+                    logger.info("Restored snapshot {} and replayed {} journal changes in {} ms", snapshot, replayed,
+                            (System.nanoTime() - start) / 1_000_000);
+                    migrate.run();
+                } else {
+                    migrate.run();
+                    if (!segments.isEmpty()) {
+                        logger.info("No snapshot found, replayed {} journal changes", journal.replay(connection, 0));
+                    }
+                }
+                resetIdentities(connection);
+                installTriggers(connection);
+            }
+            journal.startAfter(lastSegment);
+            journal.activate();
+            snapshot();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore in-memory database from " + directory, e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to restore in-memory database from " + directory, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${store.h2.memory.snapshot-interval:5m}",
+               initialDelayString = "${store.h2.memory.snapshot-interval:5m}")
+    public synchronized void snapshot() {
+        if (WriteAheadJournal.active() != journal) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long segment = journal.rotate();
+            Path target = snapshotPath(segment);
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SCRIPT TO " + literal(temp) + " COMPRESSION GZIP");
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            lastSnapshotBytes = Files.size(target);
+            for (long older : snapshots()) {
+                if (older < segment) {
+                    Files.deleteIfExists(snapshotPath(older));
+                }
+            }
+            for (long older : journal.segments()) {
+                if (older < segment) {
+                    Files.deleteIfExists(journal.segmentPath(older));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            snapshotTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Wrote snapshot {} ({} bytes) in {} ms", segment, lastSnapshotBytes, elapsed / 1_000_000);
+        } catch (IOException | SQLException e) {
+            // The journal still covers everything since the last good snapshot
+            logger.error("Snapshot failed, keeping previous snapshot and journal", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        snapshot();
+        journal.deactivate();
+        journal.close();
+    }
+
+    private void installTriggers(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet rs = connection.getMetaData().getTables(null, "PUBLIC", null, new String[] {"TABLE", "BASE TABLE"})) {
+            while (rs.next()) {
+                String table = rs.getString("TABLE_NAME");
+                if (!EXCLUDED_TABLES.contains(table.toUpperCase())) {
+                    tables.add(table);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                statement.execute("CREATE TRIGGER IF NOT EXISTS " + WriteAheadJournal.quote("JOURNAL_" + table)
+                        + " AFTER INSERT, UPDATE, DELETE ON " + WriteAheadJournal.quote(table)
+                        + " FOR EACH ROW CALL '" + JournalTrigger.class.getName() + "'");
+            }
+        }
+    }
+
+    // Replayed rows carry explicit ids, which do not advance identity columns
+    private static void resetIdentities(Connection connection) throws SQLException {
+        List<String[]> identities = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS "
+                     + "WHERE TABLE_SCHEMA = 'PUBLIC' AND IS_IDENTITY = 'YES'")) {
+            while (rs.next()) {
+                identities.add(new String[] {rs.getString(1), rs.getString(2)});
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String[] identity : identities) {
+                String table = WriteAheadJournal.quote(identity[0]);
+                String column = WriteAheadJournal.quote(identity[1]);
+                try (ResultSet rs = statement.executeQuery("SELECT MAX(" + column + ") FROM " + table)) {
+                    if (rs.next() && rs.getObject(1) != null) {
+                        long next = rs.getLong(1) + 1;
+                        statement.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Long> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path snapshotPath(long number) {
+        return directory.resolve(String.format("%s%06d%s", SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+    }
+
+    private static String literal(Path path) {
+        return "'" + path.toAbsolutePath().toString().replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,103 @@
+package com.sd.store.snapshot;
+
+import org.h2.api.Trigger;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * H2 row trigger that forwards every insert, update and delete to the active {@link WriteAheadJournal}.
+ * <p>
+ * H2 instantiates triggers by class name, so the journal is reached through a static handle. With
+ * no active journal (restore in progress, or recording not started) changes are ignored. With one,
+ * the write has to come through {@link JournalingDataSource}, which owns the buffer the change goes
+ * to; any other write fails.
+ */
+public class JournalTrigger implements Trigger {
+
+    private String table;
+    private String[] columns;
+    private int[] keyIndexes;
+    private String[] keyColumns;
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        this.table = tableName;
+        DatabaseMetaData metaData = connection.getMetaData();
+        List<String> columnNames = new ArrayList<>();
+        try (ResultSet rs = metaData.getColumns(null, schemaName, tableName, null)) {
+            while (rs.next()) {
+                columnNames.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        List<String> keys = new ArrayList<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(null, schemaName, tableName)) {
+            while (rs.next()) {
+                keys.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        // Without a primary key the whole row identifies it
+        if (keys.isEmpty()) {
+            keys.addAll(columnNames);
+        }
+        this.columns = columnNames.toArray(String[]::new);
+        this.keyColumns = keys.toArray(String[]::new);
+        this.keyIndexes = keys.stream().mapToInt(columnNames::indexOf).toArray();
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        WriteAheadJournal journal = WriteAheadJournal.active();
+        if (journal == null) {
+            return;
+        }
+        if (newRow == null) {
+            journal.record(delete(oldRow));
+            return;
+        }
+        if (oldRow != null && !sameKey(oldRow, newRow)) {
+            journal.record(delete(oldRow));
+        }
+        Object[] values = new Object[newRow.length];
+        for (int i = 0; i < newRow.length; i++) {
+            values[i] = materialize(newRow[i]);
+        }
+        journal.record(new WriteAheadJournal.Change(WriteAheadJournal.Op.UPSERT, table, keyColumns, columns, values));
+    }
+
+    private WriteAheadJournal.Change delete(Object[] row) throws SQLException {
+        Object[] key = new Object[keyIndexes.length];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            key[i] = materialize(row[keyIndexes[i]]);
+        }
+        return new WriteAheadJournal.Change(WriteAheadJournal.Op.DELETE, table, keyColumns, keyColumns, key);
+    }
+
+    private boolean sameKey(Object[] oldRow, Object[] newRow) {
+        for (int index : keyIndexes) {
+            if (!Objects.equals(oldRow[index], newRow[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // LOB handles are only valid inside the statement, the journal needs the content
+    private static Object materialize(Object value) throws SQLException {
+        if (value instanceof Clob clob) {
+            return clob.getSubString(1, (int) clob.length());
+        }
+        if (value instanceof Blob blob) {
+            return blob.getBytes(1, (int) blob.length());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,250 @@
+package com.sd.store.snapshot;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes every write to a journaled table through the {@link WriteAheadJournal}.
+ * <p>
+ * Each connection collects the changes its statements make and hands them to the journal when it
+ * commits; the journal appends them before the database commit, so a change is never committed
+ * without being journaled. Changes of a failed statement, a rolled back savepoint or transaction are
+ * dropped, as the database drops them. Auto-commit is emulated: the connection stays in a
+ * transaction and commits after each statement, which puts those writes on the same path.
+ */
+public class JournalingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public JournalingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return journaling(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return journaling(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    private static Connection journaling(Connection target) throws SQLException {
+        boolean autoCommit = target.getAutoCommit();
+        if (autoCommit) {
+            target.setAutoCommit(false);
+        }
+        ConnectionHandler handler = new ConnectionHandler(target, autoCommit);
+        handler.proxy = (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, handler);
+        return handler.proxy;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final List<WriteAheadJournal.Change> changes = new ArrayList<>();
+        private final Map<Savepoint, Integer> savepoints = new HashMap<>();
+        private boolean autoCommit;
+        private Connection proxy;
+
+        private ConnectionHandler(Connection target, boolean autoCommit) {
+            this.target = target;
+            this.autoCommit = autoCommit;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    // Switching auto-commit on commits the open transaction
+                    if ((Boolean) args[0] && !autoCommit) {
+                        commit();
+                    }
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "commit":
+                    commit();
+                    return null;
+                case "rollback":
+                    if (args == null) {
+                        rollback();
+                    } else {
+                        target.rollback((Savepoint) args[0]);
+                        Integer mark = savepoints.get((Savepoint) args[0]);
+                        if (mark != null) {
+                            discardFrom(mark);
+                        }
+                    }
+                    return null;
+                case "setSavepoint": {
+                    Savepoint savepoint = (Savepoint) JournalingDataSource.invoke(target, method, args);
+                    savepoints.put(savepoint, changes.size());
+                    return savepoint;
+                }
+                case "releaseSavepoint":
+                    savepoints.remove((Savepoint) args[0]);
+                    break;
+                case "close":
+                    changes.clear();
+                    savepoints.clear();
+                    break;
+                case "createStatement":
+                    return statement(Statement.class, JournalingDataSource.invoke(target, method, args));
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, JournalingDataSource.invoke(target, method, args));
+                case "prepareCall":
+                    return statement(CallableStatement.class, JournalingDataSource.invoke(target, method, args));
+                default:
+                    break;
+            }
+            return JournalingDataSource.invoke(target, method, args);
+        }
+
+        private Object statement(Class<? extends Statement> type, Object statement) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    new StatementHandler(this, statement));
+        }
+
+        private Object execute(Object statement, Method method, Object[] args) throws Throwable {
+            List<WriteAheadJournal.Change> previous = WriteAheadJournal.bind(changes);
+            int mark = changes.size();
+            Object result;
+            try {
+                result = JournalingDataSource.invoke(statement, method, args);
+            } catch (SQLException e) {
+                // A failed statement is rolled back on its own; a batch keeps its successful entries
+                boolean batch = e instanceof BatchUpdateException;
+                if (!batch) {
+                    discardFrom(mark);
+                }
+                if (autoCommit) {
+                    if (batch) {
+                        commit();
+                    } else {
+                        rollback();
+                    }
+                }
+                throw e;
+            } finally {
+                WriteAheadJournal.bind(previous);
+            }
+            // A query's result set has to stay open, so it only commits if it changed something
+            if (autoCommit && (!method.getName().equals("executeQuery") || !changes.isEmpty())) {
+                commit();
+            }
+            return result;
+        }
+
+        private void commit() throws SQLException {
+            WriteAheadJournal journal = WriteAheadJournal.active();
+            if (changes.isEmpty() || journal == null) {
+                target.commit();
+            } else {
+                journal.commit(changes, target);
+            }
+            changes.clear();
+            savepoints.clear();
+        }
+
+        private void rollback() throws SQLException {
+            changes.clear();
+            savepoints.clear();
+            target.rollback();
+        }
+
+        private void discardFrom(int mark) {
+            changes.subList(mark, changes.size()).clear();
+            savepoints.values().removeIf(position -> position > mark);
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final ConnectionHandler connection;
+        private final Object target;
+
+        private StatementHandler(ConnectionHandler connection, Object target) {
+            this.connection = connection;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return connection.execute(target, method, args);
+            }
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection.proxy;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return JournalingDataSource.invoke(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.sd.store.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Row-level change log for the in-memory database, split into numbered segments.
+ * <p>
+ * Segment {@code N} holds every change committed after snapshot {@code N} was started, so
+ * restoring means loading the newest snapshot and replaying segments {@code >= N} in order.
+ * Changes are full row images applied with {@code MERGE}/{@code DELETE} by key, which makes replay
+ * idempotent: a change that also made it into the snapshot is simply applied again.
+ * <p>
+ * Changes are collected per connection by {@link JournalingDataSource} and appended when that
+ * connection commits, while the journal lock is held across the database commit. Segments therefore
+ * list transactions in commit order, and an append that fails (including {@code fsync}) fails the
+ * commit rather than leaving a committed change out of the journal. Rolled back work never reaches
+ * the journal. A large transaction is split over several records, and a segment that ends part way
+ * through one is replayed without it.
+ */
+public class WriteAheadJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadJournal.class);
+
+    private static final int MAX_RECORD_BYTES = 256 * 1024 * 1024;
+
+    private static final int SPLIT_RECORD_BYTES = 8 * 1024 * 1024;
+
+    private static volatile WriteAheadJournal active;
+
+    private static final ThreadLocal<List<Change>> bound = new ThreadLocal<>();
+
+    public enum Op { UPSERT, DELETE }
+
+    public record Change(Op op, String table, String[] keyColumns, String[] columns, Object[] values) {}
+
+    private final Path directory;
+    private final boolean fsync;
+    private FileChannel channel;
+    private long segment;
+    private long appendedChanges;
+
+    public WriteAheadJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    static WriteAheadJournal active() {
+        return active;
+    }
+
+    void activate() {
+        active = this;
+    }
+
+    void deactivate() {
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    /**
+     * Makes {@code changes} the buffer that triggers fired on this thread record into, returning the
+     * previous one.
+     */
+    static List<Change> bind(List<Change> changes) {
+        List<Change> previous = bound.get();
+        if (changes == null) {
+            bound.remove();
+        } else {
+            bound.set(changes);
+        }
+        return previous;
+    }
+
+    void record(Change change) throws SQLException {
+        List<Change> changes = bound.get();
+        if (changes == null) {
+            throw new SQLException("Write to " + change.table() + " did not go through the journaling data source");
+        }
+        changes.add(change);
+    }
+
+    /**
+     * Appends {@code changes} and then commits {@code connection}. If either step fails the appended
+     * records are cut off again, so the journal only ever holds committed work.
+     */
+    synchronized void commit(List<Change> changes, Connection connection) throws SQLException {
+        if (channel == null) {
+            throw new SQLException("Journal segment " + segment + " is closed");
+        }
+        long start;
+        try {
+            start = channel.size();
+        } catch (IOException e) {
+            throw new SQLException("Failed to append to journal segment " + segment, e);
+        }
+        try {
+            append(changes);
+        } catch (IOException e) {
+            truncate(start);
+            throw new SQLException("Failed to append to journal segment " + segment, e);
+        }
+        try {
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            truncate(start);
+            throw e;
+        }
+        appendedChanges += changes.size();
+    }
+
+    private void append(List<Change> changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int count = 0;
+        for (int i = 0; i < changes.size(); i++) {
+            writeChange(out, changes.get(i));
+            count++;
+            if (bytes.size() >= SPLIT_RECORD_BYTES && i < changes.size() - 1) {
+                writeRecord(bytes.toByteArray(), count, false);
+                bytes.reset();
+                count = 0;
+            }
+        }
+        writeRecord(bytes.toByteArray(), count, true);
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    // A negative count marks a record that more records of the same transaction follow
+    private void writeRecord(byte[] changes, int count, boolean last) throws IOException {
+        byte[] payload = ByteBuffer.allocate(4 + changes.length).putInt(last ? count : -count).put(changes).array();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(12 + payload.length);
+        buffer.putInt(payload.length).putLong(crc.getValue()).put(payload).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Without the cut the segment would replay a transaction that never committed; if even that
+    // fails the segment is closed, and commits fail until the next snapshot starts a new one
+    private void truncate(long size) {
+        try {
+            channel.truncate(size);
+        } catch (IOException e) {
+            logger.error("Could not remove a failed append from journal segment {}, closing it", segment, e);
+            try {
+                close();
+            } catch (IOException closeFailure) {
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Closes the current segment and starts the next one, returning its number.
+     */
+    synchronized long rotate() throws IOException {
+        close();
+        segment++;
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return segment;
+    }
+
+    synchronized void startAfter(long lastSegment) {
+        segment = lastSegment;
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    synchronized long appendedChanges() {
+        return appendedChanges;
+    }
+
+    List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("journal-") && name.endsWith(".log"))
+                    .map(name -> Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    Path segmentPath(long number) {
+        return directory.resolve(String.format("journal-%06d.log", number));
+    }
+
+    /**
+     * Applies every segment numbered {@code fromSegment} or later. A torn record at the end of a
+     * segment (crash mid-append) ends that segment, along with the rest of its transaction.
+     */
+    int replay(Connection connection, long fromSegment) throws IOException, SQLException {
+        int applied = 0;
+        for (long number : segments()) {
+            if (number < fromSegment) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(segmentPath(number)))) {
+                List<Change> transaction = new ArrayList<>();
+                byte[] payload;
+                while ((payload = readRecord(in)) != null) {
+                    if (decode(payload, transaction)) {
+                        for (Change change : transaction) {
+                            apply(connection, change);
+                        }
+                        applied += transaction.size();
+                        transaction.clear();
+                    }
+                }
+                if (!transaction.isEmpty()) {
+                    logger.warn("Ignoring incomplete transaction of {} changes at end of segment {}",
+                            transaction.size(), number);
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            long checksum = in.readLong();
+            if (length < 0 || length > MAX_RECORD_BYTES) {
+                logger.warn("Ignoring corrupt journal record length {}", length);
+                return null;
+            }
+            byte[] payload = in.readNBytes(length);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (payload.length != length || crc.getValue() != checksum) {
+                logger.warn("Ignoring torn journal record at end of segment");
+                return null;
+            }
+            return payload;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void apply(Connection connection, Change change) throws SQLException {
+        String sql;
+        if (change.op() == Op.DELETE) {
+            sql = "DELETE FROM " + quote(change.table()) + " WHERE " + Stream.of(change.keyColumns())
+                    .map(column -> quote(column) + " = ?")
+                    .collect(Collectors.joining(" AND "));
+        } else {
+            sql = "MERGE INTO " + quote(change.table()) + " (" + quoteAll(change.columns()) + ") KEY ("
+                    + quoteAll(change.keyColumns()) + ") VALUES ("
+                    + Stream.of(change.columns()).map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < change.values().length; i++) {
+                statement.setObject(i + 1, change.values()[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static String quoteAll(String[] identifiers) {
+        return Stream.of(identifiers).map(WriteAheadJournal::quote).collect(Collectors.joining(", "));
+    }
+
+    private static void writeChange(DataOutputStream out, Change change) throws IOException {
+        out.writeByte(change.op().ordinal());
+        out.writeUTF(change.table());
+        writeNames(out, change.keyColumns());
+        writeNames(out, change.columns());
+        for (Object value : change.values()) {
+            writeValue(out, value);
+        }
+    }
+
+    /**
+     * Adds the changes in {@code payload} to {@code changes}, returning whether the record ends its
+     * transaction.
+     */
+    private static boolean decode(byte[] payload, List<Change> changes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        for (int i = 0; i < Math.abs(count); i++) {
+            Op op = Op.values()[in.readByte()];
+            String table = in.readUTF();
+            String[] keyColumns = readNames(in);
+            String[] columns = readNames(in);
+            Object[] values = new Object[columns.length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = readValue(in);
+            }
+            changes.add(new Change(op, table, keyColumns, columns, values));
+        }
+        return count >= 0;
+    }
+
+    private static void writeNames(DataOutputStream out, String[] names) throws IOException {
+        out.writeShort(names.length);
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+    }
+
+    private static String[] readNames(DataInputStream in) throws IOException {
+        String[] names = new String[in.readShort()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        return names;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(0);
+            case Long v -> { out.writeByte(1); out.writeLong(v); }
+            case Integer v -> { out.writeByte(2); out.writeInt(v); }
+            case Short v -> { out.writeByte(3); out.writeShort(v); }
+            case Boolean v -> { out.writeByte(4); out.writeBoolean(v); }
+            case Double v -> { out.writeByte(5); out.writeDouble(v); }
+            case Float v -> { out.writeByte(6); out.writeFloat(v); }
+            case BigDecimal v -> { out.writeByte(7); writeString(out, v.toString()); }
+            case String v -> { out.writeByte(8); writeString(out, v); }
+            case byte[] v -> { out.writeByte(9); out.writeInt(v.length); out.write(v); }
+            case Timestamp v -> { out.writeByte(10); writeString(out, v.toLocalDateTime().toString()); }
+            case LocalDateTime v -> { out.writeByte(10); writeString(out, v.toString()); }
+            case OffsetDateTime v -> { out.writeByte(11); writeString(out, v.toString()); }
+            case java.sql.Date v -> { out.writeByte(12); writeString(out, v.toLocalDate().toString()); }
+            case LocalDate v -> { out.writeByte(12); writeString(out, v.toString()); }
+            case UUID v -> { out.writeByte(13); out.writeLong(v.getMostSignificantBits()); out.writeLong(v.getLeastSignificantBits()); }
+            default -> throw new IllegalStateException("Unsupported journal value type: " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        return switch (in.readByte()) {
+            case 0 -> null;
+            case 1 -> in.readLong();
+            case 2 -> in.readInt();
+            case 3 -> in.readShort();
+            case 4 -> in.readBoolean();
+            case 5 -> in.readDouble();
+            case 6 -> in.readFloat();
+            case 7 -> new BigDecimal(readString(in));
+            case 8 -> readString(in);
+            case 9 -> in.readNBytes(in.readInt());
+            case 10 -> LocalDateTime.parse(readString(in));
+            case 11 -> OffsetDateTime.parse(readString(in));
+            case 12 -> LocalDate.parse(readString(in));
+            case 13 -> new UUID(in.readLong(), in.readLong());
+            default -> throw new IOException("Corrupt journal value tag");
+        };
+    }
+
+    // writeUTF is limited to 64 KB, which TEXT columns can exceed
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,263 @@
+package com.sd.store.typeahead;
+
+import com.sd.store.cache.CacheInvalidationListener;
+import com.sd.store.cache.EntityKey;
+import com.sd.store.model.Product;
+import com.sd.store.service.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Name suggestions for the search box, from a {@link RadixTree} over every product name, every
+ * word start within it and every SKU, so "lamp" finds "Desk Lamp" and "sd-0000" finds products by
+ * SKU. Each node keeps its {@code top-k} products, most stock first, and answers are copied from
+ * there without touching the database.
+ * <p>
+ * The tree is loaded when the application is ready. In between, a changed product is re-read by id
+ * (name, stock and SKU, which is not mapped on {@link Product}), once its transaction commits for a
+ * local {@link ProductChangedEvent} or when the invalidation bus reports a write of another
+ * instance. Commit listeners do not run in commit order, so reads and updates of the tree are
+ * serialized under {@code refreshLock}, which makes the last row applied one read after the last
+ * commit. Changes that commit during the load are queued and replayed. Until loaded,
+ * {@link #suggest} returns {@code null}.
+ */
+@Component
+@ConditionalOnExpression("${store.typeahead.enabled:true} and !${store.sharding.enabled:false}")
+public class ProductTypeahead implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductTypeahead.class);
+
+    private static final String PRODUCT_ENTITY = Product.class.getSimpleName();
+    private static final String SELECT_ALL = "SELECT id, name, sku, quantity FROM products";
+    private static final String SELECT_ONE = "SELECT id, name, quantity, sku FROM products WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int topK;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private RadixTree tree;
+    private final Map<Long, RadixTree.Entry> entries = new HashMap<>();
+    private boolean loading;
+    private final List<Change> pending = new ArrayList<>();
+
+    public ProductTypeahead(JdbcTemplate jdbcTemplate, @Value("${store.typeahead.top-k:10}") int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("store.typeahead.top-k must be at least 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.topK = topK;
+    }
+
+    public record Suggestion(long id, String name, String sku) {
+    }
+
+    // The product as re-read after a write; entry is null once it is gone
+    private record Change(long id, RadixTree.Entry entry) {
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    /**
+     * Up to {@code limit} products with a name, a word in it or a SKU starting with {@code prefix},
+     * ignoring case, most stock first; {@code null} while the tree is still loading.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalizePrefix(prefix);
+        lock.readLock().lock();
+        try {
+            if (tree == null) {
+                return null;
+            }
+            if (key.isEmpty()) {
+                return List.of();
+            }
+            RadixTree.Entry[] top = tree.top(key);
+            int count = Math.min(limit, top.length);
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                suggestions.add(new Suggestion(top[i].id(), top[i].name(), top[i].sku()));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        RadixTree loaded = new RadixTree(topK);
+        Map<Long, RadixTree.Entry> loadedEntries = new HashMap<>();
+        try {
+            jdbcTemplate.query(SELECT_ALL, rs -> {
+                RadixTree.Entry entry = new RadixTree.Entry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getInt(4));
+                loadedEntries.put(entry.id(), entry);
+                for (String key : keys(entry)) {
+                    loaded.add(key, entry);
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                pending.forEach(this::applyLocked);
+                pending.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Failed to load the product typeahead", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            tree = loaded;
+            entries.clear();
+            entries.putAll(loadedEntries);
+            loading = false;
+            pending.forEach(this::applyLocked);
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product typeahead loaded {} names in {} ms", loadedEntries.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        refresh(event.productId());
+    }
+
+    @Override
+    public void onRemoteInvalidation(Set<EntityKey> keys) {
+        for (EntityKey key : keys) {
+            if (!PRODUCT_ENTITY.equals(key.entity())) {
+                continue;
+            }
+            if (key.id() == null) {
+                load();
+                return;
+            }
+            refresh(key.id());
+        }
+    }
+
+    private void refresh(long id) {
+        refreshLock.lock();
+        try {
+            List<RadixTree.Entry> rows = jdbcTemplate.query(SELECT_ONE, (rs, rowNum) -> new RadixTree.Entry(
+                    rs.getLong(1), rs.getString(2), rs.getString(4), rs.getInt(3)), id);
+            apply(new Change(id, rows.isEmpty() ? null : rows.get(0)));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pending.add(change);
+            } else {
+                applyLocked(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(Change change) {
+        if (tree == null) {
+            return;
+        }
+        RadixTree.Entry previous = entries.get(change.id());
+        RadixTree.Entry next = change.entry();
+        if (next != null && next.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            for (String key : keys(previous)) {
+                tree.remove(key, previous.id());
+            }
+            entries.remove(previous.id());
+        }
+        if (next != null) {
+            for (String key : keys(next)) {
+                tree.add(key, next);
+            }
+            entries.put(next.id(), next);
+        }
+    }
+
+    /**
+     * The normalized name, every suffix of it that starts a word and the normalized SKU.
+     */
+    static Set<String> keys(RadixTree.Entry entry) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (entry.sku() != null && !entry.sku().isBlank()) {
+            keys.add(normalizePrefix(entry.sku()).strip());
+        }
+        String normalized = normalizePrefix(entry.name()).strip();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (!Character.isLetterOrDigit(normalized.charAt(i - 1)) && Character.isLetterOrDigit(normalized.charAt(i))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    // Lower case with runs of whitespace collapsed; a trailing space is kept so "desk " skips "desktop"
+    static String normalizePrefix(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(c);
+            }
+        }
+        if (space) {
+            normalized.append(' ');
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+}
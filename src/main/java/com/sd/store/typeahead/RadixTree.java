@@ -0,0 +1,244 @@
+package com.sd.store.typeahead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compressed trie from normalized keys to products, where every node keeps the best {@code k}
+ * products of its subtree. A lookup walks the prefix and returns that list, so its cost depends
+ * on the prefix length only. Adding a product offers it to the lists along its path. Removing one
+ * rebuilds, bottom-up, only the lists along its path that held it, from the children's lists and the
+ * products whose key ends at the node. Not thread-safe; {@link ProductTypeahead} guards it.
+ */
+final class RadixTree {
+
+    /**
+     * Most available stock first, then the oldest product.
+     */
+    static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::quantity).reversed()
+            .thenComparingLong(Entry::id);
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int k;
+    private final Node root = new Node(new char[0]);
+
+    RadixTree(int k) {
+        this.k = k;
+    }
+
+    record Entry(long id, String name, String sku, int quantity) {
+    }
+
+    /**
+     * The best products whose key starts with {@code prefix}, at most {@code k}.
+     */
+    Entry[] top(String prefix) {
+        Node node = root;
+        int matched = 0;
+        while (matched < prefix.length()) {
+            Node child = node.child(prefix.charAt(matched));
+            if (child == null) {
+                return NO_ENTRIES;
+            }
+            int common = commonLength(child.label, prefix, matched);
+            if (matched + common == prefix.length()) {
+                return child.top;
+            }
+            if (common < child.label.length) {
+                return NO_ENTRIES;
+            }
+            matched += common;
+            node = child;
+        }
+        return node.top;
+    }
+
+    void add(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                child = new Node(key.substring(matched).toCharArray());
+                node.addChild(child);
+                matched = key.length();
+            } else {
+                int common = commonLength(child.label, key, matched);
+                if (common < child.label.length) {
+                    child = node.split(child, common);
+                }
+                matched += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.addTerminal(entry);
+        for (Node onPath : path) {
+            onPath.offer(entry, k);
+        }
+    }
+
+    void remove(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null || commonLength(child.label, key, matched) < child.label.length) {
+                return;
+            }
+            matched += child.label.length;
+            node = child;
+            path.add(node);
+        }
+        if (!node.removeTerminal(id)) {
+            return;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node onPath = path.get(i);
+            if (i > 0 && onPath.terminalCount == 0 && onPath.children.length == 0) {
+                path.get(i - 1).removeChild(onPath);
+            } else if (onPath.holds(id)) {
+                onPath.rebuildTop(k);
+            }
+        }
+    }
+
+    private static int commonLength(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] terminals = NO_ENTRIES;
+        private int terminalCount;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        // Children are kept sorted by first character and are few, so a linear scan is enough
+        private Node child(char first) {
+            for (Node child : children) {
+                if (child.label[0] == first) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void addChild(Node child) {
+            int at = 0;
+            while (at < children.length && children[at].label[0] < child.label[0]) {
+                at++;
+            }
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        private void removeChild(Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    Node[] shrunk = new Node[children.length - 1];
+                    System.arraycopy(children, 0, shrunk, 0, i);
+                    System.arraycopy(children, i + 1, shrunk, i, children.length - i - 1);
+                    children = shrunk;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Puts a node for the first {@code length} characters of {@code child}'s label between
+         * this node and {@code child}. The new node covers the same products, so it takes over the list.
+         */
+        private Node split(Node child, int length) {
+            Node middle = new Node(Arrays.copyOf(child.label, length));
+            child.label = Arrays.copyOfRange(child.label, length, child.label.length);
+            middle.children = new Node[] {child};
+            middle.top = child.top;
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = middle;
+                }
+            }
+            return middle;
+        }
+
+        private void addTerminal(Entry entry) {
+            if (terminalCount == terminals.length) {
+                terminals = Arrays.copyOf(terminals, Math.max(2, terminalCount * 2));
+            }
+            terminals[terminalCount++] = entry;
+        }
+
+        private boolean removeTerminal(long id) {
+            for (int i = 0; i < terminalCount; i++) {
+                if (terminals[i].id() == id) {
+                    terminals[i] = terminals[--terminalCount];
+                    terminals[terminalCount] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean holds(long id) {
+            for (Entry entry : top) {
+                if (entry.id() == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // A product reached through several keys of the same subtree is only listed once
+        private void offer(Entry entry, int k) {
+            if (holds(entry.id())) {
+                return;
+            }
+            if (top.length == k && RANKING.compare(entry, top[k - 1]) >= 0) {
+                return;
+            }
+            int at = 0;
+            while (at < top.length && RANKING.compare(top[at], entry) < 0) {
+                at++;
+            }
+            Entry[] next = new Entry[Math.min(top.length + 1, k)];
+            System.arraycopy(top, 0, next, 0, at);
+            next[at] = entry;
+            System.arraycopy(top, at, next, at + 1, next.length - at - 1);
+            top = next;
+        }
+
+        private void rebuildTop(int k) {
+            top = NO_ENTRIES;
+            for (Node child : children) {
+                for (Entry entry : child.top) {
+                    offer(entry, k);
+                }
+            }
+            for (int i = 0; i < terminalCount; i++) {
+                offer(terminals[i], k);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.sd.store.valuation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The valuation inputs of every product as parallel primitive arrays, sorted by id: price in cents,
+ * quantity and a category code. Deleted products keep their slot with category {@link #REMOVED}
+ * until the next full load compacts them away. Not thread-safe; {@link InventoryProjection} guards it.
+ */
+final class InventoryColumns {
+
+    static final int REMOVED = -1;
+
+    long[] ids;
+    long[] cents;
+    int[] quantities;
+    int[] categories;
+    int size;
+    final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+
+    InventoryColumns(int capacity) {
+        int initial = Math.max(capacity, 16);
+        ids = new long[initial];
+        cents = new long[initial];
+        quantities = new int[initial];
+        categories = new int[initial];
+    }
+
+    void put(long id, BigDecimal price, int quantity, String category) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            slot = -slot - 1;
+            insertAt(slot, id);
+        }
+        cents[slot] = toCents(price);
+        quantities[slot] = quantity;
+        categories[slot] = categoryCode(category);
+    }
+
+    void remove(long id) {
+        int slot = slotOf(id);
+        if (slot >= 0) {
+            cents[slot] = 0;
+            quantities[slot] = 0;
+            categories[slot] = REMOVED;
+        }
+    }
+
+    // Loads and new products arrive in id order, so the binary search is skipped for appends
+    private int slotOf(long id) {
+        if (size == 0 || id > ids[size - 1]) {
+            return -size - 1;
+        }
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private void insertAt(int slot, long id) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        int moved = size - slot;
+        if (moved > 0) {
+            System.arraycopy(ids, slot, ids, slot + 1, moved);
+            System.arraycopy(cents, slot, cents, slot + 1, moved);
+            System.arraycopy(quantities, slot, quantities, slot + 1, moved);
+            System.arraycopy(categories, slot, categories, slot + 1, moved);
+        }
+        ids[slot] = id;
+        size++;
+    }
+
+    private int categoryCode(String category) {
+        Integer code = categoryCodes.get(category);
+        if (code == null) {
+            code = categoryNames.size();
+            categoryNames.add(category);
+            categoryCodes.put(category, code);
+        }
+        return code;
+    }
+
+    // The price column is DECIMAL(10,2); an entity holding more digits is rounded the way the database stores it
+    static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
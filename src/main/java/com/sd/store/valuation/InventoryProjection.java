@@ -0,0 +1,271 @@
+package com.sd.store.valuation;
+
+import com.sd.store.cache.CacheInvalidationListener;
+import com.sd.store.cache.EntityKey;
+import com.sd.store.model.Product;
+import com.sd.store.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Keeps {@link InventoryColumns} in step with the products table and values the inventory from it.
+ * <p>
+ * A full load streams the table every {@code full-refresh-interval}. In between, a changed product
+ * is re-read by id, once its transaction commits for a local {@link ProductChangedEvent} or when
+ * the invalidation bus reports a write of another instance. Commit listeners do not run in commit
+ * order, so the values an event carries may be older than a change applied before it; re-reading
+ * and applying one row at a time under {@code refreshLock} makes the last row applied one read
+ * after the last commit. Changes that commit while a full load is running are queued and replayed
+ * onto the new columns, so none is lost to the swap.
+ * <p>
+ * Valuations run in parallel on a dedicated fork-join pool under the read lock; writes wait for
+ * a running valuation to finish.
+ */
+@Component
+@ConditionalOnExpression("${store.valuation.enabled:true} and !${store.sharding.enabled:false}")
+public class InventoryProjection implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryProjection.class);
+
+    private static final String PRODUCT_ENTITY = Product.class.getSimpleName();
+    private static final String SELECT_ALL = "SELECT id, price, quantity, category FROM products ORDER BY id";
+    private static final String SELECT_ONE = "SELECT id, price, quantity, category FROM products WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ForkJoinPool pool;
+    private final Timer valuationTimer;
+    private final StampedLock lock = new StampedLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private InventoryColumns columns;
+    private boolean loading;
+    private final List<ProductChangedEvent> pending = new ArrayList<>();
+    private volatile Instant asOf;
+
+    public InventoryProjection(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                               @Value("${store.valuation.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.valuationTimer = Timer.builder("store.valuation.compute")
+                .description("Time to value the inventory from the in-memory projection")
+                .register(meterRegistry);
+        Gauge.builder("store.valuation.slots", this, projection -> projection.slots())
+                .description("Product slots in the valuation projection, including deleted ones not yet compacted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The current valuation, or {@code null} until the first full load has finished.
+     */
+    public InventoryValuation valuation() {
+        long stamp = lock.readLock();
+        try {
+            if (columns == null) {
+                return null;
+            }
+            long start = System.nanoTime();
+            int categoryCount = columns.categoryNames.size();
+            ValuationTask.Totals totals;
+            try {
+                totals = pool.invoke(new ValuationTask(columns, categoryCount, 0, columns.size));
+            } catch (ArithmeticException e) {
+                logger.warn("Inventory value overflows a long in some category; valuing with BigInteger");
+                return exactValuation(categoryCount);
+            }
+            List<InventoryValuation.CategoryValuation> categories = new ArrayList<>(categoryCount);
+            for (int category = 0; category < categoryCount; category++) {
+                if (totals.products[category] > 0) {
+                    categories.add(new InventoryValuation.CategoryValuation(columns.categoryNames.get(category),
+                            BigDecimal.valueOf(totals.cents[category], 2), totals.units[category],
+                            totals.products[category]));
+                }
+            }
+            InventoryValuation valuation = summarize(categories);
+            valuationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return valuation;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${store.valuation.full-refresh-interval:10m}")
+    public void reload() {
+        int capacity;
+        long stamp = lock.writeLock();
+        try {
+            loading = true;
+            pending.clear();
+            capacity = columns == null ? 1024 : columns.size;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        long start = System.nanoTime();
+        InventoryColumns loaded = new InventoryColumns(capacity);
+        try {
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(SELECT_ALL);
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                loaded.put(rs.getLong(1), rs.getBigDecimal(2), rs.getInt(3), rs.getString(4));
+            });
+        } catch (RuntimeException e) {
+            stamp = lock.writeLock();
+            try {
+                // Keep the current columns and apply what was queued in the meantime
+                loading = false;
+                pending.forEach(this::applyLocked);
+                pending.clear();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            logger.error("Failed to load the inventory valuation projection", e);
+            return;
+        }
+
+        stamp = lock.writeLock();
+        try {
+            pending.forEach(change -> applyTo(loaded, change));
+            pending.clear();
+            columns = loaded;
+            loading = false;
+            asOf = Instant.now();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        logger.info("Inventory valuation projection loaded {} products in {} ms",
+                loaded.size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        refresh(event.productId());
+    }
+
+    @Override
+    public void onRemoteInvalidation(Set<EntityKey> keys) {
+        for (EntityKey key : keys) {
+            if (!PRODUCT_ENTITY.equals(key.entity())) {
+                continue;
+            }
+            if (key.id() == null) {
+                reload();
+                return;
+            }
+            refresh(key.id());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void refresh(Long id) {
+        refreshLock.lock();
+        try {
+            List<ProductChangedEvent> rows = jdbcTemplate.query(SELECT_ONE, (rs, rowNum) -> new ProductChangedEvent(
+                    rs.getLong(1), null, rs.getString(4), rs.getBigDecimal(2), rs.getInt(3)), id);
+            apply(rows.isEmpty() ? new ProductChangedEvent(id, null, null, null, null) : rows.get(0));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void apply(ProductChangedEvent change) {
+        long stamp = lock.writeLock();
+        try {
+            if (loading) {
+                pending.add(change);
+            } else {
+                applyLocked(change);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void applyLocked(ProductChangedEvent change) {
+        if (columns != null) {
+            applyTo(columns, change);
+            asOf = Instant.now();
+        }
+    }
+
+    private static void applyTo(InventoryColumns target, ProductChangedEvent change) {
+        if (change.price() == null || change.quantity() == null) {
+            target.remove(change.productId());
+        } else {
+            target.put(change.productId(), change.price(), change.quantity(), change.category());
+        }
+    }
+
+    private InventoryValuation exactValuation(int categoryCount) {
+        BigInteger[] cents = new BigInteger[categoryCount];
+        long[] units = new long[categoryCount];
+        long[] products = new long[categoryCount];
+        Arrays.fill(cents, BigInteger.ZERO);
+        for (int slot = 0; slot < columns.size; slot++) {
+            int category = columns.categories[slot];
+            if (category != InventoryColumns.REMOVED) {
+                cents[category] = cents[category].add(
+                        BigInteger.valueOf(columns.cents[slot]).multiply(BigInteger.valueOf(columns.quantities[slot])));
+                units[category] += columns.quantities[slot];
+                products[category]++;
+            }
+        }
+        List<InventoryValuation.CategoryValuation> categories = new ArrayList<>(categoryCount);
+        for (int category = 0; category < categoryCount; category++) {
+            if (products[category] > 0) {
+                categories.add(new InventoryValuation.CategoryValuation(columns.categoryNames.get(category),
+                        new BigDecimal(cents[category], 2), units[category], products[category]));
+            }
+        }
+        return summarize(categories);
+    }
+
+    private InventoryValuation summarize(List<InventoryValuation.CategoryValuation> categories) {
+        categories.sort(Comparator.comparing(InventoryValuation.CategoryValuation::value).reversed());
+        BigDecimal totalValue = BigDecimal.ZERO.setScale(2);
+        long totalUnits = 0;
+        long products = 0;
+        for (InventoryValuation.CategoryValuation category : categories) {
+            totalValue = totalValue.add(category.value());
+            totalUnits += category.units();
+            products += category.products();
+        }
+        return new InventoryValuation(totalValue, totalUnits, products, categories, asOf);
+    }
+
+    private int slots() {
+        long stamp = lock.readLock();
+        try {
+            return columns == null ? 0 : columns.size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.sd.store.valuation;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Stock value ({@code price * quantity}) over the whole catalog and per category, largest category first.
+ * {@code asOf} is when the last change was applied to the projection.
+ */
+public record InventoryValuation(
+    BigDecimal totalValue,
+    long totalUnits,
+    long products,
+    List<CategoryValuation> categories,
+    Instant asOf
+) {
+
+    public record CategoryValuation(String category, BigDecimal value, long units, long products) {
+    }
+}
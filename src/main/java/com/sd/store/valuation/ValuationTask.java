@@ -0,0 +1,76 @@
+package com.sd.store.valuation;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sums {@code cents * quantity}, units and products per category over a slot range, splitting in
+ * halves down to {@link #THRESHOLD} slots. All arithmetic on value is overflow checked and throws
+ * {@link ArithmeticException} rather than wrap.
+ */
+final class ValuationTask extends RecursiveTask<ValuationTask.Totals> {
+
+    static final int THRESHOLD = 1 << 15;
+
+    private final InventoryColumns columns;
+    private final int categoryCount;
+    private final int from;
+    private final int to;
+
+    ValuationTask(InventoryColumns columns, int categoryCount, int from, int to) {
+        this.columns = columns;
+        this.categoryCount = categoryCount;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected Totals compute() {
+        if (to - from <= THRESHOLD) {
+            return sum();
+        }
+        int middle = (from + to) >>> 1;
+        ValuationTask left = new ValuationTask(columns, categoryCount, from, middle);
+        left.fork();
+        Totals right = new ValuationTask(columns, categoryCount, middle, to).compute();
+        return left.join().add(right);
+    }
+
+    private Totals sum() {
+        Totals totals = new Totals(categoryCount);
+        long[] cents = columns.cents;
+        int[] quantities = columns.quantities;
+        int[] categories = columns.categories;
+        for (int slot = from; slot < to; slot++) {
+            int category = categories[slot];
+            if (category == InventoryColumns.REMOVED) {
+                continue;
+            }
+            totals.cents[category] = Math.addExact(totals.cents[category], Math.multiplyExact(cents[slot], quantities[slot]));
+            totals.units[category] += quantities[slot];
+            totals.products[category]++;
+        }
+        return totals;
+    }
+
+    static final class Totals {
+
+        final long[] cents;
+        final long[] units;
+        final long[] products;
+
+        Totals(int categoryCount) {
+            cents = new long[categoryCount];
+            units = new long[categoryCount];
+            products = new long[categoryCount];
+        }
+
+        Totals add(Totals other) {
+            for (int category = 0; category < cents.length; category++) {
+                cents[category] = Math.addExact(cents[category], other.cents[category]);
+                units[category] += other.units[category];
+                products[category] += other.products[category];
+            }
+            return this;
+        }
+    }
+}
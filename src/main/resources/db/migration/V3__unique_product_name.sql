@@ -0,0 +1,2 @@
+-- Enforce product name uniqueness in the database so concurrent inserts cannot race
+ALTER TABLE products ADD CONSTRAINT uk_products_name UNIQUE (name);
@@ -0,0 +1,11 @@
+-- Append-only price history: each row is a block of delta-encoded (timestamp, cents) points for one product
+CREATE TABLE price_history_blocks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    first_ts BIGINT NOT NULL,
+    last_ts BIGINT NOT NULL,
+    entry_count INTEGER NOT NULL,
+    data VARBINARY(65535) NOT NULL
+);
+
+CREATE INDEX idx_price_history_product_ts ON price_history_blocks (product_id, first_ts);
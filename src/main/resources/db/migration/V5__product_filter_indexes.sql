@@ -0,0 +1,5 @@
+-- Indexes backing the multi-field product filter
+CREATE INDEX idx_products_category_price ON products (category, price);
+CREATE INDEX idx_products_price ON products (price);
+CREATE INDEX idx_products_quantity ON products (quantity);
+CREATE INDEX idx_products_updated_at ON products (updated_at);
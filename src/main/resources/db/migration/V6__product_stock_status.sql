@@ -0,0 +1,12 @@
+-- Stock status derived from quantity, kept in sync by the application on every quantity write
+ALTER TABLE products ADD COLUMN stock_status VARCHAR(20) NOT NULL DEFAULT 'OUT_OF_STOCK';
+
+UPDATE products SET stock_status = CASE
+    WHEN quantity <= 0 THEN 'OUT_OF_STOCK'
+    WHEN quantity < 5 THEN 'CRITICAL_STOCK'
+    WHEN quantity < 10 THEN 'LOW_STOCK'
+    WHEN quantity > 50 THEN 'OVERSTOCKED'
+    ELSE 'IN_STOCK'
+END;
+
+CREATE INDEX idx_products_stock_status ON products (stock_status, id);
@@ -0,0 +1,10 @@
+-- Outbox for cross-instance cache invalidation; peers poll it and old rows are purged
+CREATE TABLE cache_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    origin VARCHAR(64) NOT NULL,
+    entity VARCHAR(50) NOT NULL,
+    entity_id BIGINT,
+    created_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_cache_invalidations_created_at ON cache_invalidations (created_at);
@@ -0,0 +1,18 @@
+-- Cold tier: stale, out-of-stock products moved out of the hot table. Rows keep their id, so price
+-- history still applies and a restore puts the product back under the same id
+CREATE TABLE products_archive (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description TEXT,
+    price DECIMAL(10,2) NOT NULL,
+    quantity INTEGER NOT NULL,
+    category VARCHAR(50),
+    sku VARCHAR(50),
+    stock_status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_products_archive_name ON products_archive (name);
+CREATE INDEX idx_products_archive_archived_at ON products_archive (archived_at, id);
@@ -0,0 +1,8 @@
+-- Single row that online backups keep committing to, to measure how long writers stall while the
+-- database file is being copied
+CREATE TABLE backup_heartbeat (
+    id INTEGER PRIMARY KEY,
+    beat_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO backup_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP);
@@ -0,0 +1,128 @@
+package com.sd.store.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LowStockAlertEngineTest {
+
+    private MutableClock clock;
+    private StockAlertDispatcher dispatcher;
+    private LowStockAlertEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        LowStockAlertProperties properties = new LowStockAlertProperties(
+                5, Map.of("Electronics", 10), 2, Duration.ofMinutes(10), Duration.ofSeconds(2), 500);
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        dispatcher = new StockAlertDispatcher(new ObjectMapper(), properties);
+        engine = new LowStockAlertEngine(properties, dispatcher, clock);
+    }
+
+    @Test
+    void givenLoopbackWebhook_whenRegistered_thenItIsPinnedToTheResolvedAddress() throws Exception {
+        URI webhook = URI.create("http://localhost:8081/hooks/stock?note=a%20b");
+
+        dispatcher.registerWebhook(webhook);
+
+        assertEquals(Set.of(webhook), dispatcher.getWebhooks());
+        assertEquals(URI.create("http://127.0.0.1:8081/hooks/stock?note=a%20b"), StockAlertDispatcher.withAddress(
+                webhook, InetAddress.getByAddress("localhost", new byte[] {127, 0, 0, 1})));
+        assertEquals(URI.create("http://[0:0:0:0:0:0:0:1]:8081/hooks/stock?note=a%20b"), StockAlertDispatcher.withAddress(
+                webhook, InetAddress.getByAddress("localhost", InetAddress.getByName("::1").getAddress())));
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.registerWebhook(URI.create("http://10.0.0.1/hook")));
+    }
+
+    @Test
+    void givenCategoryThreshold_whenQuantityDropsBelowIt_thenOneLowStockAlertIsRaised() {
+        change(1L, "Electronics", 20, 9);
+        change(2L, "Books", 20, 9);
+        change(1L, "Electronics", 9, 8);
+
+        List<StockAlert> alerts = dispatcher.drainBatch();
+
+        assertEquals(1, alerts.size());
+        assertEquals(StockAlert.Type.LOW_STOCK, alerts.get(0).type());
+        assertEquals(1L, alerts.get(0).productId());
+        assertEquals(10, alerts.get(0).threshold());
+    }
+
+    @Test
+    void givenQuantityBouncingAroundThreshold_whenWithinHysteresis_thenNoExtraAlerts() {
+        change(1L, "Books", 6, 4);
+        change(1L, "Books", 4, 6);
+        change(1L, "Books", 6, 4);
+
+        assertEquals(1, dispatcher.drainBatch().size());
+
+        change(1L, "Books", 4, 7);
+        List<StockAlert> recovered = dispatcher.drainBatch();
+        assertEquals(1, recovered.size());
+        assertEquals(StockAlert.Type.RECOVERED, recovered.get(0).type());
+
+        // A fresh drop inside the cooldown is tracked but not announced
+        change(1L, "Books", 7, 3);
+        assertTrue(dispatcher.drainBatch().isEmpty());
+
+        clock.advance(Duration.ofMinutes(11));
+        change(1L, "Books", 3, 8);
+        change(1L, "Books", 8, 3);
+        assertEquals(StockAlert.Type.LOW_STOCK, dispatcher.drainBatch().get(0).type());
+    }
+
+    @Test
+    void givenLowStockEpisode_whenProductRunsOut_thenEscalationIsAlwaysSent() {
+        change(1L, "Books", 10, 3);
+        change(1L, "Books", 3, 0);
+
+        List<StockAlert> alerts = dispatcher.drainBatch();
+
+        assertEquals(List.of(StockAlert.Type.LOW_STOCK, StockAlert.Type.OUT_OF_STOCK),
+                alerts.stream().map(StockAlert::type).toList());
+    }
+
+    private void change(Long id, String category, int oldQuantity, int newQuantity) {
+        engine.onQuantityChanged(new ProductQuantityChangedEvent(id, "Product " + id, category, oldQuantity, newQuantity));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.sd.store.archive;
+
+import com.sd.store.model.Product;
+import com.sd.store.repository.ProductRepository;
+import com.sd.store.service.ProductService;
+import com.sd.store.typeahead.ProductTypeahead;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product_archive;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "store.catalog-snapshot.enabled=false",
+        "store.archive.stale-after=30d",
+        "store.archive.batch-size=2",
+        "store.archive.initial-delay=1h"
+})
+class ProductArchiveIntegrationTest {
+
+    @Autowired
+    private ProductArchive productArchive;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductTypeahead productTypeahead;
+
+    @Test
+    void givenStaleOutOfStockProducts_whenArchived_thenByIdReadsStillFindThemAndRestoreBringsThemBack() {
+        Product staleA = save("Archive Stale A", 0, 400);
+        Product staleB = save("Archive Stale B", 0, 90);
+        Product staleC = save("Archive Stale C", 0, 31);
+        jdbcTemplate.update("UPDATE products SET sku = 'ARC-B-001', updated_at = updated_at WHERE id = ?", staleB.getId());
+        Product recent = save("Archive Recent", 0, 5);
+        Product stocked = save("Archive Stocked", 3, 400);
+        long archivedBefore = archivedCount();
+
+        assertEquals(3, productArchive.archiveStale());
+
+        assertFalse(productRepository.existsById(staleA.getId()));
+        assertFalse(productRepository.existsById(staleC.getId()));
+        assertTrue(productRepository.existsById(recent.getId()));
+        assertTrue(productRepository.existsById(stocked.getId()));
+        assertEquals("Archive Stale B", productService.findProductById(staleB.getId()).orElseThrow().getName());
+        assertEquals(archivedBefore + 3, archivedCount());
+
+        Product restored = productArchive.restore(staleB.getId());
+
+        assertEquals(staleB.getId(), restored.getId());
+        assertTrue(productRepository.existsById(staleB.getId()));
+        assertTrue(restored.getUpdatedAt().isAfter(LocalDateTime.now().minusMinutes(1)));
+        assertEquals(0, productArchive.archiveStale());
+        assertEquals(archivedBefore + 2, archivedCount());
+        assertEquals("ARC-B-001", productTypeahead.suggest("arc-b", 5).get(0).sku());
+    }
+
+    @Test
+    void givenArchivedName_whenAddingOrRestoring_thenNameStaysWithTheArchivedProduct() {
+        Product stale = save("Archive Conflict", 0, 100);
+        productArchive.archiveStale();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.addProduct(
+                new Product("Archive Conflict", "Archive test product", new BigDecimal("12.00"), 8, "Archive")));
+
+        // Written past the service, as another instance or direct SQL could
+        save("Archive Conflict", 8, 0);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> productArchive.restore(stale.getId()));
+
+        assertEquals("Product with name 'Archive Conflict' already exists", exception.getMessage());
+        assertTrue(productArchive.findById(stale.getId()).isPresent());
+    }
+
+    private long archivedCount() {
+        return productArchive.findArchived(PageRequest.of(0, 10)).getTotalElements();
+    }
+
+    private Product save(String name, int quantity, int daysSinceUpdate) {
+        Product product = productRepository.save(new Product(name, "Archive test product", new BigDecimal("12.00"),
+                quantity, "Archive"));
+        jdbcTemplate.update("UPDATE products SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysSinceUpdate)), product.getId());
+        return product;
+    }
+}
@@ -0,0 +1,113 @@
+package com.sd.store.backup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OnlineBackupServiceTest {
+
+    private static final String SCHEMA = """
+            CREATE TABLE products (
+                id BIGINT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL,
+                description VARCHAR(1000),
+                quantity INTEGER NOT NULL
+            );
+            CREATE TABLE backup_heartbeat (id INTEGER PRIMARY KEY, beat_at TIMESTAMP NOT NULL);
+            INSERT INTO backup_heartbeat VALUES (1, LOCALTIMESTAMP)""";
+
+    @TempDir
+    private Path dir;
+
+    private JdbcTemplate jdbc;
+    private SimpleMeterRegistry meterRegistry;
+    private OnlineBackupService backupService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:file:" + dir.resolve("db/store_db").toAbsolutePath(), "sa", "secret");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(SCHEMA);
+        insertProducts(1, 5_000);
+        meterRegistry = new SimpleMeterRegistry();
+        backupService = new OnlineBackupService(jdbc, dataSource, meterRegistry, dir.resolve("backups"),
+                DataSize.ofKilobytes(4));
+    }
+
+    @Test
+    void givenFullAndIncrementalBackups_whenRestored_thenDatabaseMatchesTheIncremental() throws Exception {
+        BackupManifest full = backupService.backup(BackupManifest.Type.FULL);
+        jdbc.update("UPDATE products SET quantity = 0 WHERE id <= 100");
+        insertProducts(5_001, 5_200);
+        BackupManifest incremental = backupService.backup(BackupManifest.Type.INCREMENTAL);
+        jdbc.update("DELETE FROM products WHERE id > 1000");
+
+        assertEquals(BackupManifest.Type.INCREMENTAL, incremental.type());
+        assertEquals(full.id(), incremental.base());
+        assertTrue(incremental.changedBlocks() < incremental.blocks() / 2,
+                incremental.changedBlocks() + " of " + incremental.blocks() + " blocks changed");
+        assertTrue(incremental.storedBytes() < full.storedBytes());
+        assertEquals(List.of(full, incremental), backupService.list());
+        assertEquals(2, meterRegistry.get("store.backup.pause").timer().count());
+        assertEquals(1, meterRegistry.get("store.backup.duration").tag("type", "incremental").timer().count());
+        assertTrue(meterRegistry.get("store.backup.throughput").summary().totalAmount() > 0);
+
+        Path target = dir.resolve("db/store_db.mv.db");
+        BackupRestore restore = new BackupRestore(dir.resolve("backups"));
+        try (Connection open = jdbc.getDataSource().getConnection()) {
+            IllegalStateException inUse = assertThrows(IllegalStateException.class,
+                    () -> restore.restore("latest", target, true, "sa", "secret"));
+            assertTrue(inUse.getMessage().contains("in use"), inUse.getMessage());
+        }
+        assertThrows(IllegalStateException.class, () -> restore.restore("latest", target, false, "sa", "secret"));
+        BackupRestore.Verified restored = restore.restore("latest", target, true, "sa", "secret");
+
+        assertEquals(5_200, restored.products());
+        assertEquals(incremental.sha256(), BackupRestore.sha256(target));
+        assertTrue(Files.exists(target.resolveSibling("store_db.mv.db.before-restore-" + incremental.id())));
+        assertEquals(100, jdbc.queryForObject("SELECT COUNT(*) FROM products WHERE quantity = 0", Integer.class));
+        assertEquals(5_200, jdbc.queryForObject("SELECT MAX(id) FROM products", Integer.class));
+    }
+
+    @Test
+    void givenDamagedIncremental_whenRestored_thenTargetIsLeftAlone() throws Exception {
+        backupService.backup(BackupManifest.Type.INCREMENTAL);
+        jdbc.update("UPDATE products SET quantity = quantity + 1 WHERE id <= 500");
+        BackupManifest incremental = backupService.backup(BackupManifest.Type.INCREMENTAL);
+        Path target = dir.resolve("db/store_db.mv.db");
+        String before = BackupRestore.sha256(target);
+
+        Path changed = dir.resolve("backups").resolve(incremental.id()).resolve(BackupManifest.CHANGED_BLOCKS);
+        byte[] bytes = Files.readAllBytes(changed);
+        Files.write(changed, Arrays.copyOf(bytes, bytes.length / 2));
+
+        BackupRestore restore = new BackupRestore(dir.resolve("backups"));
+        assertThrows(Exception.class, () -> restore.restore(incremental.id(), target, true, "sa", "secret"));
+        assertEquals(before, BackupRestore.sha256(target));
+        try (var files = Files.list(target.getParent())) {
+            assertEquals(List.of(), files.filter(file -> file.toString().contains("restore")).toList());
+        }
+    }
+
+    private void insertProducts(int from, int to) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = from; id <= to; id++) {
+            rows.add(new Object[] {id, "Product " + id, "Backup test product number " + id + " ".repeat(200), 10});
+        }
+        jdbc.batchUpdate("INSERT INTO products (id, name, description, quantity) VALUES (?, ?, ?, ?)", rows);
+    }
+}
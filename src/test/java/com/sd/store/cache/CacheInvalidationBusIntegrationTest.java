@@ -0,0 +1,97 @@
+package com.sd.store.cache;
+
+import com.sd.store.StoreManagementApiApplication;
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.model.Product;
+import com.sd.store.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application instances sharing one H2 server, each with its own product query cache.
+ */
+class CacheInvalidationBusIntegrationTest {
+
+    private static Server h2Server;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        h2Server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + port + "/mem:invalidation_bus;DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url);
+        nodeB = startNode(url);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (h2Server != null) {
+            h2Server.stop();
+        }
+    }
+
+    @Test
+    void givenCachedQueryOnNodeB_whenNodeAChangesPrice_thenNodeBServesNewPrice() throws Exception {
+        ProductService serviceA = nodeA.getBean(ProductService.class);
+        ProductService serviceB = nodeB.getBean(ProductService.class);
+        Product product = serviceA.addProduct(new Product("Bus Test Lamp", "Lamp used by the bus test",
+                new BigDecimal("40.00"), 10, "Home"));
+        ProductFilter filter = new ProductFilter(null, "Bus Test", null, null, null, null, null);
+
+        waitForPrice(serviceB, filter, "40.00");
+        serviceA.changePrice(product.getId(), new BigDecimal("35.00"));
+
+        waitForPrice(serviceB, filter, "35.00");
+        assertTrue(nodeB.getBean(MeterRegistry.class).get("store.cache.invalidation.received").counter().count() > 0);
+    }
+
+    private static void waitForPrice(ProductService service, ProductFilter filter, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        BigDecimal price = null;
+        while (System.currentTimeMillis() < deadline) {
+            price = service.filterProducts(filter, PageRequest.of(0, 10)).getContent().stream()
+                    .map(ProductDTO::price)
+                    .findFirst()
+                    .orElse(null);
+            if (price != null && price.compareTo(new BigDecimal(expected)) == 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Expected price " + expected + " but node served " + price);
+    }
+
+    private static ConfigurableApplicationContext startNode(String url) {
+        // Passed as arguments: builder properties are only defaults and lose to application.properties
+        return new SpringApplicationBuilder(StoreManagementApiApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--store.cache.invalidation.flush-interval=50ms",
+                        "--store.cache.invalidation.poll-interval=100ms",
+                        "--store.cache.invalidation.settle=500ms",
+                        "--store.product-query-cache.ttl=10m");
+    }
+}
@@ -0,0 +1,154 @@
+package com.sd.store.catalog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.model.StockStatus;
+import com.sun.management.ThreadMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private static final String SCHEMA = """
+            CREATE TABLE products (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL,
+                description TEXT,
+                price DECIMAL(10,2) NOT NULL,
+                quantity INTEGER NOT NULL,
+                category VARCHAR(50),
+                stock_status VARCHAR(20) NOT NULL,
+                created_at TIMESTAMP,
+                updated_at TIMESTAMP
+            )""";
+
+    @TempDir
+    Path dir;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:catalog_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(SCHEMA);
+        insert(5, "Lamp \"Arc\" ü", "Reading lamp\nwith dimmer", "19.99", 0, "Home", LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        insert(9, "Rocket 🚀", null, "1000.00", 7, null, LocalDateTime.of(2024, 12, 31, 23, 59, 0, 500_000_000));
+        insert(12, "Desk", "Standing desk", "250.50", 60, "Office", null);
+        insert(40, "Chair", "", "0.05", 3, "Office", LocalDateTime.of(1999, 6, 15, 0, 0, 0, 123_456_000));
+    }
+
+    @Test
+    void givenProducts_whenSnapshotWritten_thenLookupsMatchTable() throws Exception {
+        CatalogSnapshot snapshot = write();
+
+        assertEquals(4, snapshot.size());
+        assertEquals(2, snapshot.find(12));
+        assertEquals(-1, snapshot.find(10));
+        assertEquals(-1, snapshot.find(41));
+        assertEquals("Office", snapshot.category(2));
+        assertSame(snapshot.category(2), snapshot.category(3));
+        assertNull(snapshot.category(1));
+        assertEquals(1, snapshot.count(StockStatus.CRITICAL_STOCK));
+        assertEquals(0, snapshot.count(StockStatus.IN_STOCK));
+        assertEquals(40L, snapshot.id(snapshot.rowWithStatus(StockStatus.CRITICAL_STOCK, 0)));
+        assertEquals(new ProductDTO(9L, "Rocket 🚀", null, new BigDecimal("1000.00"), 7, null, StockStatus.LOW_STOCK,
+                LocalDateTime.of(2023, 5, 6, 7, 8, 9, 1000), LocalDateTime.of(2024, 12, 31, 23, 59, 0, 500_000_000)),
+                snapshot.toDTO(1));
+    }
+
+    @Test
+    void givenSnapshotRows_whenSerialized_thenSameJsonAsProductDTO() throws Exception {
+        CatalogSnapshot snapshot = write();
+        List<ProductDTO> dtos = snapshot.products(0, snapshot.size()).stream()
+                .map(product -> snapshot.toDTO(product.row()))
+                .toList();
+
+        ObjectMapper bootDefaults = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        ObjectMapper nonNull = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL).build();
+        for (ObjectMapper mapper : List.of(bootDefaults, nonNull)) {
+            assertEquals(mapper.writeValueAsString(dtos), mapper.writeValueAsString(snapshot.products(0, snapshot.size())));
+        }
+        assertTrue(bootDefaults.writeValueAsString(snapshot.products(1, 2)).contains("\"name\":\"Rocket 🚀\""));
+    }
+
+    @Test
+    void givenSnapshot_whenLookingUpIds_thenNothingIsAllocated() throws Exception {
+        CatalogSnapshot snapshot = write();
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long checksum = 0;
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            int row = snapshot.find(i % 50);
+            if (row >= 0) {
+                checksum += snapshot.quantity(row) + snapshot.stockStatus(row).ordinal() + (snapshot.category(row) == null ? 0 : 1);
+            }
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(checksum > 0);
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void givenStore_whenCatalogChangesOrAges_thenVersionsSwitchAndStaleSnapshotsAreWithheld() throws Exception {
+        CatalogSnapshotStore store = new CatalogSnapshotStore(dataSource, new SimpleMeterRegistry(),
+                dir.resolve("catalog").toString(), Duration.ofMillis(400));
+        assertNull(store.current());
+
+        store.refresh();
+        CatalogSnapshot first = store.current();
+        assertEquals(4, first.size());
+        store.refresh();
+        assertSame(first, store.current());
+
+        insert(41, "Shelf", "Wall shelf", "35.00", 20, "Home", LocalDateTime.of(2025, 3, 1, 8, 0));
+        store.refresh();
+        CatalogSnapshot second = store.current();
+        assertEquals(first.version() + 1, second.version());
+        assertEquals(4, second.find(41));
+        // Readers holding the first version keep a usable mapping
+        assertEquals(12L, first.id(first.find(12)));
+
+        Thread.sleep(500);
+        assertNull(store.current());
+        store.refresh();
+        assertNotNull(store.current());
+    }
+
+    private CatalogSnapshot write() throws Exception {
+        Path file = dir.resolve("catalog.bin");
+        try (var connection = dataSource.getConnection()) {
+            CatalogSnapshotWriter.write(connection, file, 1, System.currentTimeMillis());
+        }
+        return CatalogSnapshot.open(file);
+    }
+
+    private void insert(long id, String name, String description, String price, int quantity, String category,
+                        LocalDateTime updatedAt) {
+        jdbc.update("INSERT INTO products (id, name, description, price, quantity, category, stock_status, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, name, description, new BigDecimal(price), quantity, category,
+                StockStatus.fromQuantity(quantity).name(), LocalDateTime.of(2023, 5, 6, 7, 8, 9, 1000), updatedAt);
+    }
+}
@@ -0,0 +1,83 @@
+package com.sd.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePoolControllerTest {
+
+    private HikariDataSource pool;
+    private ConnectionTrackingDataSource tracker;
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptivePoolController controller;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:adaptive_pool;DB_CLOSE_DELAY=-1");
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(5000);
+        tracker = new ConnectionTrackingDataSource(pool);
+        meterRegistry = new SimpleMeterRegistry();
+        AdaptivePoolController.Settings settings = new AdaptivePoolController.Settings(1, 4, Duration.ofMillis(20),
+                2.0, 2, 0.5, 1, Duration.ofMillis(50));
+        controller = new AdaptivePoolController(pool, tracker, settings, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        tracker.close();
+        assertTrue(pool.isClosed(), "closing the tracker closes the pool it replaced");
+    }
+
+    @Test
+    void givenCallersQueueing_whenAdjusting_thenPoolGrowsAndLongHoldersAreReported() throws Exception {
+        Connection first = tracker.getConnection();
+        Connection second = tracker.getConnection();
+        CompletableFuture<Connection> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return tracker.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (pool.getHikariPoolMXBean().getThreadsAwaitingConnection() == 0) {
+            Thread.sleep(5);
+        }
+
+        Thread.sleep(60);
+        controller.adjust();
+
+        assertEquals(4, pool.getMaximumPoolSize());
+        assertEquals(2, meterRegistry.get("store.db.pool.long_held").counter().count());
+
+        // Hikari only opens a connection for a lone waiter on its housekeeping run, so hand one over
+        first.close();
+        Connection third = queued.get(5, TimeUnit.SECONDS);
+        second.close();
+        third.close();
+        // The queued borrow still counts against this interval; the next one is idle
+        controller.adjust();
+        controller.adjust();
+
+        assertEquals(3, pool.getMaximumPoolSize());
+        assertTrue(tracker.leases().isEmpty());
+    }
+
+    @Test
+    void givenInflatedHoldTime_whenCallersQueue_thenPoolShrinksInsteadOfGrowing() {
+        assertEquals(AdaptivePoolController.Decision.GROW, controller.decide(2, 1, 2, 50, 10));
+        assertEquals(AdaptivePoolController.Decision.SHRINK_LATENCY, controller.decide(2, 1, 2, 50, 40));
+        assertEquals(AdaptivePoolController.Decision.HOLD, controller.decide(2, 0, 2, 0, 10));
+    }
+}
@@ -0,0 +1,142 @@
+package com.sd.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String SCHEMA = "CREATE TABLE IF NOT EXISTS products (id BIGINT PRIMARY KEY, name VARCHAR(100))";
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        primaryJdbc.execute(SCHEMA);
+        replicaJdbc.execute(SCHEMA);
+
+        DataSource replicaIfExists = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;IFEXISTS=TRUE", "sa", "");
+        routingDataSource = new ReadWriteRoutingDataSource(primary, List.of(replicaIfExists), Duration.ofMinutes(1), 1);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbc = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void givenReadOnlyTransaction_whenQuerying_thenReplicaIsUsed() {
+        assertEquals("ROUTING_REPLICA", currentDatabase(readTx));
+        assertEquals("ROUTING_PRIMARY", currentDatabase(writeTx));
+    }
+
+    @Test
+    void givenRecentWrite_whenSamePrincipalReads_thenPrimaryIsUsedUntilReplicaCatchesUp() {
+        authenticate("manager");
+        writeTx.executeWithoutResult(status -> jdbc.update("INSERT INTO products VALUES (1, 'Laptop')"));
+
+        assertEquals(1, countProducts(readTx));
+
+        authenticate("employee");
+        assertEquals(0, countProducts(readTx));
+
+        syncReplica();
+        assertEquals(1, countProducts(readTx));
+    }
+
+    @Test
+    void givenReplicaDown_whenReading_thenPrimaryIsUsedAndReplicaLeavesRotation() {
+        replicaJdbc.execute("SHUTDOWN");
+
+        assertEquals("ROUTING_PRIMARY", currentDatabase(readTx));
+        routingDataSource.checkReplicaHealth();
+        assertEquals(0, routingDataSource.healthyReplicaCount());
+
+        replicaJdbc.execute(SCHEMA);
+        routingDataSource.checkReplicaHealth();
+        assertEquals(1, routingDataSource.healthyReplicaCount());
+        assertEquals("ROUTING_REPLICA", currentDatabase(readTx));
+    }
+
+    @Test
+    void givenPools_whenClosed_thenEveryPoolIsClosedEvenIfOneFails() {
+        HikariDataSource primary = pool("routing_close_primary");
+        HikariDataSource failing = new HikariDataSource() {
+            @Override
+            public void close() {
+                super.close();
+                throw new IllegalStateException("close failed");
+            }
+        };
+        failing.setJdbcUrl("jdbc:h2:mem:routing_close_failing");
+        HikariDataSource replica = pool("routing_close_replica");
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(
+                primary, List.of(failing, replica), Duration.ofMinutes(1), 1);
+
+        Exception thrown = assertThrows(IllegalStateException.class, dataSource::close);
+
+        assertEquals("close failed", thrown.getMessage());
+        assertTrue(primary.isClosed());
+        assertTrue(failing.isClosed());
+        assertTrue(replica.isClosed());
+    }
+
+    private static HikariDataSource pool(String database) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + database);
+        return pool;
+    }
+
+    private String currentDatabase(TransactionTemplate tx) {
+        return tx.execute(status -> jdbc.queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private Integer countProducts(TransactionTemplate tx) {
+        return tx.execute(status -> jdbc.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+    }
+
+    private void syncReplica() {
+        replicaJdbc.update("DELETE FROM products");
+        primaryJdbc.query("SELECT id, name FROM products", rs -> {
+            replicaJdbc.update("INSERT INTO products VALUES (?, ?)", rs.getLong("id"), rs.getString("name"));
+        });
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
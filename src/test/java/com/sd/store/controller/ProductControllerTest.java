@@ -2,19 +2,27 @@ package com.sd.store.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sd.store.dto.ProductDTO;
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.dto.ProductPatch;
 import com.sd.store.model.Product;
+import com.sd.store.model.StockStatus;
 import com.sd.store.service.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -133,6 +141,90 @@ class ProductControllerTest {
        verify(productService, times(1)).updateProduct(eq(1L), any(Product.class));
    }
 
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void givenMergePatch_whenManagerPatchesProduct_thenOnlySuppliedFieldsArePassedOn() throws Exception {
+        testProduct.setQuantity(4);
+        when(productService.patchProduct(1L, new ProductPatch(null, null, null, 4, null))).thenReturn(testProduct);
+
+        mockMvc.perform(patch("/api/products/1")
+                .contentType(ProductPatch.MEDIA_TYPE)
+                .content("{\"quantity\": 4}")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(4))
+                .andExpect(jsonPath("$.description").value("Test Description"));
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    void givenInvalidOrReadOnlyFields_whenPatchingProduct_thenBadRequestIsReturned() throws Exception {
+        mockMvc.perform(patch("/api/products/1")
+                .contentType(ProductPatch.MEDIA_TYPE)
+                .content("{\"quantity\": -1, \"category\": \"Home 2\"}")
+                .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.quantity").value("Quantity cannot be negative"))
+                .andExpect(jsonPath("$.validationErrors.category").exists())
+                .andExpect(jsonPath("$.validationErrors.name").doesNotExist());
+
+        for (String body : List.of("{\"id\": 2}", "{\"description\": null}", "{\"quantity\": 1.5}", "[]")) {
+            mockMvc.perform(patch("/api/products/1")
+                    .contentType(ProductPatch.MEDIA_TYPE)
+                    .content(body)
+                    .with(csrf()))
+                    .andExpect(status().isBadRequest());
+        }
+
+        verify(productService, never()).patchProduct(anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "EMPLOYEE")
+    void givenFilterParameters_whenFilteringProducts_thenMatchingPageIsReturned() throws Exception {
+        ProductFilter expectedFilter = new ProductFilter("Electronics", null, new BigDecimal("50"),
+                new BigDecimal("150"), null, null, null);
+        when(productService.filterProducts(eq(expectedFilter), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(ProductDTO.fromProduct(testProduct))));
+
+        mockMvc.perform(get("/api/products/filter")
+                .param("category", "Electronics")
+                .param("minPrice", "50")
+                .param("maxPrice", "150")
+                .param("sortBy", "price")
+                .param("sortDir", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(testProduct.getName()));
+
+        verify(productService, times(1)).filterProducts(eq(expectedFilter),
+                eq(PageRequest.of(0, 10, Sort.by("price").descending())));
+    }
+
+    @Test
+    @WithMockUser(roles = "EMPLOYEE")
+    void givenUnknownSortField_whenFilteringProducts_thenBadRequestIsReturned() throws Exception {
+        mockMvc.perform(get("/api/products/filter").param("sortBy", "description"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).filterProducts(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "EMPLOYEE")
+    void givenStatusParameter_whenListingProducts_thenProductsWithThatStatusAreReturned() throws Exception {
+        testProduct.setQuantity(7);
+        when(productService.findProductsByStockStatus(eq(StockStatus.LOW_STOCK), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(ProductDTO.fromProduct(testProduct))));
+
+        mockMvc.perform(get("/api/products").param("status", "LOW_STOCK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].quantity").value(7));
+
+        verify(productService, times(1)).findProductsByStockStatus(StockStatus.LOW_STOCK,
+                PageRequest.of(0, 20, Sort.by("id").ascending()));
+        verify(productService, never()).findAllProducts();
+    }
+
     @Test
     void givenNoAuthentication_whenAccessingEndpoint_thenUnauthorizedIsReturned() throws Exception {
         mockMvc.perform(get("/api/products/1"))
@@ -0,0 +1,205 @@
+package com.sd.store.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd.store.dto.ProductDTO;
+import com.sd.store.model.Product;
+import com.sd.store.repository.ProductRepository;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Fails the build when a {@link ProductController} or {@link SummaryController} endpoint runs more JDBC
+ * statements per request than its entry in {@code query-budgets/<Controller>.properties} allows.
+ * <p>
+ * Every request goes through HTTP basic authentication, so the counts include the user lookup. A new
+ * endpoint needs both a scenario below and a budget entry before this test passes again.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "store.admission.enabled=false",
+        "store.datasource.pool.adaptive.enabled=false",
+        "store.catalog-snapshot.enabled=false"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetTest.class);
+
+    private static final List<Class<?>> BUDGETED_CONTROLLERS = List.of(ProductController.class, SummaryController.class);
+
+    private static final AtomicInteger PRODUCT_NUMBER = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    /**
+     * One request per endpoint, keyed by handler method name. The argument is the id of a product
+     * created for the scenario before counting starts.
+     */
+    private Map<String, Scenario> scenarios() {
+        return Map.ofEntries(
+                Map.entry("addProduct", new Scenario(201, id -> post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(ProductDTO.forCreation(uniqueName(), "Added by the budget test",
+                                new BigDecimal("15.00"), 12, "Budget"))))),
+                Map.entry("getAllProducts", new Scenario(200, id -> get("/api/products"))),
+                Map.entry("getProductsByStockStatus", new Scenario(200, id -> get("/api/products")
+                        .param("status", "IN_STOCK"))),
+                Map.entry("getStockStatusCounts", new Scenario(200, id -> get("/api/products/status-counts"))),
+                Map.entry("getAllProductsPaginated", new Scenario(200, id -> get("/api/products/paginated")
+                        .param("sortBy", "price").param("sortDir", "desc"))),
+                Map.entry("getProductById", new Scenario(200, id -> get("/api/products/{id}", id))),
+                Map.entry("getProductStatus", new Scenario(200, id -> get("/api/products/{id}/status", id))),
+                Map.entry("searchProducts", new Scenario(200, id -> get("/api/products/search")
+                        .param("name", "budget"))),
+                Map.entry("suggestProducts", new Scenario(200, id -> get("/api/products/typeahead")
+                        .param("q", "budget pro"))),
+                Map.entry("searchProductsPaginated", new Scenario(200, id -> get("/api/products/search/paginated")
+                        .param("name", "budget"))),
+                Map.entry("filterProducts", new Scenario(200, id -> get("/api/products/filter")
+                        .param("category", "Budget").param("minPrice", "1"))),
+                Map.entry("updateProduct", new Scenario(200, id -> put("/api/products/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(ProductDTO.forCreation(uniqueName(), "Updated by the budget test",
+                                new BigDecimal("18.00"), 3, "Budget"))))),
+                Map.entry("patchProduct", new Scenario(200, id -> patch("/api/products/{id}", id)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"quantity\": 7}"))),
+                Map.entry("changePrice", new Scenario(200, id -> patch("/api/products/{id}/price", id)
+                        .param("price", "12.50"))),
+                Map.entry("deleteProduct", new Scenario(204, id -> delete("/api/products/{id}", id))),
+                Map.entry("getSummary", new Scenario(200, id -> get("/api/summary/")))
+        );
+    }
+
+    @TestFactory
+    Stream<DynamicTest> givenEndpoint_whenRequested_thenStatementCountStaysWithinBudget() {
+        StatementCountingDataSource counter = unwrapCounter();
+        Map<String, Scenario> scenarios = scenarios();
+        return handlerMapping.getHandlerMethods().values().stream()
+                .filter(handler -> BUDGETED_CONTROLLERS.contains(handler.getBeanType()))
+                .map(HandlerMethod::getMethod)
+                .sorted(Comparator.comparing((Method method) -> method.getDeclaringClass().getSimpleName())
+                        .thenComparing(Method::getName))
+                .map(method -> DynamicTest.dynamicTest(
+                        method.getDeclaringClass().getSimpleName() + "." + method.getName(),
+                        () -> assertWithinBudget(counter, method, scenarios.get(method.getName()))));
+    }
+
+    private void assertWithinBudget(StatementCountingDataSource counter, Method method, Scenario scenario)
+            throws Exception {
+        String endpoint = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        assertNotNull(scenario, "No query budget scenario for " + endpoint);
+        int budget = budget(method);
+
+        Product product = productRepository.save(new Product(uniqueName(), "Created by the budget test",
+                new BigDecimal("20.00"), 40, "Budget"));
+        MockHttpServletRequestBuilder request = scenario.request().apply(product.getId())
+                .with(httpBasic("admin", "admin123"));
+
+        counter.start();
+        int status;
+        List<String> statements;
+        try {
+            status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        } finally {
+            statements = counter.stop();
+        }
+
+        logger.info("{} ran {} of {} budgeted statements", endpoint, statements.size(), budget);
+        assertEquals(scenario.expectedStatus(), status, endpoint + " answered with an unexpected status");
+        assertTrue(statements.size() <= budget, () -> endpoint + " ran " + statements.size()
+                + " statements, over its budget of " + budget + ":\n  " + String.join("\n  ", statements));
+    }
+
+    private StatementCountingDataSource unwrapCounter() {
+        try {
+            return dataSource.unwrap(StatementCountingDataSource.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("The datasource is not wrapped for statement counting", e);
+        }
+    }
+
+    private static int budget(Method method) throws IOException {
+        String file = "query-budgets/" + method.getDeclaringClass().getSimpleName() + ".properties";
+        Properties budgets = PropertiesLoaderUtils.loadProperties(new ClassPathResource(file));
+        String budget = budgets.getProperty(method.getName());
+        assertNotNull(budget, "No query budget for " + method.getName() + " in " + file);
+        return Integer.parseInt(budget.trim());
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String uniqueName() {
+        return "Budget Product " + PRODUCT_NUMBER.incrementAndGet();
+    }
+
+    private record Scenario(int expectedStatus, Function<Long, MockHttpServletRequestBuilder> request) {}
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && beanName.equals("dataSource")
+                            ? new StatementCountingDataSource(target) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.sd.store.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sd.store.model.StockStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductDTOSerializerTest {
+
+    private static final List<String> PRICES = List.of("99.99", "0.05", "-3.10", "100", "0", "1E+3", "0.0000001",
+            "123456789012345678.9", "12.345678");
+    private static final List<LocalDateTime> TIMESTAMPS = List.of(
+            LocalDateTime.of(2024, 1, 2, 3, 4, 5),
+            LocalDateTime.of(2024, 12, 31, 23, 59, 0, 500_000_000),
+            LocalDateTime.of(1999, 6, 15, 0, 0, 0, 123_456_000),
+            LocalDateTime.of(2030, 2, 28, 12, 30, 45, 1),
+            LocalDateTime.of(10_000, 1, 1, 0, 0));
+
+    @Test
+    void givenVariedProducts_whenSerialized_thenMatchesReflectiveSerializer() throws Exception {
+        ObjectMapper lean = bootDefaults().build();
+        ObjectMapper reflective = bootDefaults().mixIn(ProductDTO.class, ReflectiveSerialization.class).build();
+
+        for (int i = 0; i < PRICES.size(); i++) {
+            LocalDateTime timestamp = TIMESTAMPS.get(i % TIMESTAMPS.size());
+            ProductDTO product = new ProductDTO((long) i, "Lamp \"" + i + "\" ü", i % 2 == 0 ? null : "A lamp\nfor reading",
+                    new BigDecimal(PRICES.get(i)), i, "Home", StockStatus.values()[i % StockStatus.values().length],
+                    timestamp, i % 3 == 0 ? null : timestamp.plusNanos(i * 1000L));
+
+            assertEquals(reflective.writeValueAsString(product), lean.writeValueAsString(product), PRICES.get(i));
+        }
+    }
+
+    @Test
+    void givenNonDefaultMapperSettings_whenSerialized_thenStillMatchesReflectiveSerializer() throws Exception {
+        ProductDTO product = new ProductDTO(7L, "Desk", null, new BigDecimal("250.00"), 3, null, StockStatus.LOW_STOCK,
+                LocalDateTime.of(2024, 5, 6, 7, 8, 9), null);
+        Jackson2ObjectMapperBuilder settings = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_ENUMS_USING_INDEX);
+
+        String lean = settings.build().writeValueAsString(product);
+        String reflective = settings.mixIn(ProductDTO.class, ReflectiveSerialization.class).build().writeValueAsString(product);
+
+        assertEquals(reflective, lean);
+        assertFalse(lean.contains("null"));
+    }
+
+    // Spring Boot writes dates as ISO strings; the plain builder does not
+    private static Jackson2ObjectMapperBuilder bootDefaults() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class ReflectiveSerialization {
+    }
+}
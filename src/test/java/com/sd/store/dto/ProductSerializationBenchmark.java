@@ -0,0 +1,81 @@
+package com.sd.store.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.sd.store.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Bytes allocated and time per serialized product for the entity, the reflective DTO and the
+ * hand-written DTO serializer. Not part of the regular build:
+ * {@code ./mvnw test -Dtest=ProductSerializationBenchmark -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSerializationBenchmark {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int ROUNDS = 2_000;
+
+    @Test
+    void compareSerializers() throws Exception {
+        List<Product> entities = IntStream.range(0, PRODUCTS).mapToObj(i -> {
+            Product product = new Product("Product " + i, "Description of product " + i,
+                    BigDecimal.valueOf(1000 + i * 37L, 2), i % 100, "Category " + (i % 20));
+            product.setId((long) i + 1);
+            product.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 12, 0).plusNanos(i * 1_000_000L));
+            return product;
+        }).toList();
+        List<ProductDTO> dtos = entities.stream().map(ProductDTO::fromProduct).toList();
+
+        ObjectMapper lean = bootDefaults().build();
+        ObjectMapper reflective = bootDefaults().mixIn(ProductDTO.class, ReflectiveSerialization.class).build();
+
+        // The first rounds only warm up the JIT
+        for (int i = 0; i < 4; i++) {
+            boolean report = i == 3;
+            measure(report ? "entity (reflective)" : null, reflective, entities);
+            measure(report ? "dto (reflective)" : null, reflective, dtos);
+            measure(report ? "dto (hand-written)" : null, lean, dtos);
+        }
+    }
+
+    private static void measure(String label, ObjectMapper mapper, List<?> products) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (JsonGenerator gen = mapper.createGenerator(OutputStream.nullOutputStream())) {
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                mapper.writeValue(gen, products);
+                gen.flush();
+            }
+            long elapsed = System.nanoTime() - start;
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            if (label != null) {
+                long count = (long) ROUNDS * products.size();
+                System.out.printf("%-20s %6.1f bytes/product %7.1f ns/product%n", label,
+                        (double) bytes / count, (double) elapsed / count);
+            }
+        }
+    }
+
+    // Spring Boot writes dates as ISO strings; the plain builder does not
+    private static Jackson2ObjectMapperBuilder bootDefaults() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class ReflectiveSerialization {
+    }
+}
@@ -0,0 +1,138 @@
+package com.sd.store.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd.store.filter.AdmissionControlFilter.EndpointClass;
+import com.sd.store.filter.AdmissionControlFilter.Limits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdmissionControlFilter(
+                Map.of(
+                        EndpointClass.STANDARD, new Limits(1000, 1000, 1),
+                        EndpointClass.EXPENSIVE, new Limits(0.5, 2, 4)
+                ),
+                Duration.ofMillis(20),
+                3,
+                new ObjectMapper().findAndRegisterModules(),
+                meterRegistry
+        );
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("integration", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void givenBurstExhausted_whenCallingExpensiveEndpoint_thenTooManyRequestsWithRetryAfter() throws Exception {
+        assertEquals(200, perform("GET", "/api/products").getStatus());
+        assertEquals(200, perform("GET", "/api/products").getStatus());
+
+        MockHttpServletResponse rejected = perform("GET", "/api/products");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertEquals(200, perform("GET", "/api/products/1").getStatus());
+        assertEquals(1.0, meterRegistry.get("store.admission.rejected")
+                .tags("class", "expensive", "reason", "rate_limited").counter().count());
+    }
+
+    @Test
+    void givenNoFreeSlotWithinQueueBudget_whenCallingEndpoint_thenServiceUnavailable() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken("other", null, List.of()));
+                FilterChain blocking = (request, response) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/products/1"), new MockHttpServletResponse(), blocking);
+                return null;
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse rejected = perform("GET", "/api/products/2");
+
+            assertEquals(503, rejected.getStatus());
+            assertEquals("1", rejected.getHeader("Retry-After"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void givenNonApiPath_whenFiltering_thenRequestIsNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform("GET", "/actuator/health").getStatus());
+        }
+    }
+
+    @Test
+    void givenManyAnonymousAddresses_whenFiltering_thenTrackedBucketsStayBoundedAndRefilledOnesAreDropped()
+            throws Exception {
+        SecurityContextHolder.clearContext();
+        for (int i = 0; i < 50; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+            request.setRemoteAddr("10.0.0." + i);
+            assertEquals(200, perform(request).getStatus());
+        }
+        assertEquals(4, filter.trackedBuckets());
+
+        // The standard limits refill within 1 s, the expensive ones within 4 s
+        Thread.sleep(4_100);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        request.setRemoteAddr("10.0.1.1");
+        assertEquals(200, perform(request).getStatus());
+
+        assertEquals(1, filter.trackedBuckets());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletResponse perform(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, new MockFilterChain());
+        return response;
+    }
+}
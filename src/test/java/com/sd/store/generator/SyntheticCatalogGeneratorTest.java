@@ -0,0 +1,69 @@
+package com.sd.store.generator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticCatalogGeneratorTest {
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:generator;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void givenSameSeed_whenGenerating_thenCatalogIsIdenticalAndSkewed() {
+        migrate();
+        new SyntheticCatalogGenerator(dataSource).generate(new SyntheticCatalogGenerator.Spec(20_000, 10, 7, 1_000));
+        List<Map<String, Object>> first = jdbcTemplate.queryForList(
+                "SELECT name, price, quantity, category FROM products ORDER BY id");
+
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        migrate();
+        new SyntheticCatalogGenerator(dataSource).generate(new SyntheticCatalogGenerator.Spec(20_000, 0, 7, 1_000));
+        List<Map<String, Object>> second = jdbcTemplate.queryForList(
+                "SELECT name, price, quantity, category FROM products ORDER BY id");
+
+        assertEquals(20_000, first.size());
+        assertEquals(first, second);
+
+        List<Long> categoryCounts = jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM products GROUP BY category ORDER BY COUNT(*) DESC", Long.class);
+        assertTrue(categoryCounts.get(0) > 10 * categoryCounts.get(categoryCounts.size() - 1));
+
+        long outOfStock = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE quantity = 0", Long.class);
+        assertTrue(outOfStock > 400 && outOfStock < 1_200);
+    }
+
+    @Test
+    void givenUsersRequested_whenGenerating_thenUsersGetUserRole() {
+        migrate();
+        new SyntheticCatalogGenerator(dataSource).generate(new SyntheticCatalogGenerator.Spec(10, 25, 1, 10));
+
+        assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+        assertEquals(25, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_roles ur JOIN roles r ON r.id = ur.role_id WHERE r.name = 'ROLE_USER'",
+                Integer.class));
+    }
+
+    private void migrate() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        populator.addScript(new ClassPathResource("db/migration/V1__init_schema.sql"));
+        populator.addScript(new ClassPathResource("db/migration/V2__seed_roles.sql"));
+        populator.addScript(new ClassPathResource("db/migration/V3__unique_product_name.sql"));
+        populator.addScript(new ClassPathResource("db/migration/V6__product_stock_status.sql"));
+        populator.execute(dataSource);
+    }
+}
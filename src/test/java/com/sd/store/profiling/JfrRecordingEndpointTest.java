@@ -0,0 +1,102 @@
+package com.sd.store.profiling;
+
+import com.sd.store.model.Product;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingEndpointTest {
+
+    private final JfrRecordingEndpoint endpoint = new JfrRecordingEndpoint(Duration.ofSeconds(60), Duration.ofMinutes(5));
+
+    @AfterEach
+    void tearDown() throws Exception {
+        endpoint.discard();
+    }
+
+    @Test
+    void givenRunningRecording_whenProfiledCallsRunAndRecordingIsStopped_thenFileHoldsTheirEvents() throws Exception {
+        assertEquals(200, endpoint.start(Duration.ofSeconds(30), "default").getStatus());
+        assertEquals("RUNNING", endpoint.status().state());
+        assertEquals(409, endpoint.start(null, null).getStatus());
+
+        Catalog catalog = proxy(new ProductServiceEventInterceptor());
+        assertTrue(catalog.findById(42L).isPresent());
+        assertThrows(IllegalStateException.class, () -> catalog.findById(-1L));
+        AuthenticationProvider provider = new ProfiledAuthenticationProvider(new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return true;
+            }
+        });
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("mallory", "guess")));
+
+        WebEndpointResponse<Resource> response = endpoint.stop();
+        assertEquals(200, response.getStatus());
+        assertEquals("CLOSED", endpoint.status().state());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(response.getBody().getFile().toPath());
+        List<RecordedEvent> serviceCalls = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.sd.store.ProductService"))
+                .toList();
+        assertEquals(2, serviceCalls.size());
+        RecordedEvent found = serviceCalls.stream().filter(event -> !event.getBoolean("failed")).findFirst().orElseThrow();
+        assertEquals("findById", found.getString("method"));
+        assertEquals(42L, found.getLong("productId"));
+        assertEquals(1, found.getInt("rows"));
+        RecordedEvent authentication = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.sd.store.Authentication"))
+                .findFirst().orElseThrow();
+        assertEquals("mallory", authentication.getString("username"));
+        assertFalse(authentication.getBoolean("authenticated"));
+    }
+
+    @Test
+    void givenInvalidRequest_whenStarting_thenNothingIsRecorded() throws Exception {
+        assertEquals(404, endpoint.stop().getStatus());
+        assertEquals(400, endpoint.start(Duration.ofMinutes(6), null).getStatus());
+        assertEquals(400, endpoint.start(null, "everything").getStatus());
+        assertEquals("NONE", endpoint.status().state());
+    }
+
+    private static Catalog proxy(ProductServiceEventInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(new Catalog() {
+            @Override
+            public Optional<Product> findById(Long id) {
+                if (id < 0) {
+                    throw new IllegalStateException("No such product");
+                }
+                Product product = new Product("Lamp", "Desk lamp", new BigDecimal("19.99"), 4, "Home");
+                product.setId(id);
+                return Optional.of(product);
+            }
+        });
+        proxyFactory.addAdvice(interceptor);
+        return (Catalog) proxyFactory.getProxy();
+    }
+
+    interface Catalog {
+        Optional<Product> findById(Long id);
+    }
+}
@@ -0,0 +1,103 @@
+package com.sd.store.repository;
+
+import com.sd.store.dto.ProductFilter;
+import com.sd.store.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+class ProductSpecificationsTest {
+
+    // The column keeps microseconds; finer digits would put a row stored at a bound just below it
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        save("Desk Lamp", "9.99", 0, "Lighting", 40);
+        save("Desk Organizer", "15.00", 12, "Office", 10);
+        save("desk mat", "20.00", 5, "Office", 2);
+        save("50% Off Mug", "5.00", 100, "Kitchen", 1);
+        save("500 Mugs", "250.00", 3, "Kitchen", 0);
+        save("Mug_Rack", "30.00", 7, "Kitchen", 0);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void givenEmptyFilter_whenMatching_thenEveryProductIsReturned() {
+        ProductFilter filter = new ProductFilter(" ", "", null, null, null, null, null);
+
+        assertEquals(productRepository.count(), productRepository.findAll(ProductSpecifications.matching(filter)).size());
+    }
+
+    @Test
+    void givenRanges_whenMatching_thenBoundsAreInclusiveAndOneSidedRangesWork() {
+        assertEquals(List.of("Desk Organizer", "desk mat", "Mug_Rack"),
+                names(new ProductFilter(null, null, new BigDecimal("15.00"), new BigDecimal("30.00"), null, null, null)));
+        assertEquals(List.of("500 Mugs"),
+                names(new ProductFilter(null, null, new BigDecimal("30.01"), null, null, null, null)));
+        assertEquals(List.of("Desk Lamp", "50% Off Mug"),
+                names(new ProductFilter(null, null, null, new BigDecimal("9.99"), null, null, null)));
+        assertEquals(List.of("Desk Organizer", "Mug_Rack"),
+                names(new ProductFilter(null, null, null, null, 7, 12, null)));
+        assertEquals(List.of("Desk Lamp"), names(new ProductFilter(null, null, null, null, null, 0, null)));
+        assertEquals(List.of("50% Off Mug"), names(new ProductFilter(null, null, null, null, 13, null, null)));
+    }
+
+    @Test
+    void givenCategoryAndNamePrefix_whenMatching_thenPrefixIsCaseSensitiveAndWildcardsAreLiteral() {
+        assertEquals(List.of("Desk Lamp", "Desk Organizer"), names(new ProductFilter(null, "Desk", null, null, null, null, null)));
+        assertEquals(List.of("Desk Organizer"), names(new ProductFilter(" Office ", "Desk", null, null, null, null, null)));
+        assertEquals(List.of("50% Off Mug"), names(new ProductFilter(null, "50%", null, null, null, null, null)));
+        assertEquals(List.of("Mug_Rack"), names(new ProductFilter(null, "Mug_", null, null, null, null, null)));
+        assertEquals(List.of(), names(new ProductFilter("Lighting", "desk", null, null, null, null, null)));
+    }
+
+    @Test
+    void givenUpdatedSince_whenMatching_thenOnlyProductsUpdatedAtOrAfterItAreReturned() {
+        assertEquals(List.of("desk mat", "50% Off Mug", "500 Mugs", "Mug_Rack"),
+                names(new ProductFilter(null, null, null, null, null, null, NOW.minusDays(2))));
+        assertEquals(List.of("500 Mugs", "Mug_Rack"),
+                names(new ProductFilter("Kitchen", null, null, null, null, null, NOW.minusHours(1))));
+    }
+
+    @Test
+    void givenInvertedRange_whenBuildingFilter_thenItIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProductFilter(null, null, new BigDecimal("2"), new BigDecimal("1"), null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new ProductFilter(null, null, null, null, 5, 4, null));
+    }
+
+    private List<String> names(ProductFilter filter) {
+        return productRepository.findAll(ProductSpecifications.matching(filter), Sort.by("id")).stream()
+                .map(Product::getName)
+                .toList();
+    }
+
+    private void save(String name, String price, int quantity, String category, int daysSinceUpdate) {
+        Product product = entityManager.persistAndFlush(
+                new Product(name, "Specification test product", new BigDecimal(price), quantity, category));
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE products SET updated_at = ?1 WHERE id = ?2")
+                .setParameter(1, NOW.minusDays(daysSinceUpdate))
+                .setParameter(2, product.getId())
+                .executeUpdate();
+    }
+}
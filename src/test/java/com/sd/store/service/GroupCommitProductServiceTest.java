@@ -0,0 +1,193 @@
+package com.sd.store.service;
+
+import com.sd.store.exception.ProductNotFoundException;
+import com.sd.store.model.Product;
+import com.sd.store.service.impl.GroupCommitProductService;
+import com.sd.store.service.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GroupCommitProductServiceTest {
+
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductServiceImpl delegate;
+    private GroupCommitProductService service;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(ProductServiceImpl.class);
+        service = new GroupCommitProductService(delegate, transactionManager, meterRegistry, 64, Duration.ofMillis(50), 1024,
+                Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void givenConcurrentPriceChanges_whenSubmitted_thenCommittedInSharedTransactions() throws Exception {
+        // Hold the first mutation until every caller has queued, so the rest share one batch
+        CountDownLatch queued = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(delegate.changePrice(anyLong(), any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                queued.await();
+            }
+            Product product = new Product("Lamp", "Reading lamp", invocation.getArgument(1), 1, "Home");
+            product.setId(invocation.getArgument(0));
+            return product;
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        List<Future<Product>> results = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            long productId = id;
+            results.add(callers.submit(() -> service.changePrice(productId, BigDecimal.valueOf(productId))));
+        }
+        Thread.sleep(200);
+        queued.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1L, results.get(i).get().getId());
+        }
+        callers.shutdown();
+        assertTrue(transactionManager.commits.get() < 20, "commits: " + transactionManager.commits.get());
+        assertEquals(20, meterRegistry.get("store.write.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void givenFailingMutationInBatch_whenCommitted_thenOthersReplayedAlone() throws Exception {
+        CountDownLatch queued = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(delegate.changePrice(anyLong(), any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                queued.await();
+            }
+            long id = invocation.getArgument(0);
+            if (id == 3) {
+                throw new ProductNotFoundException("Product not found with ID: 3");
+            }
+            Product product = new Product("Lamp", "Reading lamp", invocation.getArgument(1), 1, "Home");
+            product.setId(id);
+            return product;
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(5);
+        List<Future<Product>> results = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            long productId = id;
+            results.add(callers.submit(() -> service.changePrice(productId, BigDecimal.TEN)));
+        }
+        Thread.sleep(200);
+        queued.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            if (i == 2) {
+                Exception e = assertThrows(Exception.class, () -> results.get(2).get());
+                assertInstanceOf(ProductNotFoundException.class, e.getCause());
+            } else {
+                assertEquals(i + 1L, results.get(i).get().getId());
+            }
+        }
+        callers.shutdown();
+        assertTrue(transactionManager.rollbacks.get() >= 1);
+        assertTrue(meterRegistry.get("store.write.batch.fallbacks").counter().count() >= 1);
+    }
+
+    @Test
+    void givenNewProduct_whenAdded_thenDelegateGetsFreshCopy() {
+        Product input = new Product("Desk", "Standing desk", new BigDecimal("300.00"), 4, "Office");
+        when(delegate.addProduct(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product saved = service.addProduct(input);
+
+        assertNotSame(input, saved);
+        assertEquals("Desk", saved.getName());
+        verify(delegate).addProduct(argThat(product -> product.getId() == null));
+    }
+
+    @Test
+    void givenMutationThrowingError_whenCommitted_thenOnlyItsCallerFailsAndCommitterKeepsRunning() {
+        when(delegate.changePrice(eq(1L), any())).thenThrow(new AssertionError("boom"));
+        when(delegate.changePrice(eq(2L), any())).thenAnswer(invocation -> {
+            Product product = new Product("Lamp", "Reading lamp", invocation.getArgument(1), 1, "Home");
+            product.setId(2L);
+            return product;
+        });
+
+        assertThrows(AssertionError.class, () -> service.changePrice(1L, BigDecimal.ONE));
+        assertEquals(2L, service.changePrice(2L, BigDecimal.ONE).getId());
+    }
+
+    @Test
+    void givenStuckCommitter_whenWaitTimesOut_thenQueuedMutationRunsOnCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.changePrice(eq(1L), any())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+        when(delegate.changePrice(eq(2L), any())).thenAnswer(invocation -> {
+            Product product = new Product("Lamp", "Reading lamp", invocation.getArgument(1), 1, "Home");
+            product.setId(2L);
+            return product;
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        Future<Product> stuck = callers.submit(() -> service.changePrice(1L, BigDecimal.ONE));
+        Thread.sleep(150);
+        Future<Product> queued = callers.submit(() -> service.changePrice(2L, BigDecimal.ONE));
+
+        assertEquals(2L, queued.get().getId());
+        Exception e = assertThrows(Exception.class, stuck::get);
+        assertInstanceOf(TransactionTimedOutException.class, e.getCause());
+        release.countDown();
+        callers.shutdown();
+    }
+
+    private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
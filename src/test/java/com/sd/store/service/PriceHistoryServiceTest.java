@@ -0,0 +1,129 @@
+package com.sd.store.service;
+
+import com.sd.store.dto.PricePointDTO;
+import com.sd.store.service.impl.PriceHistoryServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistoryServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PriceHistoryServiceImpl priceHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:price_history;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V4__price_history.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, price DECIMAL(10,2), created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE products_archive (id BIGINT PRIMARY KEY, price DECIMAL(10,2), created_at TIMESTAMP)");
+        priceHistoryService = new PriceHistoryServiceImpl(jdbcTemplate, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void givenRecordedPrices_whenQueryingRange_thenSeriesIsDecodedInOrder() throws InterruptedException {
+        Instant before = Instant.now();
+        priceHistoryService.recordPrice(1L, new BigDecimal("99.99"));
+        priceHistoryService.recordPrice(2L, new BigDecimal("10.00"));
+        Thread.sleep(5);
+        priceHistoryService.recordPrice(1L, new BigDecimal("89.50"));
+        Thread.sleep(5);
+        priceHistoryService.recordPrice(1L, new BigDecimal("120.00"));
+        priceHistoryService.flush();
+
+        List<PricePointDTO> series = priceHistoryService.findPriceSeries(1L, before, Instant.now());
+
+        assertEquals(List.of(new BigDecimal("99.99"), new BigDecimal("89.50"), new BigDecimal("120.00")),
+                series.stream().map(PricePointDTO::price).toList());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_history_blocks", Integer.class));
+    }
+
+    @Test
+    void givenPriceChangedAfterInstant_whenQueryingAsOf_thenEarlierPriceIsReturned() throws InterruptedException {
+        priceHistoryService.recordPrice(1L, new BigDecimal("50.00"));
+        priceHistoryService.recordPrice(2L, new BigDecimal("7.25"));
+        priceHistoryService.flush();
+        Thread.sleep(5);
+        Instant asOf = Instant.now();
+        Thread.sleep(5);
+        priceHistoryService.recordPrice(1L, new BigDecimal("55.00"));
+        priceHistoryService.flush();
+
+        List<PricePointDTO> prices = priceHistoryService.findCatalogPricesAsOf(asOf);
+
+        assertEquals(2, prices.size());
+        assertEquals(new BigDecimal("50.00"), prices.get(0).price());
+        assertEquals(new BigDecimal("7.25"), prices.get(1).price());
+        assertEquals(new BigDecimal("55.00"), priceHistoryService.findCatalogPricesAsOf(Instant.now()).get(0).price());
+    }
+
+    @Test
+    void givenProductsWithoutHistory_whenBaselineIsRecorded_thenAsOfIncludesThemOnce() {
+        Instant created = Instant.parse("2024-01-01T00:00:00Z");
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 19.99, ?)", Timestamp.from(created));
+        jdbcTemplate.update("INSERT INTO products VALUES (2, 5.00, NULL)");
+        jdbcTemplate.update("INSERT INTO products_archive VALUES (3, 2.50, ?)", Timestamp.from(created));
+        priceHistoryService.recordPrice(2L, new BigDecimal("5.00"));
+        priceHistoryService.flush();
+
+        priceHistoryService.recordBaselinePrices();
+        priceHistoryService.recordBaselinePrices();
+
+        assertEquals(List.of(1L, 3L), priceHistoryService.findCatalogPricesAsOf(created.plusSeconds(1)).stream()
+                .map(PricePointDTO::productId).toList());
+        assertEquals(List.of(new BigDecimal("19.99"), new BigDecimal("5.00"), new BigDecimal("2.50")),
+                priceHistoryService.findCatalogPricesAsOf(Instant.now()).stream().map(PricePointDTO::price).toList());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_history_blocks", Integer.class));
+    }
+
+    @Test
+    void givenDeletedProduct_whenQueryingAsOf_thenItIsOnlyListedBeforeTheDeletion() throws InterruptedException {
+        priceHistoryService.recordPrice(1L, new BigDecimal("50.00"));
+        priceHistoryService.recordPrice(2L, new BigDecimal("7.25"));
+        priceHistoryService.flush();
+        Thread.sleep(5);
+        Instant beforeDeletion = Instant.now();
+        Thread.sleep(5);
+        priceHistoryService.recordDeletion(1L);
+        priceHistoryService.flush();
+
+        assertEquals(List.of(1L, 2L), priceHistoryService.findCatalogPricesAsOf(beforeDeletion).stream()
+                .map(PricePointDTO::productId).toList());
+        assertEquals(List.of(2L), priceHistoryService.findCatalogPricesAsOf(Instant.now()).stream()
+                .map(PricePointDTO::productId).toList());
+        assertEquals(List.of(new BigDecimal("50.00")), priceHistoryService.findPriceSeries(1L, Instant.EPOCH,
+                Instant.now()).stream().map(PricePointDTO::price).toList());
+    }
+
+    @Test
+    void givenFailedFlush_whenFlushingAgain_thenTheFailedPointsAreWritten() {
+        priceHistoryService.recordPrice(1L, new BigDecimal("10.00"));
+        jdbcTemplate.execute("ALTER TABLE price_history_blocks RENAME TO price_history_blocks_offline");
+
+        assertThrows(RuntimeException.class, priceHistoryService::flush);
+
+        jdbcTemplate.execute("ALTER TABLE price_history_blocks_offline RENAME TO price_history_blocks");
+        priceHistoryService.recordPrice(1L, new BigDecimal("12.00"));
+        priceHistoryService.flush();
+        assertEquals(List.of(new BigDecimal("10.00"), new BigDecimal("12.00")), priceHistoryService
+                .findPriceSeries(1L, Instant.EPOCH, Instant.now()).stream().map(PricePointDTO::price).toList());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_history_blocks", Integer.class));
+    }
+}
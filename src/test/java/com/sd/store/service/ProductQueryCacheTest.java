@@ -0,0 +1,97 @@
+package com.sd.store.service;
+
+import com.sd.store.cache.EntityKey;
+import com.sd.store.model.Product;
+import com.sd.store.service.impl.ProductQueryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQueryCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void givenCachedQuery_whenWriteCommits_thenNextLookupReloads() {
+        ProductQueryCache cache = new ProductQueryCache(16, Duration.ofMinutes(1));
+        assertEquals(1, load(cache, "a"));
+        assertEquals(1, load(cache, "a"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateAfterCommit();
+        assertEquals(1, load(cache, "a"), "entries stay valid until the write commits");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(2, load(cache, "a"));
+        cache.invalidateAfterCommit();
+        assertEquals(3, load(cache, "a"), "outside a transaction the invalidation is immediate");
+    }
+
+    @Test
+    void givenRolledBackWrite_whenLookingUp_thenEntryIsStillServed() {
+        ProductQueryCache cache = new ProductQueryCache(16, Duration.ofMinutes(1));
+        load(cache, "a");
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateAfterCommit();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(1, load(cache, "a"));
+    }
+
+    @Test
+    void givenRemoteInvalidation_whenItNamesProducts_thenEveryEntryIsStale() {
+        ProductQueryCache cache = new ProductQueryCache(16, Duration.ofMinutes(1));
+        load(cache, "a");
+        load(cache, "b");
+
+        cache.onRemoteInvalidation(Set.of(new EntityKey("User", 1L)));
+        assertEquals(2, loads.get());
+        load(cache, "a");
+        assertEquals(2, loads.get());
+
+        cache.onRemoteInvalidation(Set.of(new EntityKey(Product.class.getSimpleName(), 7L)));
+        load(cache, "a");
+        load(cache, "b");
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void givenFullOrExpiredCache_whenLookingUp_thenLeastRecentlyUsedAndExpiredEntriesReload() throws InterruptedException {
+        ProductQueryCache cache = new ProductQueryCache(2, Duration.ofMillis(50));
+        load(cache, "a");
+        load(cache, "b");
+        load(cache, "a");
+        load(cache, "c");
+        assertEquals(3, loads.get());
+        load(cache, "a");
+        assertEquals(3, loads.get());
+        load(cache, "b");
+        assertEquals(4, loads.get(), "b was evicted as least recently used");
+
+        Thread.sleep(60);
+        load(cache, "b");
+        assertEquals(5, loads.get());
+    }
+
+    private int load(ProductQueryCache cache, String key) {
+        return cache.get(key, loads::incrementAndGet);
+    }
+}
@@ -1,18 +1,32 @@
 package com.sd.store.service;
 
+import com.sd.store.archive.ProductArchive;
+import com.sd.store.cache.CacheInvalidationBus;
+import com.sd.store.dto.ProductPatch;
 import com.sd.store.model.Product;
 import com.sd.store.repository.ProductRepository;
+import com.sd.store.service.impl.ProductNameBloomFilter;
+import com.sd.store.service.impl.ProductQueryCache;
 import com.sd.store.service.impl.ProductServiceImpl;
+import com.sd.store.service.impl.ReadCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.sd.store.exception.ProductNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +38,27 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private PriceHistoryService priceHistoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private ObjectProvider<ProductArchive> productArchive;
+
+    @Spy
+    private ProductNameBloomFilter productNameFilter = new ProductNameBloomFilter(null, 1000, 0.01);
+
+    @Spy
+    private ProductQueryCache productQueryCache = new ProductQueryCache(16, Duration.ofSeconds(30));
+
+    @Spy
+    private ReadCoalescer readCoalescer = new ReadCoalescer(new SimpleMeterRegistry(), true, Duration.ofMillis(500));
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -38,6 +73,9 @@ class ProductServiceTest {
         testProduct.setPrice(new BigDecimal("99.99"));
         testProduct.setQuantity(10);
         testProduct.setCategory("Electronics");
+
+        productNameFilter.markLoaded();
+        productNameFilter.add(testProduct.getName());
     }
 
     @Test
@@ -49,8 +87,7 @@ class ProductServiceTest {
         productToAdd.setQuantity(20);
         productToAdd.setCategory("Gaming");
 
-        when(productRepository.findByName("New Product")).thenReturn(Optional.empty());
-        when(productRepository.save(any(Product.class))).thenReturn(productToAdd);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(productToAdd);
 
         Product result = productService.addProduct(productToAdd);
 
@@ -58,8 +95,23 @@ class ProductServiceTest {
         assertEquals("New Product", result.getName());
         assertEquals(new BigDecimal("199.99"), result.getPrice());
         
-        verify(productRepository, times(1)).findByName("New Product");
-        verify(productRepository, times(1)).save(productToAdd);
+        verify(productRepository, never()).findExistingNames(any());
+        verify(productRepository, times(1)).saveAndFlush(productToAdd);
+    }
+
+    @Test
+    void givenConcurrentInsertOfSameName_whenAddingProduct_thenConstraintViolationBecomesIllegalArgument() {
+        Product productToAdd = new Product();
+        productToAdd.setName("Racing Product");
+
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_products_name"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.addProduct(productToAdd);
+        });
+
+        assertEquals("Product with name 'Racing Product' already exists", exception.getMessage());
     }
 
     @Test
@@ -67,15 +119,15 @@ class ProductServiceTest {
         Product productToAdd = new Product();
         productToAdd.setName("Test Product");
         
-        when(productRepository.findByName("Test Product")).thenReturn(Optional.of(testProduct));
+        when(productRepository.findExistingNames(List.of("Test Product"))).thenReturn(Set.of("Test Product"));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             productService.addProduct(productToAdd);
         });
         
         assertEquals("Product with name 'Test Product' already exists", exception.getMessage());
-        verify(productRepository, times(1)).findByName("Test Product");
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, times(1)).findExistingNames(List.of("Test Product"));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -150,6 +202,35 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void givenPatchWithChangedQuantity_whenPatchingProduct_thenOnlyQuantityIsChanged() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.saveAndFlush(testProduct)).thenReturn(testProduct);
+
+        Product result = productService.patchProduct(1L,
+                new ProductPatch("Test Product", null, new BigDecimal("99.990"), 3, null));
+
+        assertEquals(3, result.getQuantity());
+        assertEquals("Test Description", result.getDescription());
+        assertEquals(new BigDecimal("99.99"), result.getPrice());
+        verify(productRepository, times(1)).saveAndFlush(testProduct);
+        verify(priceHistoryService, never()).recordPrice(any(), any());
+        verify(invalidationBus, times(1)).publish("Product", 1L);
+    }
+
+    @Test
+    void givenPatchMatchingStoredValues_whenPatchingProduct_thenNothingIsWritten() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        Product result = productService.patchProduct(1L,
+                new ProductPatch(null, "Test Description", new BigDecimal("99.99"), 10, "Electronics"));
+
+        assertSame(testProduct, result);
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(eventPublisher, invalidationBus, priceHistoryService);
+    }
+
     @Test
     void givenNonExistentProductId_whenUpdatingProduct_thenProductNotFoundExceptionIsThrown() {
         Product updateData = new Product();
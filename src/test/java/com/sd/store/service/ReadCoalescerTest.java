@@ -0,0 +1,120 @@
+package com.sd.store.service;
+
+import com.sd.store.service.impl.ReadCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(10);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void givenConcurrentIdenticalReads_whenLoaded_thenOneLoadIsShared() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(meterRegistry, true, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(callers.submit(() -> coalescer.load("findProductById", 42L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "product-42";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("product-42", result.get());
+        }
+        assertEquals(1, loads.get());
+        assertEquals(9, meterRegistry.get("store.read.coalesced").tag("operation", "findProductById").counter().count());
+    }
+
+    @Test
+    void givenSlowLoad_whenWaitBoundPasses_thenWaiterLoadsItself() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(meterRegistry, true, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> slow = callers.submit(() -> coalescer.load("searchProductsByName", "lamp", () -> {
+            await(release);
+            return "slow";
+        }));
+        Thread.sleep(100);
+
+        String waiter = coalescer.load("searchProductsByName", "lamp", () -> "own");
+        release.countDown();
+
+        assertEquals("own", waiter);
+        assertEquals("slow", slow.get());
+        assertEquals(1, meterRegistry.get("store.read.coalesce.timeouts").counter().count());
+    }
+
+    @Test
+    void givenFailingLoad_whenShared_thenWaitersGetSameException() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(meterRegistry, true, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> coalescer.load("findProductById", 7L, () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        Thread.sleep(100);
+        Future<String> waiter = callers.submit(() -> coalescer.load("findProductById", 7L, () -> "unused"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(Exception.class, leader::get).getCause());
+        assertEquals("database down", assertThrows(Exception.class, waiter::get).getCause().getMessage());
+    }
+
+    @Test
+    void givenMutableResult_whenShared_thenEveryWaiterGetsItsOwnCopy() throws Exception {
+        ReadCoalescer coalescer = new ReadCoalescer(meterRegistry, true, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> loaded = new ArrayList<>(List.of("lamp"));
+
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(callers.submit(() -> coalescer.load("searchProductsByName", "lamp", () -> {
+                await(release);
+                return loaded;
+            }, ArrayList::new)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        List<List<String>> values = new ArrayList<>();
+        for (Future<List<String>> result : results) {
+            values.add(result.get());
+        }
+        assertEquals(1, values.stream().filter(value -> value == loaded).count(), "only the loader keeps the original");
+        loaded.add("changed by the loader");
+        values.stream().filter(value -> value != loaded).forEach(value -> assertEquals(List.of("lamp"), value));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
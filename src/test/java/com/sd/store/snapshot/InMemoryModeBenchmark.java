@@ -0,0 +1,102 @@
+package com.sd.store.snapshot;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * File mode vs in-memory mode on a catalog-shaped workload. Not part of the regular build:
+ * {@code ./mvnw test -Dtest=InMemoryModeBenchmark -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InMemoryModeBenchmark {
+
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS products (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL UNIQUE,
+                category VARCHAR(50),
+                price DECIMAL(10,2) NOT NULL,
+                quantity INTEGER NOT NULL
+            )""";
+    private static final int PRODUCTS = 20_000;
+    private static final int READS = 200_000;
+    private static final int WRITES = 2_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void compareFileAndInMemoryModes() throws Exception {
+        try (HikariDataSource warmup = pool("jdbc:h2:mem:bench_warmup;DB_CLOSE_DELAY=-1")) {
+            new JdbcTemplate(warmup).execute(SCHEMA);
+            run("warmup", warmup);
+        }
+        try (HikariDataSource file = pool("jdbc:h2:file:" + dir.resolve("bench_db"))) {
+            new JdbcTemplate(file).execute(SCHEMA);
+            run("file", file);
+        }
+        for (boolean fsync : new boolean[] {true, false}) {
+            try (JournalingDataSource memory = new JournalingDataSource(
+                    pool("jdbc:h2:mem:bench_" + fsync + ";DB_CLOSE_DELAY=-1"))) {
+                InMemorySnapshotManager manager = new InMemorySnapshotManager(memory, dir.resolve("snapshots-" + fsync),
+                        fsync, new SimpleMeterRegistry());
+                manager.restore(() -> new JdbcTemplate(memory).execute(SCHEMA));
+                run(fsync ? "memory+journal(fsync)" : "memory+journal", memory);
+                long start = System.nanoTime();
+                manager.snapshot();
+                System.out.printf("%-24s snapshot of %d rows: %d ms%n", "", PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+                manager.shutdown();
+            }
+        }
+    }
+
+    private void run(String mode, DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        long start = System.nanoTime();
+        tx.executeWithoutResult(status -> jdbc.batchUpdate(
+                "INSERT INTO products (name, category, price, quantity) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, PRODUCTS)
+                        .mapToObj(i -> new Object[] {"Product " + i, "Category " + (i % 20), BigDecimal.valueOf(i % 1000, 2), i % 100})
+                        .toList()));
+        long load = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < READS; i++) {
+            jdbc.queryForObject("SELECT price FROM products WHERE id = ?", BigDecimal.class, random.nextLong(1, PRODUCTS + 1));
+        }
+        long reads = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) {
+            long id = random.nextLong(1, PRODUCTS + 1);
+            tx.executeWithoutResult(status -> jdbc.update("UPDATE products SET price = price + 1 WHERE id = ?", id));
+        }
+        long writes = System.nanoTime() - start;
+
+        System.out.printf("%-24s load %d rows: %d ms, point reads: %.1f us/op, single-row write tx: %.1f us/op%n",
+                mode, PRODUCTS, load / 1_000_000, reads / 1e3 / READS, writes / 1e3 / WRITES);
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(4);
+        return dataSource;
+    }
+}
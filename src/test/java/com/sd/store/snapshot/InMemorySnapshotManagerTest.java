@@ -0,0 +1,132 @@
+package com.sd.store.snapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySnapshotManagerTest {
+
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS products (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL UNIQUE,
+                description TEXT,
+                price DECIMAL(10,2) NOT NULL,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )""";
+
+    @TempDir
+    Path snapshotDir;
+
+    private InMemorySnapshotManager manager;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (manager != null) {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    void givenSnapshotAndJournal_whenRestoringIntoFreshDatabase_thenCommittedStateIsRecovered() {
+        DataSource first = dataSource("snapshot_first");
+        JdbcTemplate jdbc = new JdbcTemplate(first);
+        manager = start(first);
+
+        jdbc.update("INSERT INTO products (name, description, price) VALUES ('Laptop', 'Thin', 999.99)");
+        jdbc.update("INSERT INTO products (name, price) VALUES ('Mouse', 25.00)");
+        manager.snapshot();
+
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(first));
+        tx.executeWithoutResult(status -> {
+            jdbc.update("UPDATE products SET price = 899.99 WHERE name = 'Laptop'");
+            jdbc.update("DELETE FROM products WHERE name = 'Mouse'");
+            jdbc.update("INSERT INTO products (name, description, price) VALUES ('Desk', ?, 150.00)", "x".repeat(70_000));
+        });
+        tx.executeWithoutResult(status -> {
+            jdbc.update("INSERT INTO products (name, price) VALUES ('Ghost', 1.00)");
+            status.setRollbackOnly();
+        });
+        // Simulate a crash: journaling stops without a final snapshot
+        WriteAheadJournal.active().deactivate();
+        manager = null;
+
+        DataSource second = dataSource("snapshot_second");
+        manager = start(second);
+        JdbcTemplate restored = new JdbcTemplate(second);
+
+        assertEquals(List.of("Desk", "Laptop"), restored.queryForList("SELECT name FROM products ORDER BY name", String.class));
+        assertEquals(0, restored.queryForObject("SELECT price FROM products WHERE name = 'Laptop'", BigDecimal.class)
+                .compareTo(new BigDecimal("899.99")));
+        assertEquals(70_000, restored.queryForObject("SELECT LENGTH(description) FROM products WHERE name = 'Desk'", Integer.class));
+
+        restored.update("INSERT INTO products (name, price) VALUES ('Chair', 80.00)");
+        Long maxId = restored.queryForObject("SELECT MAX(id) FROM products WHERE name <> 'Chair'", Long.class);
+        assertTrue(restored.queryForObject("SELECT id FROM products WHERE name = 'Chair'", Long.class) > maxId);
+    }
+
+    @Test
+    void givenFailedStatements_whenRestoring_thenOnlyTheirCommittedNeighboursAreReplayed() {
+        DataSource first = dataSource("snapshot_failed_first");
+        JdbcTemplate jdbc = new JdbcTemplate(first);
+        manager = start(first);
+        jdbc.update("INSERT INTO products (name, price) VALUES ('Laptop', 999.99)");
+
+        // Multi-row inserts that fail on the duplicate after their first row was written
+        assertThrows(DataAccessException.class,
+                () -> jdbc.update("INSERT INTO products (name, price) VALUES ('Ghost', 1.00), ('Laptop', 2.00)"));
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(first));
+        tx.executeWithoutResult(status -> {
+            jdbc.update("INSERT INTO products (name, price) VALUES ('Mouse', 25.00)");
+            assertThrows(DataAccessException.class,
+                    () -> jdbc.update("INSERT INTO products (name, price) VALUES ('Phantom', 1.00), ('Mouse', 2.00)"));
+        });
+        WriteAheadJournal.active().deactivate();
+        manager = null;
+
+        DataSource second = dataSource("snapshot_failed_second");
+        manager = start(second);
+
+        assertEquals(List.of("Laptop", "Mouse"),
+                new JdbcTemplate(second).queryForList("SELECT name FROM products ORDER BY name", String.class));
+    }
+
+    @Test
+    void givenJournalThatCannotAppend_whenCommitting_thenTheCommitFails() throws Exception {
+        DataSource dataSource = dataSource("snapshot_closed");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        manager = start(dataSource);
+
+        WriteAheadJournal.active().close();
+
+        assertThrows(DataAccessException.class, () -> jdbc.update("INSERT INTO products (name, price) VALUES ('Lost', 1.00)"));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+        manager.snapshot();
+        jdbc.update("INSERT INTO products (name, price) VALUES ('Kept', 1.00)");
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM products", Integer.class));
+    }
+
+    private InMemorySnapshotManager start(DataSource dataSource) {
+        InMemorySnapshotManager snapshotManager = new InMemorySnapshotManager(dataSource, snapshotDir, false,
+                new SimpleMeterRegistry());
+        snapshotManager.restore(() -> new JdbcTemplate(dataSource).execute(SCHEMA));
+        return snapshotManager;
+    }
+
+    private static DataSource dataSource(String name) {
+        return new JournalingDataSource(new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+}
@@ -0,0 +1,174 @@
+package com.sd.store.typeahead;
+
+import com.sd.store.service.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductTypeaheadTest {
+
+    private static final String SCHEMA = """
+            CREATE TABLE products (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL,
+                sku VARCHAR(50),
+                quantity INTEGER NOT NULL
+            )""";
+
+    private static final String[] WORDS = {"desk", "desktop", "lamp", "led", "chair", "charger", "cable", "usb", "usb-c"};
+
+    private JdbcTemplate jdbc;
+    private ProductTypeahead typeahead;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:typeahead_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute(SCHEMA);
+        typeahead = new ProductTypeahead(jdbc, 3);
+    }
+
+    @Test
+    void givenLoadedNames_whenPrefixTyped_thenWordStartsMatchMostStockFirst() {
+        insert(1, "Desk Lamp", "SD-0000000101", 5);
+        insert(2, "LED Desk Lamp", "SD-0000000102", 40);
+        insert(3, "Desktop Stand", null, 12);
+        insert(4, "Office Chair", "SD-0000000210", 7);
+
+        assertNull(typeahead.suggest("desk", 3));
+        typeahead.load();
+
+        assertEquals(List.of(2L, 3L, 1L), ids(typeahead.suggest("DESK", 3)));
+        assertEquals(List.of(2L, 1L), ids(typeahead.suggest("  desk   ", 3)));
+        assertEquals(List.of(2L, 1L), ids(typeahead.suggest("lamp", 3)));
+        assertEquals(List.of(2L), ids(typeahead.suggest("led desk l", 3)));
+        assertEquals(List.of(2L), ids(typeahead.suggest("desk", 1)));
+        assertEquals(List.of(), typeahead.suggest("sofa", 3));
+        assertEquals(List.of(), typeahead.suggest(" ", 3));
+
+        assertEquals(List.of(2L, 4L, 1L), ids(typeahead.suggest("sd-0000000", 3)));
+        assertEquals(List.of(2L, 1L), ids(typeahead.suggest("sd-00000001", 3)));
+        assertEquals(List.of(4L), ids(typeahead.suggest("SD-0000000210", 3)));
+        assertEquals("SD-0000000210", typeahead.suggest("office", 3).get(0).sku());
+
+        // SKUs are not carried by product writes, so a rename keeps the one in the row
+        jdbc.update("UPDATE products SET name = 'Task Chair' WHERE id = 4");
+        typeahead.onProductChanged(new ProductChangedEvent(4L, "Task Chair", null, null, 7));
+        assertEquals(List.of(4L), ids(typeahead.suggest("sd-000000021", 3)));
+        assertEquals(List.of(), typeahead.suggest("office", 3));
+    }
+
+    @Test
+    void givenLoadedTree_whenProductsChange_thenSuggestionsMatchAFullScan() {
+        Random random = new Random(11);
+        Map<Long, RadixTree.Entry> products = new HashMap<>();
+        for (long id = 1; id <= 500; id++) {
+            RadixTree.Entry entry = new RadixTree.Entry(id, randomName(random),
+                    String.format("SD-%010d", id), random.nextInt(50));
+            insert(id, entry.name(), entry.sku(), entry.quantity());
+            products.put(id, entry);
+        }
+        typeahead.load();
+
+        for (int change = 0; change < 2_000; change++) {
+            long id = 1 + random.nextInt(600);
+            if (random.nextInt(4) == 0) {
+                products.remove(id);
+                jdbc.update("DELETE FROM products WHERE id = ?", id);
+                typeahead.onProductChanged(new ProductChangedEvent(id, null, null, null, null));
+            } else {
+                RadixTree.Entry previous = products.get(id);
+                RadixTree.Entry entry = new RadixTree.Entry(id,
+                        random.nextBoolean() || previous == null ? randomName(random) : previous.name(),
+                        previous == null ? null : previous.sku(), random.nextInt(50));
+                products.put(id, entry);
+                jdbc.update("MERGE INTO products (id, name, sku, quantity) KEY (id) VALUES (?, ?, ?, ?)",
+                        id, entry.name(), entry.sku(), entry.quantity());
+                typeahead.onProductChanged(new ProductChangedEvent(id, entry.name(), null, null, entry.quantity()));
+            }
+        }
+
+        for (String prefix : List.of("d", "de", "desk", "desk ", "desktop", "l", "la", "led ", "c", "ch", "cha",
+                "charger u", "u", "usb", "usb-", "usb-c", "ca", "x", "sd-", "sd-00000001", "sd-0000000499")) {
+            assertEquals(expected(products, prefix), ids(typeahead.suggest(prefix, 3)), prefix);
+        }
+    }
+
+    @Test
+    void givenTwoWritesToAProduct_whenTheirEventsArriveOutOfOrder_thenTheCommittedRowWins() {
+        insert(1, "Desk Lamp", "SD-0000000101", 5);
+        typeahead.load();
+
+        jdbc.update("UPDATE products SET name = 'Floor Lamp', quantity = 8 WHERE id = 1");
+        ProductChangedEvent first = new ProductChangedEvent(1L, "Floor Lamp", null, null, 8);
+        jdbc.update("UPDATE products SET name = 'Table Lamp', quantity = 3 WHERE id = 1");
+        ProductChangedEvent second = new ProductChangedEvent(1L, "Table Lamp", null, null, 3);
+        typeahead.onProductChanged(second);
+        typeahead.onProductChanged(first);
+
+        assertEquals(List.of(), typeahead.suggest("floor", 3));
+        assertEquals(List.of(1L), ids(typeahead.suggest("table", 3)));
+        assertEquals("SD-0000000101", typeahead.suggest("lamp", 3).get(0).sku());
+    }
+
+    @Test
+    void givenLargeCatalog_whenPrefixTyped_thenLookupTakesUnderAMillisecond() {
+        List<Object[]> rows = new ArrayList<>();
+        Random random = new Random(3);
+        for (int id = 1; id <= 100_000; id++) {
+            rows.add(new Object[] {id, randomName(random) + " " + id, String.format("SD-%010d", id),
+                    random.nextInt(1_000)});
+        }
+        jdbc.batchUpdate("INSERT INTO products (id, name, sku, quantity) VALUES (?, ?, ?, ?)", rows);
+        typeahead.load();
+
+        String[] prefixes = {"d", "desk", "usb-c ch", "lamp 9", "cable led", "sd-00000123"};
+        for (int warmup = 0; warmup < 20_000; warmup++) {
+            typeahead.suggest(prefixes[warmup % prefixes.length], 3);
+        }
+        int lookups = 50_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertFalse(typeahead.suggest(prefixes[i % prefixes.length], 3).isEmpty());
+        }
+        long averageNanos = (System.nanoTime() - start) / lookups;
+        assertTrue(averageNanos < 1_000_000, "average lookup took " + averageNanos + " ns");
+    }
+
+    private static List<Long> expected(Map<Long, RadixTree.Entry> products, String prefix) {
+        String key = ProductTypeahead.normalizePrefix(prefix);
+        return products.values().stream()
+                .filter(entry -> ProductTypeahead.keys(entry).stream().anyMatch(k -> k.startsWith(key)))
+                .sorted(RadixTree.RANKING)
+                .limit(3)
+                .map(RadixTree.Entry::id)
+                .toList();
+    }
+
+    private static List<Long> ids(List<ProductTypeahead.Suggestion> suggestions) {
+        return suggestions.stream().map(ProductTypeahead.Suggestion::id).toList();
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int i = 0; i < words; i++) {
+            name.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return name.substring(0, 1).toUpperCase() + name.substring(1);
+    }
+
+    private void insert(long id, String name, String sku, int quantity) {
+        jdbc.update("INSERT INTO products (id, name, sku, quantity) VALUES (?, ?, ?, ?)", id, name, sku, quantity);
+    }
+}
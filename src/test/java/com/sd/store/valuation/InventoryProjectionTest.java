@@ -0,0 +1,134 @@
+package com.sd.store.valuation;
+
+import com.sd.store.service.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryProjectionTest {
+
+    private static final String SCHEMA = """
+            CREATE TABLE products (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                name VARCHAR(100) NOT NULL,
+                price DECIMAL(10,2) NOT NULL,
+                quantity INTEGER NOT NULL,
+                category VARCHAR(50)
+            )""";
+
+    private static final String[] CATEGORIES = {"Electronics", "Home", "Office", null};
+
+    private JdbcTemplate jdbc;
+    private InventoryProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:valuation_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute(SCHEMA);
+        projection = new InventoryProjection(jdbc, new SimpleMeterRegistry(), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        projection.shutdown();
+    }
+
+    @Test
+    void givenLargeCatalog_whenValued_thenTotalsMatchBigDecimalArithmetic() {
+        Random random = new Random(7);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= 100_000; i++) {
+            rows.add(new Object[] {i, "Product " + i, BigDecimal.valueOf(random.nextInt(100_000_00), 2),
+                    random.nextInt(500), CATEGORIES[random.nextInt(CATEGORIES.length)]});
+        }
+        jdbc.batchUpdate("INSERT INTO products (id, name, price, quantity, category) VALUES (?, ?, ?, ?, ?)", rows);
+
+        assertNull(projection.valuation());
+        projection.reload();
+        InventoryValuation valuation = projection.valuation();
+
+        Map<String, BigDecimal> expected = expectedValues();
+        assertEquals(100_000, valuation.products());
+        assertEquals(expected.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add), valuation.totalValue());
+        assertEquals(4, valuation.categories().size());
+        for (InventoryValuation.CategoryValuation category : valuation.categories()) {
+            assertEquals(expected.get(String.valueOf(category.category())), category.value(), category.category());
+        }
+        assertTrue(valuation.categories().get(0).value().compareTo(valuation.categories().get(3).value()) >= 0);
+    }
+
+    @Test
+    void givenLoadedProjection_whenWritesCommit_thenValuationFollowsWithoutReload() {
+        insert(10, "19.99", 3, "Home");
+        insert(20, "5.00", 10, "Office");
+        projection.reload();
+        assertEquals(new BigDecimal("109.97"), projection.valuation().totalValue());
+
+        jdbc.update("UPDATE products SET price = 4.50 WHERE id = 20");
+        projection.onProductChanged(new ProductChangedEvent(20L, "Product 20", "Office", new BigDecimal("4.50"), 10));
+        insert(15, "1.005", 2, "Home");
+        projection.onProductChanged(new ProductChangedEvent(15L, "Product 15", "Home", new BigDecimal("1.005"), 2));
+        jdbc.update("DELETE FROM products WHERE id = 10");
+        projection.onProductChanged(new ProductChangedEvent(10L, null, null, null, null));
+
+        InventoryValuation valuation = projection.valuation();
+        assertEquals(new BigDecimal("47.02"), valuation.totalValue());
+        assertEquals(12, valuation.totalUnits());
+        assertEquals(2, valuation.products());
+        assertEquals(List.of("Office", "Home"), valuation.categories().stream()
+                .map(InventoryValuation.CategoryValuation::category).toList());
+    }
+
+    @Test
+    void givenEventOfEarlierCommitArrivingLast_whenApplied_thenLatestRowWins() {
+        insert(10, "19.99", 3, "Home");
+        projection.reload();
+
+        jdbc.update("UPDATE products SET quantity = 5 WHERE id = 10");
+        jdbc.update("UPDATE products SET quantity = 7 WHERE id = 10");
+        projection.onProductChanged(new ProductChangedEvent(10L, "Product 10", "Home", new BigDecimal("19.99"), 7));
+        projection.onProductChanged(new ProductChangedEvent(10L, "Product 10", "Home", new BigDecimal("19.99"), 5));
+
+        assertEquals(7, projection.valuation().totalUnits());
+        assertEquals(new BigDecimal("139.93"), projection.valuation().totalValue());
+    }
+
+    @Test
+    void givenCategoryValueBeyondLongRange_whenValued_thenResultIsStillExact() {
+        for (int id = 1; id <= 20; id++) {
+            insert(id, "99999999.99", Integer.MAX_VALUE, "Bulk");
+        }
+        projection.reload();
+
+        BigDecimal expected = new BigDecimal("99999999.99").multiply(BigDecimal.valueOf(Integer.MAX_VALUE))
+                .multiply(BigDecimal.valueOf(20));
+        assertEquals(expected, projection.valuation().totalValue());
+    }
+
+    private Map<String, BigDecimal> expectedValues() {
+        Map<String, BigDecimal> values = new TreeMap<>();
+        jdbc.query("SELECT price, quantity, category FROM products", rs -> {
+            values.merge(String.valueOf(rs.getString(3)),
+                    rs.getBigDecimal(1).multiply(BigDecimal.valueOf(rs.getInt(2))), BigDecimal::add);
+        });
+        return values;
+    }
+
+    private void insert(long id, String price, int quantity, String category) {
+        jdbc.update("INSERT INTO products (id, name, price, quantity, category) VALUES (?, ?, ?, ?, ?)",
+                id, "Product " + id, new BigDecimal(price), quantity, category);
+    }
+}